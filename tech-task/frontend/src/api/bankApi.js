@@ -50,9 +50,17 @@ export const bankApi = {
     return handleResponse(response);
   },
 
+  // GET /accounts returns one page at a time; follow nextAfterId until the last page
   getAllAccounts: async () => {
-    const response = await fetch(`${API_BASE_URL}/accounts`);
-    return handleResponse(response);
+    const accounts = [];
+    let afterId = null;
+    do {
+      const query = afterId ? `?limit=1000&afterId=${afterId}` : '?limit=1000';
+      const page = await handleResponse(await fetch(`${API_BASE_URL}/accounts${query}`));
+      accounts.push(...page.accounts);
+      afterId = page.nextAfterId;
+    } while (afterId);
+    return accounts;
   },
 };
 
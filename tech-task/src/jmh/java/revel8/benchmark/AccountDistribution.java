@@ -0,0 +1,44 @@
+package revel8.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public enum AccountDistribution {
+    UNIFORM {
+        @Override
+        public int[] sample(int accounts, int samples, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] indices = new int[samples];
+            for (int i = 0; i < samples; i++) {
+                indices[i] = random.nextInt(accounts);
+            }
+            return indices;
+        }
+    },
+    ZIPF {
+        private static final double EXPONENT = 1.1;
+
+        @Override
+        public int[] sample(int accounts, int samples, long seed) {
+            double[] cdf = new double[accounts];
+            double sum = 0;
+            for (int k = 0; k < accounts; k++) {
+                sum += 1.0 / Math.pow(k + 1, EXPONENT);
+                cdf[k] = sum;
+            }
+
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] indices = new int[samples];
+            for (int i = 0; i < samples; i++) {
+                int pos = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+                indices[i] = Math.min(pos >= 0 ? pos : -pos - 1, accounts - 1);
+            }
+            return indices;
+        }
+    };
+
+    /**
+     * Draws {@code samples} account indices up front so that sampling cost stays out of the measurement.
+     */
+    public abstract int[] sample(int accounts, int samples, long seed);
+}
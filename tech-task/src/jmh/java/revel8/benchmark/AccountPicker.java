@@ -0,0 +1,27 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Thread)
+public class AccountPicker {
+    private static final int SAMPLES = 1 << 16;
+
+    private int[] indices;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp(BankState bank) {
+        indices = bank.distribution.sample(bank.accounts, SAMPLES, ThreadLocalRandom.current().nextLong());
+    }
+
+    int next() {
+        int index = indices[cursor];
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return index;
+    }
+}
@@ -0,0 +1,38 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.dto.BalanceResponse;
+import revel8.dto.TransferResponse;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountServiceLatencyBenchmark {
+
+    @Benchmark
+    public BalanceResponse deposit(BankState bank, AccountPicker picker) {
+        return bank.accountService.deposit(bank.accountIds[picker.next()], BankState.ONE_CENT);
+    }
+
+    @Benchmark
+    public BalanceResponse withdraw(BankState bank, AccountPicker picker) {
+        return bank.accountService.withdraw(bank.accountIds[picker.next()], BankState.ONE_CENT);
+    }
+
+    @Benchmark
+    public TransferResponse transfer(BankState bank, AccountPicker picker) {
+        return bank.accountService.transfer(bank.transfer(picker.next(), picker.next()));
+    }
+}
@@ -0,0 +1,168 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.config.RepositoryProperties.RepositoryType;
+import revel8.dto.BalanceResponse;
+import revel8.journal.AccountJournal;
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+import revel8.repository.AccountRepository;
+import revel8.repository.ColumnarAccountRepository;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap objects versus columnar storage with a large number of accounts. {@code populate} reports
+ * the heap retained per account and the GC time spent while filling the store, with
+ * {@code transfersPerAccount} outgoing transfers in each account's history; {@code deposit}
+ * reports GC time per iteration while the full store takes steady updates. Add {@code -prof gc}
+ * for allocation rates.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(1)
+public class AccountStoreBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Spec {
+        @Param({"HEAP", "COLUMNAR"})
+        public RepositoryType store;
+
+        @Param({"1000000"})
+        public int accounts;
+
+        @Param({"0"})
+        public int transfersPerAccount;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"HEAP", "COLUMNAR"})
+        public RepositoryType store;
+
+        @Param({"1000000"})
+        public int accounts;
+
+        AccountRepository repository;
+        AccountServiceImpl accountService;
+        UUID[] accountIds;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            repository = newRepository(store);
+            accountService = new AccountServiceImpl(repository, AccountJournal.NO_OP);
+            accountIds = new UUID[accounts];
+            for (int i = 0; i < accounts; i++) {
+                accountIds[i] = fill(repository, i).getId();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class GcCounters {
+        public long gcPauseMillis;
+        public long bytesPerAccount;
+
+        private long gcTimeAtStart;
+        private boolean stopped;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            gcPauseMillis = 0;
+            bytesPerAccount = 0;
+            gcTimeAtStart = totalGcMillis();
+            stopped = false;
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop() {
+            if (!stopped) {
+                gcPauseMillis = totalGcMillis() - gcTimeAtStart;
+                stopped = true;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Filled {
+        AccountRepository repository;
+
+        @TearDown(Level.Iteration)
+        public void release() {
+            repository = null;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public void populate(Spec spec, Filled filled, GcCounters counters) {
+        long before = usedHeapAfterGc();
+        counters.start();
+        filled.repository = newRepository(spec.store);
+        for (int i = 0; i < spec.accounts; i++) {
+            Account account = fill(filled.repository, i);
+            for (int t = 0; t < spec.transfersPerAccount; t++) {
+                account.getOutgoing().append(new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), 1, t, 100_000 - t));
+            }
+        }
+        counters.stop();
+        counters.bytesPerAccount = (usedHeapAfterGc() - before) / spec.accounts;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public BalanceResponse deposit(Store store, GcCounters counters) {
+        return store.accountService.deposit(
+                store.accountIds[ThreadLocalRandom.current().nextInt(store.accounts)], BankState.ONE_CENT);
+    }
+
+    private static AccountRepository newRepository(RepositoryType type) {
+        return type == RepositoryType.COLUMNAR ? new ColumnarAccountRepository(4096) : new InMemoryAccountRepository();
+    }
+
+    private static Account fill(AccountRepository repository, int i) {
+        return repository.create("Account " + i, "account" + i + "@bench.test", 18 + i % 80, "City " + i % 500, 100_000);
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
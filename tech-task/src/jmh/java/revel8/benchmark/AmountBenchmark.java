@@ -0,0 +1,72 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.money.MoneyCodec;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import static revel8.mapper.AccountMapper.ACCOUNT_MAPPER;
+
+/**
+ * Compares {@link MoneyCodec} with the {@code BigDecimal} / {@code String.format} code it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AmountBenchmark {
+
+    @State(Scope.Thread)
+    public static class ParseInput {
+        @Param({"12.34", "1000000.5", "0.005"})
+        public String amount;
+    }
+
+    @State(Scope.Thread)
+    public static class FormatInput {
+        @Param({"1234", "123456789012"})
+        public long cents;
+
+        final byte[] buffer = new byte[32];
+    }
+
+    @Benchmark
+    public long parseAmount(ParseInput input) {
+        return MoneyCodec.parseCents(input.amount);
+    }
+
+    @Benchmark
+    public long parseAmountBigDecimal(ParseInput input) {
+        return new BigDecimal(input.amount)
+                .setScale(2, RoundingMode.HALF_EVEN)
+                .movePointRight(2)
+                .longValueExact();
+    }
+
+    @Benchmark
+    public String formatAmount(FormatInput input) {
+        return ACCOUNT_MAPPER.formatAmount(input.cents);
+    }
+
+    @Benchmark
+    public int formatAmountToBuffer(FormatInput input) {
+        return MoneyCodec.formatTo(input.cents, input.buffer, input.buffer.length);
+    }
+
+    @Benchmark
+    public String formatAmountStringFormat(FormatInput input) {
+        return String.format("%d.%02d", input.cents / 100, Math.abs(input.cents % 100));
+    }
+}
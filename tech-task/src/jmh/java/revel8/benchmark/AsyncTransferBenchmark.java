@@ -0,0 +1,129 @@
+package revel8.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.async.AsyncTransferProcessor;
+import revel8.dto.AsyncTransferResponse;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.journal.JournalReplayer;
+import revel8.journal.MappedFileJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A payroll run: one employer pays {@value #PAYROLL} employees, either one synchronous transfer
+ * after another or submitted all at once to the asynchronous processor and awaited. With the
+ * journal every synchronous transfer waits for its own commit, while each asynchronous batch
+ * waits once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AsyncTransferBenchmark {
+    private static final int PAYROLL = 1_000;
+
+    @Param({"false", "true"})
+    public boolean journal;
+
+    @Param({"256"})
+    public int batchSize;
+
+    private Path directory;
+    private MappedFileJournal mappedJournal;
+    private AccountService accountService;
+    private AsyncTransferProcessor processor;
+    private TransferRequest[] payroll;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        AccountJournal accountJournal = AccountJournal.NO_OP;
+        if (journal) {
+            directory = Files.createTempDirectory("async-benchmark");
+            mappedJournal = MappedFileJournal.open(directory, 64 << 20, Duration.ofMillis(2), new JournalReplayer(repository));
+            accountJournal = mappedJournal;
+        }
+        accountService = new AccountServiceImpl(repository, accountJournal);
+        UUID[] ids = BankState.createAccounts(accountService, PAYROLL + 1);
+        payroll = new TransferRequest[PAYROLL];
+        for (int i = 0; i < PAYROLL; i++) {
+            payroll[i] = new TransferRequest(ids[0], ids[i + 1], BankState.ONE_CENT.amount());
+        }
+        processor = new AsyncTransferProcessor(accountService, IdGenerator.RANDOM, 2, 4096, batchSize,
+                Duration.ofSeconds(1), 100_000, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        processor.close();
+        if (mappedJournal != null) {
+            mappedJournal.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYROLL)
+    public TransferResponse synchronous() {
+        TransferResponse last = null;
+        for (TransferRequest request : payroll) {
+            last = accountService.transfer(request);
+        }
+        return last;
+    }
+
+    /**
+     * Transfers from one sender complete in submission order, so the last ticket finishes last.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAYROLL)
+    public AsyncTransferResponse asynchronous() throws Exception {
+        UUID last = null;
+        for (TransferRequest request : payroll) {
+            last = submit(request);
+        }
+        return processor.await(last, Duration.ofSeconds(30)).get();
+    }
+
+    private UUID submit(TransferRequest request) {
+        while (true) {
+            try {
+                return processor.submit(request).ticketId();
+            } catch (RejectedExecutionException e) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
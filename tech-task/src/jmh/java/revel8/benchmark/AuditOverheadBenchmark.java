@@ -0,0 +1,93 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer throughput while balance audits run in the background. {@code auditIntervalMillis} is
+ * the pause between audits; -1 runs no audits, and 0 runs them back to back. The audit count and
+ * mean audit time are printed after each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuditOverheadBenchmark {
+
+    @Param({"100000"})
+    public int accounts;
+
+    @Param({"-1", "100", "0"})
+    public int auditIntervalMillis;
+
+    private AccountService accountService;
+    private UUID[] accountIds;
+    private Thread auditor;
+    private volatile boolean running;
+    private long audits;
+    private double auditMillis;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountService = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        accountIds = BankState.createAccounts(accountService, accounts);
+        if (auditIntervalMillis < 0) {
+            return;
+        }
+        running = true;
+        auditor = Thread.ofPlatform().name("auditor").start(() -> {
+            try {
+                while (running) {
+                    auditMillis += accountService.auditBalances().durationMillis();
+                    audits++;
+                    Thread.sleep(auditIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (auditor == null) {
+            return;
+        }
+        running = false;
+        auditor.join();
+        System.out.printf("%n%d audits of %d accounts, %.1f ms each%n", audits, accounts, auditMillis / Math.max(audits, 1));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public TransferResponse transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        return accountService.transfer(new TransferRequest(accountIds[from], accountIds[to], BankState.ONE_CENT.amount()));
+    }
+}
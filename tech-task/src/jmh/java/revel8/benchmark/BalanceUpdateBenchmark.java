@@ -0,0 +1,76 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.dto.BalanceResponse;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locked versus lock-free single-account deposits and withdrawals. {@code uncontended*} gives each
+ * thread its own account; {@code contended*} sends every thread to the same one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BalanceUpdateBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Bank {
+        @Param({"false", "true"})
+        public boolean lockFree;
+
+        AccountService accountService;
+        UUID sharedAccount;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            accountService = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP, lockFree);
+            sharedAccount = BankState.createAccounts(accountService, 1)[0];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OwnAccount {
+        UUID accountId;
+
+        @Setup(Level.Trial)
+        public void setUp(Bank bank) {
+            accountId = BankState.createAccounts(bank.accountService, 1)[0];
+        }
+    }
+
+    @Benchmark
+    public BalanceResponse uncontendedDeposit(Bank bank, OwnAccount account) {
+        return bank.accountService.deposit(account.accountId, BankState.ONE_CENT);
+    }
+
+    @Benchmark
+    public BalanceResponse uncontendedWithdraw(Bank bank, OwnAccount account) {
+        return bank.accountService.withdraw(account.accountId, BankState.ONE_CENT);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public BalanceResponse contendedDeposit(Bank bank) {
+        return bank.accountService.deposit(bank.sharedAccount, BankState.ONE_CENT);
+    }
+}
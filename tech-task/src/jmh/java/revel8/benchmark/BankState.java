@@ -0,0 +1,53 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import revel8.dto.AmountRequest;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.TransferRequest;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.UUID;
+
+@State(Scope.Benchmark)
+public class BankState {
+    static final String INITIAL_BALANCE = "1000000000.00";
+    static final AmountRequest ONE_CENT = new AmountRequest("0.01");
+
+    @Param({"10000"})
+    public int accounts;
+
+    @Param({"UNIFORM", "ZIPF"})
+    public AccountDistribution distribution;
+
+    AccountService accountService;
+    UUID[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountService = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        accountIds = createAccounts(accountService, accounts);
+    }
+
+    TransferRequest transfer(int from, int to) {
+        if (from == to) {
+            to = (to + 1) % accounts;
+        }
+        return new TransferRequest(accountIds[from], accountIds[to], ONE_CENT.amount());
+    }
+
+    static UUID[] createAccounts(AccountService accountService, int count) {
+        UUID[] ids = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = accountService.createAccount(new CreateAccountRequest(
+                    "Account " + i, "account" + i + "@bench.test", 30, "City", INITIAL_BALANCE)).accountId();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,111 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.config.EngineProperties.EngineType;
+import revel8.dto.BalanceResponse;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+import revel8.service.impl.ShardedAccountService;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock-based versus sharded single-writer engine on the same skewed workload.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EngineComparisonBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Engine {
+        @Param({"LOCKING", "SHARDED"})
+        public EngineType engine;
+
+        @Param({"10000"})
+        public int accounts;
+
+        @Param({"ZIPF"})
+        public AccountDistribution distribution;
+
+        @Param({"0"})
+        public int shards;
+
+        AccountService accountService;
+        UUID[] accountIds;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            InMemoryAccountRepository repository = new InMemoryAccountRepository();
+            int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+            accountService = engine == EngineType.SHARDED
+                    ? new ShardedAccountService(repository, AccountJournal.NO_OP, shardCount)
+                    : new AccountServiceImpl(repository, AccountJournal.NO_OP);
+            accountIds = BankState.createAccounts(accountService, accounts);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (accountService instanceof ShardedAccountService sharded) {
+                sharded.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Picker {
+        private static final int SAMPLES = 1 << 16;
+
+        private int[] indices;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(Engine engine) {
+            indices = engine.distribution.sample(engine.accounts, SAMPLES, ThreadLocalRandom.current().nextLong());
+        }
+
+        int next() {
+            int index = indices[cursor];
+            cursor = (cursor + 1) & (SAMPLES - 1);
+            return index;
+        }
+    }
+
+    @Benchmark
+    public BalanceResponse deposit(Engine engine, Picker picker) {
+        return engine.accountService.deposit(engine.accountIds[picker.next()], BankState.ONE_CENT);
+    }
+
+    @Benchmark
+    public TransferResponse transfer(Engine engine, Picker picker) {
+        int from = picker.next();
+        int to = picker.next();
+        if (from == to) {
+            to = (to + 1) % engine.accounts;
+        }
+        return engine.accountService.transfer(
+                new TransferRequest(engine.accountIds[from], engine.accountIds[to], BankState.ONE_CENT.amount()));
+    }
+}
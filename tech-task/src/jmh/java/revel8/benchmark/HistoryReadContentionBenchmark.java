@@ -0,0 +1,100 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.dto.OutgoingTransfersResponse;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.journal.AccountJournal;
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers out of one account while three threads keep polling its outgoing history.
+ * {@code LOCKED} reads the history under the account lock, as {@code getOutgoingTransfers} used
+ * to; {@code LOCK_FREE} goes through the service, which copies it without the lock. Compare the
+ * {@code transfer} score of the two.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistoryReadContentionBenchmark {
+
+    public enum ReadPath {
+        LOCKED,
+        LOCK_FREE
+    }
+
+    @State(Scope.Group)
+    public static class HotAccount {
+        @Param({"LOCKED", "LOCK_FREE"})
+        public ReadPath readPath;
+
+        AccountService accountService;
+        Account account;
+        TransferRequest transfer;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            InMemoryAccountRepository repository = new InMemoryAccountRepository();
+            accountService = new AccountServiceImpl(repository, AccountJournal.NO_OP);
+            UUID[] ids = BankState.createAccounts(accountService, 2);
+            account = repository.findById(ids[0]).orElseThrow();
+            transfer = new TransferRequest(ids[0], ids[1], BankState.ONE_CENT.amount());
+            for (int i = 0; i < Account.STORED_RECORDS_LIMIT; i++) {
+                accountService.transfer(transfer);
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("polled")
+    @GroupThreads(1)
+    public TransferResponse transfer(HotAccount hot) {
+        return hot.accountService.transfer(hot.transfer);
+    }
+
+    @Benchmark
+    @Group("polled")
+    @GroupThreads(3)
+    public Object poll(HotAccount hot) {
+        if (hot.readPath == ReadPath.LOCK_FREE) {
+            return hot.accountService.getOutgoingTransfers(hot.account.getId());
+        }
+        hot.account.getLock().lock();
+        try {
+            return lockedRead(hot);
+        } finally {
+            hot.account.getLock().unlock();
+        }
+    }
+
+    private static OutgoingTransfersResponse lockedRead(HotAccount hot) {
+        List<TransferRecord> records = hot.account.getOutgoing().getRecentNewestFirst();
+        return new OutgoingTransfersResponse(records.stream()
+                .map(tr -> new TransferResponse(tr.transferId(), tr.toAccountId(), String.valueOf(tr.amountInCents()),
+                        tr.timestampMillis(), String.valueOf(tr.resultingBalanceInCents()), null))
+                .toList());
+    }
+}
@@ -0,0 +1,95 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.contention.HotAccountTracker;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.history.TransferHistory;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every thread moves money into, out of, or back and forth between the same accounts, so all
+ * operations queue on one or two account locks. With {@code stripedCredits} the hot account takes
+ * credits on striped sub-balances, so {@code fanIn} only locks the senders.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HotAccountTransferBenchmark {
+
+    @Param({"1000"})
+    public int accounts;
+
+    @Param({"false", "true"})
+    public boolean stripedCredits;
+
+    private AccountService accountService;
+    private UUID[] accountIds;
+    private UUID hotAccountId;
+    private UUID otherHotAccountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountService = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP, false,
+                TransferHistory.NONE, HotAccountTracker.DISABLED, stripedCredits, IdGenerator.RANDOM);
+        accountIds = BankState.createAccounts(accountService, accounts);
+        hotAccountId = accountIds[0];
+        otherHotAccountId = accountIds[1];
+        if (stripedCredits) {
+            accountService.stripeCredits(hotAccountId);
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public TransferResponse fanIn() {
+        UUID from = accountIds[1 + ThreadLocalRandom.current().nextInt(accounts - 1)];
+        return accountService.transfer(new TransferRequest(from, hotAccountId, BankState.ONE_CENT.amount()));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public TransferResponse fanOut() {
+        UUID to = accountIds[1 + ThreadLocalRandom.current().nextInt(accounts - 1)];
+        return accountService.transfer(new TransferRequest(hotAccountId, to, BankState.ONE_CENT.amount()));
+    }
+
+    @Benchmark
+    @Group("pingPong")
+    @GroupThreads(4)
+    public TransferResponse ping() {
+        return accountService.transfer(new TransferRequest(hotAccountId, otherHotAccountId, BankState.ONE_CENT.amount()));
+    }
+
+    @Benchmark
+    @Group("pingPong")
+    @GroupThreads(4)
+    public TransferResponse pong() {
+        return accountService.transfer(new TransferRequest(otherHotAccountId, hotAccountId, BankState.ONE_CENT.amount()));
+    }
+}
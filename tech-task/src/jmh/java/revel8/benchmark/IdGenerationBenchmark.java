@@ -0,0 +1,84 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.id.IdGenerator;
+import revel8.id.TimeOrderedIdGenerator;
+import revel8.model.Account;
+import revel8.repository.InMemoryAccountRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link UUID#randomUUID} with {@link TimeOrderedIdGenerator}: generating ids on one and
+ * on four threads, looking accounts up by id, and paging through the repository in id order.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IdGenerationBenchmark {
+
+    public enum Strategy {
+        RANDOM,
+        UUID_V7
+    }
+
+    @Param({"RANDOM", "UUID_V7"})
+    public Strategy strategy;
+
+    @Param({"100000"})
+    public int accounts;
+
+    private IdGenerator ids;
+    private InMemoryAccountRepository repository;
+    private UUID[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ids = strategy == Strategy.RANDOM ? IdGenerator.RANDOM : new TimeOrderedIdGenerator();
+        repository = new InMemoryAccountRepository(ids);
+        accountIds = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = repository.create("User " + i, "user" + i + "@example.com", 30, "City", 0).getId();
+        }
+    }
+
+    @Benchmark
+    public UUID generate() {
+        return ids.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID generateContended() {
+        return ids.next();
+    }
+
+    @Benchmark
+    public Optional<Account> findById() {
+        return repository.findById(accountIds[ThreadLocalRandom.current().nextInt(accounts)]);
+    }
+
+    @Benchmark
+    public List<Account> findPage() {
+        return repository.findPage(accountIds[ThreadLocalRandom.current().nextInt(accounts)], 100);
+    }
+}
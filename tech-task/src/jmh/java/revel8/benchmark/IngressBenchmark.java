@@ -0,0 +1,134 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import revel8.Application;
+import revel8.protocol.BinaryProtocol;
+import revel8.service.AccountService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-cent transfers between random accounts over real HTTP against a running application:
+ * {@code rest} posts one JSON transfer per request, {@code binary} one binary frame per request,
+ * and {@code binaryPipelined} {@value #PIPELINED_FRAMES} frames per request. Scores are transfers
+ * per second. Request bodies are built up front, so the client's serialization is not measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IngressBenchmark {
+    static final int PIPELINED_FRAMES = 64;
+    private static final int ACCOUNTS = 1000;
+    private static final int PREBUILT_REQUESTS = 1024;
+
+    private ServletWebServerApplicationContext context;
+    private HttpClient client;
+    private URI restUri;
+    private URI binaryUri;
+    private String[] jsonBodies;
+    private byte[][] singleFrames;
+    private byte[][] pipelinedFrames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(Application.class)
+                .run("--server.port=0", "--logging.level.root=WARN");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String baseUrl = "http://localhost:" + context.getWebServer().getPort() + "/api";
+        restUri = URI.create(baseUrl + "/transfers");
+        binaryUri = URI.create(baseUrl + "/binary");
+
+        UUID[] ids = BankState.createAccounts(context.getBean(AccountService.class), ACCOUNTS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        jsonBodies = new String[PREBUILT_REQUESTS];
+        singleFrames = new byte[PREBUILT_REQUESTS][];
+        pipelinedFrames = new byte[PREBUILT_REQUESTS][];
+        for (int i = 0; i < PREBUILT_REQUESTS; i++) {
+            int from = random.nextInt(ACCOUNTS);
+            int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            jsonBodies[i] = "{\"fromAccountId\":\"" + ids[from] + "\",\"toAccountId\":\"" + ids[to]
+                    + "\",\"amount\":\"0.01\"}";
+            ByteBuffer single = ByteBuffer.allocate(Integer.BYTES + BinaryProtocol.TRANSFER_COMMAND_LENGTH);
+            BinaryProtocol.putTransfer(single, ids[from], ids[to], 1);
+            singleFrames[i] = single.array();
+            ByteBuffer pipelined = ByteBuffer.allocate(PIPELINED_FRAMES * single.capacity());
+            for (int f = 0; f < PIPELINED_FRAMES; f++) {
+                int pipelinedFrom = random.nextInt(ACCOUNTS);
+                BinaryProtocol.putTransfer(pipelined, ids[pipelinedFrom], ids[(pipelinedFrom + 1) % ACCOUNTS], 1);
+            }
+            pipelinedFrames[i] = pipelined.array();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] rest() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(restUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBodies[next()])));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] binary() throws IOException, InterruptedException {
+        return send(binaryRequest(singleFrames[next()]));
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(PIPELINED_FRAMES)
+    public byte[] binaryPipelined() throws IOException, InterruptedException {
+        return send(binaryRequest(pipelinedFrames[next()]));
+    }
+
+    private HttpRequest.Builder binaryRequest(byte[] frames) {
+        return HttpRequest.newBuilder(binaryUri)
+                .header("Content-Type", "application/octet-stream")
+                .header("Accept", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(frames));
+    }
+
+    private byte[] send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static int next() {
+        return ThreadLocalRandom.current().nextInt(PREBUILT_REQUESTS);
+    }
+}
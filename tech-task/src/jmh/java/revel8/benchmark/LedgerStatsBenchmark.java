@@ -0,0 +1,98 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.contention.HotAccountTracker;
+import revel8.dto.BalanceResponse;
+import revel8.dto.StatsResponse;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.history.TransferHistory;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.model.Account;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+import revel8.stats.LedgerStats;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code transfer} and {@code deposit} measure what keeping the aggregates costs the write path.
+ * {@code readStats} reads them, and {@code scanCityBalances} computes the per-city balances the
+ * way a report would without them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LedgerStatsBenchmark {
+
+    @Param({"100000"})
+    public int accounts;
+
+    @Param({"false", "true"})
+    public boolean stats;
+
+    private InMemoryAccountRepository repository;
+    private LedgerStats ledgerStats;
+    private AccountService accountService;
+    private UUID[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryAccountRepository();
+        ledgerStats = stats ? new LedgerStats(Duration.ofMinutes(1), 60) : LedgerStats.DISABLED;
+        accountService = new AccountServiceImpl(repository, AccountJournal.NO_OP, false, TransferHistory.NONE,
+                HotAccountTracker.DISABLED, false, IdGenerator.RANDOM, ledgerStats);
+        accountIds = BankState.createAccounts(accountService, accounts);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public TransferResponse transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        return accountService.transfer(new TransferRequest(accountIds[from], accountIds[to], BankState.ONE_CENT.amount()));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public BalanceResponse deposit() {
+        return accountService.deposit(accountIds[ThreadLocalRandom.current().nextInt(accounts)], BankState.ONE_CENT);
+    }
+
+    @Benchmark
+    public StatsResponse readStats() {
+        return stats ? ledgerStats.read() : null;
+    }
+
+    @Benchmark
+    public Map<String, Long> scanCityBalances() {
+        Map<String, Long> balances = new HashMap<>();
+        for (Account account : repository.findAll()) {
+            balances.merge(account.getCity(), account.getBalanceInCents(), Long::sum);
+        }
+        return balances;
+    }
+}
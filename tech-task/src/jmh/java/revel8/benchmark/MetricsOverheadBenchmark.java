@@ -0,0 +1,98 @@
+package revel8.benchmark;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.datastructure.TimedLock;
+import revel8.dto.BalanceResponse;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+import revel8.service.impl.MeteredAccountService;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The service with operation timers, account lock timers, both or neither recording into a
+ * Prometheus registry. JMH runs each setting in its own JVM, so lock timers bound for one
+ * setting do not leak into the next.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetricsOverheadBenchmark {
+
+    public enum Metrics {
+        OFF,
+        OPERATIONS,
+        LOCKS,
+        ON
+    }
+
+    @State(Scope.Benchmark)
+    public static class Bank {
+        @Param({"OFF", "OPERATIONS", "LOCKS", "ON"})
+        public Metrics metrics;
+
+        @Param({"10000"})
+        public int accounts;
+
+        AccountService accountService;
+        UUID[] accountIds;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            InMemoryAccountRepository repository = new InMemoryAccountRepository();
+            AccountService service = new AccountServiceImpl(repository, AccountJournal.NO_OP);
+            PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            repository.bindTo(registry);
+            if (metrics == Metrics.LOCKS || metrics == Metrics.ON) {
+                TimedLock.bindTo(registry);
+            }
+            if (metrics == Metrics.OPERATIONS || metrics == Metrics.ON) {
+                service = new MeteredAccountService(service, registry);
+            }
+            accountService = service;
+            accountIds = BankState.createAccounts(accountService, accounts);
+        }
+
+        UUID pick() {
+            return accountIds[ThreadLocalRandom.current().nextInt(accounts)];
+        }
+    }
+
+    @Benchmark
+    public BalanceResponse deposit(Bank bank) {
+        return bank.accountService.deposit(bank.pick(), BankState.ONE_CENT);
+    }
+
+    @Benchmark
+    public TransferResponse transfer(Bank bank) {
+        UUID from = bank.pick();
+        UUID to = bank.pick();
+        if (from.equals(to)) {
+            to = bank.accountIds[0].equals(from) ? bank.accountIds[1] : bank.accountIds[0];
+        }
+        return bank.accountService.transfer(new TransferRequest(from, to, BankState.ONE_CENT.amount()));
+    }
+}
@@ -0,0 +1,68 @@
+package revel8.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.datastructure.PackedRingBuffer;
+import revel8.datastructure.RingBuffer;
+import revel8.datastructure.TransferRecordBuffer;
+import revel8.model.TransferRecord;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code OBJECTS} keeps the appended records, {@code PACKED} copies their fields into a
+ * {@code long[]} and creates new records on every read. Add {@code -prof gc} for allocation per
+ * operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RingBufferBenchmark {
+    private static final int CAPACITY = 50;
+
+    public enum Layout {
+        OBJECTS,
+        PACKED
+    }
+
+    @Param({"OBJECTS", "PACKED"})
+    public Layout layout;
+
+    private TransferRecordBuffer buffer;
+    private TransferRecord record;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        buffer = layout == Layout.PACKED ? new PackedRingBuffer(CAPACITY) : new RingBuffer(CAPACITY);
+        record = new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), 1000, System.currentTimeMillis(), 9000);
+        for (int i = 0; i < CAPACITY; i++) {
+            buffer.append(record);
+        }
+    }
+
+    @Benchmark
+    public TransferRecordBuffer append() {
+        buffer.append(record);
+        return buffer;
+    }
+
+    @Benchmark
+    public List<TransferRecord> getRecentNewestFirst() {
+        return buffer.getRecentNewestFirst();
+    }
+}
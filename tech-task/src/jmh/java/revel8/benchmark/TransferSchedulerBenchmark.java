@@ -0,0 +1,123 @@
+package revel8.benchmark;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import revel8.dto.ScheduledTransferRequest;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.schedule.TransferScheduler;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds {@code pending} hourly standing orders, spread evenly over the coming hour, while the
+ * scheduler runs the ones falling due. {@code scheduleAndCancel} adds and removes one more order.
+ * After setup the heap retained per order is printed, and after the trial how late the runs of
+ * the last ten seconds started, leaving out the backlog that builds up while setup is loading
+ * the orders.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransferSchedulerBenchmark {
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Param({"1000000", "4000000"})
+    public int pending;
+
+    @Param({"1000"})
+    public int accounts;
+
+    private SimpleMeterRegistry registry;
+    private TransferScheduler scheduler;
+    private UUID[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AccountService accountService = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        accountIds = BankState.createAccounts(accountService, accounts);
+        registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.99)
+                        .expiry(Duration.ofSeconds(10))
+                        .bufferLength(2)
+                        .build()
+                        .merge(config);
+            }
+        });
+        scheduler = new TransferScheduler(accountService, IdGenerator.RANDOM, Duration.ofMillis(10), 256, 1, Duration.ofMinutes(5), registry);
+
+        long heapBefore = usedHeap();
+        Instant start = Instant.now().plusSeconds(1);
+        long spacingNanos = HOUR.toNanos() / pending;
+        for (int i = 0; i < pending; i++) {
+            scheduler.schedule(new ScheduledTransferRequest(accountIds[i % accounts], accountIds[(i + 1) % accounts],
+                    BankState.ONE_CENT.amount(), start.plusNanos(i * spacingNanos), HOUR));
+        }
+        long heapAfter = usedHeap();
+        System.out.printf("%n%d pending orders retain %.0f bytes each%n", pending, (heapAfter - heapBefore) / (double) pending);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.close();
+        Timer lateness = registry.get("bank.schedule.lateness").timer();
+        HistogramSnapshot snapshot = lateness.takeSnapshot();
+        StringBuilder percentiles = new StringBuilder();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.append(String.format("p%.0f %.1f ms, ", value.percentile() * 100, value.value(TimeUnit.MILLISECONDS)));
+        }
+        System.out.printf("%d runs; in the last 10 s they started late by %smax %.1f ms%n", lateness.count(), percentiles,
+                snapshot.max(TimeUnit.MILLISECONDS));
+    }
+
+    @Benchmark
+    public UUID scheduleAndCancel() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID id = scheduler.schedule(new ScheduledTransferRequest(accountIds[0], accountIds[1], BankState.ONE_CENT.amount(),
+                Instant.now().plusSeconds(random.nextInt(1, 3600)), HOUR)).scheduleId();
+        scheduler.cancel(id);
+        return id;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
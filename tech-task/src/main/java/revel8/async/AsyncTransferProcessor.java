@@ -0,0 +1,308 @@
+package revel8.async;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import revel8.datastructure.MpscRing;
+import revel8.dto.AsyncTransferResponse;
+import revel8.dto.AsyncTransferStatus;
+import revel8.dto.BatchItemStatus;
+import revel8.dto.BatchMode;
+import revel8.dto.TransferBatchItemResult;
+import revel8.dto.TransferBatchRequest;
+import revel8.dto.TransferBatchResponse;
+import revel8.dto.TransferRequest;
+import revel8.exception.TicketNotFoundException;
+import revel8.id.IdGenerator;
+import revel8.service.AccountService;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs transfers submitted without waiting for them. Each submission gets a ticket and goes into
+ * the bounded ring of one worker thread, chosen by the sender, so all transfers from one account
+ * are applied by the same worker in submission order. A worker drains up to {@code batchSize}
+ * transfers at a time and applies them with a single best-effort {@link AccountService#transferBatch},
+ * which locks every account involved once and waits for the journal once; a payroll run from one
+ * account therefore takes that account's lock once per batch instead of once per transfer.
+ * <p>
+ * A full ring rejects the submission rather than blocking. Closing waits for submissions under
+ * way to reach their ring before the workers are told to stop, so every accepted ticket is
+ * finished. Finished tickets are dropped oldest
+ * first once they are older than {@code retention} or there are more than {@code maxTickets};
+ * pending tickets are never dropped.
+ * <p>
+ * {@code bank.async.queue.depth} is the number of transfers waiting in the rings,
+ * {@code bank.async.batch.size} the number applied per batch and {@code bank.async.latency}
+ * the time from submission to completion.
+ */
+@Slf4j
+public class AsyncTransferProcessor implements Closeable {
+    private static final int SPINS_BEFORE_PARK = 64;
+
+    private final AccountService accountService;
+    private final IdGenerator ids;
+    private final Worker[] workers;
+    private final int batchSize;
+    private final long retentionNanos;
+    private final int maxTickets;
+    private final LongSupplier nanoClock;
+    private final Map<UUID, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Queue<Ticket> submissionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger ticketCount = new AtomicInteger();
+    private final AtomicInteger submitting = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+    private final Timer latency;
+    private volatile boolean running = true;
+    // Set once no submission can reach a ring any more
+    private volatile boolean stopped;
+
+    public AsyncTransferProcessor(AccountService accountService, IdGenerator ids, int workers, int queueCapacity,
+                                  int batchSize, Duration retention, int maxTickets, MeterRegistry meterRegistry) {
+        this(accountService, ids, workers, queueCapacity, batchSize, retention, maxTickets, meterRegistry, System::nanoTime);
+    }
+
+    AsyncTransferProcessor(AccountService accountService, IdGenerator ids, int workers, int queueCapacity,
+                           int batchSize, Duration retention, int maxTickets, MeterRegistry meterRegistry,
+                           LongSupplier nanoClock) {
+        if (workers <= 0 || batchSize <= 0 || batchSize > 10_000 || maxTickets <= 0) {
+            throw new IllegalArgumentException("Workers and max tickets must be positive and batch size within 1..10000");
+        }
+        this.accountService = accountService;
+        this.ids = ids;
+        this.batchSize = batchSize;
+        this.retentionNanos = retention.toNanos();
+        this.maxTickets = maxTickets;
+        this.nanoClock = nanoClock;
+        this.workers = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new Worker(i, queueCapacity);
+        }
+
+        this.batchSizes = DistributionSummary.builder("bank.async.batch.size")
+                .description("Transfers applied per batch by the asynchronous transfer workers")
+                .register(meterRegistry);
+        this.latency = Timer.builder("bank.async.latency")
+                .description("Time from submitting an asynchronous transfer to its completion")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        Gauge.builder("bank.async.queue.depth", this, AsyncTransferProcessor::queueDepth)
+                .description("Asynchronous transfers waiting for a worker")
+                .register(meterRegistry);
+        for (Worker worker : this.workers) {
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Queues the transfer and returns its pending ticket.
+     *
+     * @throws RejectedExecutionException if the worker's ring is full or the processor is closed
+     */
+    public AsyncTransferResponse submit(TransferRequest request) {
+        Ticket ticket = new Ticket(ids.next(), request, nanoClock.getAsLong());
+        Worker worker = workers[Math.floorMod(request.fromAccountId().hashCode(), workers.length)];
+        submitting.incrementAndGet();
+        try {
+            if (!running) {
+                throw new RejectedExecutionException("Asynchronous transfers are shutting down");
+            }
+            tickets.put(ticket.id, ticket);
+            if (!worker.ring.offer(ticket)) {
+                tickets.remove(ticket.id);
+                throw new RejectedExecutionException("Asynchronous transfer queue is full");
+            }
+            submissionOrder.add(ticket);
+            ticketCount.incrementAndGet();
+        } finally {
+            submitting.decrementAndGet();
+        }
+        worker.wake();
+        evictFinished();
+        return AsyncTransferResponse.pending(ticket.id);
+    }
+
+    /**
+     * The ticket's current state.
+     */
+    public AsyncTransferResponse poll(UUID ticketId) {
+        Ticket ticket = ticket(ticketId);
+        AsyncTransferResponse result = ticket.result.getNow(null);
+        return result != null ? result : AsyncTransferResponse.pending(ticketId);
+    }
+
+    /**
+     * Completes with the ticket's result once it is done, or with its pending state after
+     * {@code timeout}; no thread waits in the meantime.
+     */
+    public CompletableFuture<AsyncTransferResponse> await(UUID ticketId, Duration timeout) {
+        Ticket ticket = ticket(ticketId);
+        return ticket.result.copy().completeOnTimeout(AsyncTransferResponse.pending(ticketId),
+                timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public int queueDepth() {
+        int depth = 0;
+        for (Worker worker : workers) {
+            depth += worker.ring.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Stops taking submissions and returns once every queued transfer has been applied.
+     */
+    @Override
+    public void close() {
+        running = false;
+        while (submitting.get() > 0) {
+            Thread.onSpinWait();
+        }
+        stopped = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Ticket ticket(UUID ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new TicketNotFoundException("Ticket not found: " + ticketId);
+        }
+        return ticket;
+    }
+
+    private void evictFinished() {
+        long now = nanoClock.getAsLong();
+        Ticket oldest;
+        while ((oldest = submissionOrder.peek()) != null && oldest.result.isDone()
+                && (ticketCount.get() > maxTickets || now - oldest.finishedNanos > retentionNanos)) {
+            if (submissionOrder.remove(oldest)) {
+                tickets.remove(oldest.id);
+                ticketCount.decrementAndGet();
+            }
+        }
+    }
+
+    private void apply(List<Ticket> batch) {
+        List<TransferRequest> requests = new ArrayList<>(batch.size());
+        for (Ticket ticket : batch) {
+            requests.add(ticket.request);
+        }
+        TransferBatchResponse response = accountService.transferBatch(new TransferBatchRequest(requests, BatchMode.BEST_EFFORT));
+        List<TransferBatchItemResult> results = response.results();
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Ticket ticket = batch.get(i);
+            TransferBatchItemResult result = results.get(i);
+            finish(ticket, result.status() == BatchItemStatus.COMPLETED
+                    ? new AsyncTransferResponse(ticket.id, AsyncTransferStatus.COMPLETED, result.transfer(), null)
+                    : new AsyncTransferResponse(ticket.id, AsyncTransferStatus.FAILED, null, result.error()));
+        }
+    }
+
+    /**
+     * Fails the tickets of a batch that broke off, including on an {@link Error}, so that neither
+     * they nor the tickets queued behind them are left pending.
+     */
+    private void fail(List<Ticket> batch, Throwable e) {
+        log.error("Asynchronous transfer batch failed", e);
+        for (Ticket ticket : batch) {
+            if (!ticket.result.isDone()) {
+                finish(ticket, new AsyncTransferResponse(ticket.id, AsyncTransferStatus.FAILED, null, e.getMessage()));
+            }
+        }
+    }
+
+    private void finish(Ticket ticket, AsyncTransferResponse result) {
+        long now = nanoClock.getAsLong();
+        ticket.finishedNanos = now;
+        latency.record(now - ticket.submittedNanos, TimeUnit.NANOSECONDS);
+        ticket.result.complete(result);
+    }
+
+    private static final class Ticket {
+        private final UUID id;
+        private final TransferRequest request;
+        private final long submittedNanos;
+        private final CompletableFuture<AsyncTransferResponse> result = new CompletableFuture<>();
+        // Written before the result completes, read after
+        private long finishedNanos;
+
+        Ticket(UUID id, TransferRequest request, long submittedNanos) {
+            this.id = id;
+            this.request = request;
+            this.submittedNanos = submittedNanos;
+        }
+    }
+
+    private final class Worker {
+        private final MpscRing<Ticket> ring;
+        private final Thread thread;
+        private volatile boolean parked;
+
+        Worker(int index, int capacity) {
+            this.ring = new MpscRing<>(capacity);
+            this.thread = Thread.ofPlatform().name("async-transfers-" + index).daemon().unstarted(this::run);
+        }
+
+        void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void run() {
+            List<Ticket> batch = new ArrayList<>(batchSize);
+            int idle = 0;
+            while (true) {
+                batch.clear();
+                if (ring.drainTo(batch, batchSize) > 0) {
+                    idle = 0;
+                    try {
+                        apply(batch);
+                    } catch (Throwable e) {
+                        fail(batch, e);
+                    }
+                } else if (stopped && ring.isEmpty()) {
+                    return;
+                } else if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (ring.isEmpty() && !stopped) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    idle = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package revel8.audit;
+
+import revel8.dto.BalanceAuditResponse;
+import revel8.dto.CityBalanceResponse;
+import revel8.model.Account;
+import revel8.money.MoneyCodec;
+import revel8.repository.AccountRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adds up every balance as of one instant while mutations carry on. Each audit starts a new
+ * epoch. Every mutation reads the epoch once, with all of its account locks held, and hands each
+ * account to {@link #beforeUpdate} before changing it; the first mutation of an account in a new
+ * epoch counts the balance it found, so the audit sees the account as it was before the epoch
+ * began. New accounts start empty and take their initial deposit the same way. Meanwhile the
+ * audit visits every account under its lock and counts the ones no mutation has counted yet.
+ * Every mutation therefore lies wholly before or wholly after the audit's instant, and a transfer
+ * is never seen on one side only.
+ * <p>
+ * The accounts are visited in parallel on a fork-join pool, each leaf task holding one lock at
+ * a time. Deposits and withdrawals report their amounts under the same epoch, so each audit can
+ * also check that the total moved by exactly the money that came in or left.
+ */
+public class BalanceAuditor {
+    private static final int LEAF_SIZE = 4096;
+
+    private final AccountRepository accountRepository;
+    private final ForkJoinPool pool;
+    private final ReentrantLock auditLock = new ReentrantLock();
+    private final LongAdder[] netInflow = {new LongAdder(), new LongAdder()};
+    private volatile int epoch;
+    private volatile CityTotals counted;
+    // Guarded by auditLock
+    private Long previousTotal;
+
+    public BalanceAuditor(AccountRepository accountRepository) {
+        this(accountRepository, ForkJoinPool.commonPool());
+    }
+
+    public BalanceAuditor(AccountRepository accountRepository, ForkJoinPool pool) {
+        this.accountRepository = accountRepository;
+        this.pool = pool;
+    }
+
+    /**
+     * The current epoch. A mutation reads it once, after taking all of its account locks.
+     */
+    public int epoch() {
+        return epoch;
+    }
+
+    /**
+     * Called with the account's lock held before a mutation read in {@code epoch} changes it.
+     */
+    public void beforeUpdate(Account account, int epoch, long balanceInCents) {
+        if (account.getAuditEpoch() >= epoch) {
+            return;
+        }
+        account.setAuditEpoch(epoch);
+        CityTotals totals = counted;
+        if (totals != null && totals.epoch == epoch) {
+            totals.add(account.getCity(), balanceInCents);
+        }
+    }
+
+    /**
+     * Called with the account's lock held when a deposit, withdrawal or initial deposit read in
+     * {@code epoch} has been applied; withdrawals pass a negative amount.
+     */
+    public void moved(int epoch, long cents) {
+        netInflow[epoch & 1].add(cents);
+    }
+
+    public BalanceAuditResponse audit() {
+        auditLock.lock();
+        try {
+            long start = System.nanoTime();
+            int next = epoch + 1;
+            CityTotals fromMutations = new CityTotals(next);
+            counted = fromMutations;
+            epoch = next;
+
+            // Every account created before the epoch changed is already in the repository
+            Account[] accounts = accountRepository.findAll().toArray(new Account[0]);
+            Map<String, long[]> cities = new TreeMap<>(pool.invoke(new Visit(accounts, 0, accounts.length, next)));
+            fromMutations.addTo(cities);
+            counted = null;
+
+            // Mutations of the previous epoch all held a lock this audit has since taken
+            long inflow = netInflow[(next - 1) & 1].sumThenReset();
+            long accountCount = 0;
+            long total = 0;
+            List<CityBalanceResponse> perCity = new ArrayList<>(cities.size());
+            for (Map.Entry<String, long[]> city : cities.entrySet()) {
+                accountCount += city.getValue()[0];
+                total += city.getValue()[1];
+                perCity.add(new CityBalanceResponse(city.getKey(), city.getValue()[0], MoneyCodec.format(city.getValue()[1])));
+            }
+            Long previous = previousTotal;
+            previousTotal = total;
+            return new BalanceAuditResponse(
+                    next,
+                    accountCount,
+                    MoneyCodec.format(total),
+                    previous == null ? null : MoneyCodec.format(inflow),
+                    previous == null ? null : MoneyCodec.format(total - previous - inflow),
+                    perCity,
+                    (System.nanoTime() - start) / 1e6
+            );
+        } finally {
+            auditLock.unlock();
+        }
+    }
+
+    private static String cityKey(String city) {
+        return Objects.requireNonNullElse(city, "");
+    }
+
+    private static void add(Map<String, long[]> cities, String city, long accounts, long balanceInCents) {
+        long[] totals = cities.computeIfAbsent(cityKey(city), c -> new long[2]);
+        totals[0] += accounts;
+        totals[1] += balanceInCents;
+    }
+
+    private static final class Visit extends RecursiveTask<Map<String, long[]>> {
+        private final Account[] accounts;
+        private final int from;
+        private final int to;
+        private final int epoch;
+
+        Visit(Account[] accounts, int from, int to, int epoch) {
+            this.accounts = accounts;
+            this.from = from;
+            this.to = to;
+            this.epoch = epoch;
+        }
+
+        @Override
+        protected Map<String, long[]> compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                Visit left = new Visit(accounts, from, middle, epoch);
+                left.fork();
+                Map<String, long[]> right = new Visit(accounts, middle, to, epoch).compute();
+                Map<String, long[]> merged = left.join();
+                right.forEach((city, totals) -> add(merged, city, totals[0], totals[1]));
+                return merged;
+            }
+            Map<String, long[]> cities = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                Account account = accounts[i];
+                account.getLock().lock();
+                try {
+                    if (account.getAuditEpoch() < epoch) {
+                        account.setAuditEpoch(epoch);
+                        add(cities, account.getCity(), 1, account.getBalanceInCents());
+                    }
+                } finally {
+                    account.getLock().unlock();
+                }
+            }
+            return cities;
+        }
+    }
+
+    private static final class CityTotals {
+        private final int epoch;
+        private final ConcurrentHashMap<String, LongAdder[]> cities = new ConcurrentHashMap<>();
+
+        CityTotals(int epoch) {
+            this.epoch = epoch;
+        }
+
+        void add(String city, long balanceInCents) {
+            LongAdder[] totals = cities.computeIfAbsent(cityKey(city), c -> new LongAdder[] {new LongAdder(), new LongAdder()});
+            totals[0].increment();
+            totals[1].add(balanceInCents);
+        }
+
+        void addTo(Map<String, long[]> target) {
+            cities.forEach((city, totals) -> BalanceAuditor.add(target, city, totals[0].sum(), totals[1].sum()));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package revel8.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.async.AsyncTransferProcessor;
+import revel8.id.IdGenerator;
+import revel8.service.AccountService;
+
+@Configuration
+@EnableConfigurationProperties(AsyncProperties.class)
+public class AsyncConfig {
+
+    @Bean
+    public AsyncTransferProcessor asyncTransferProcessor(AsyncProperties properties, AccountService accountService,
+                                                         IdGenerator ids, MeterRegistry meterRegistry) {
+        return new AsyncTransferProcessor(accountService, ids, properties.workers(), properties.queueCapacity(),
+                properties.batchSize(), properties.retention(), properties.maxTickets(), meterRegistry);
+    }
+}
@@ -0,0 +1,28 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * {@code queueCapacity} is per worker and must be a power of two.
+ */
+@ConfigurationProperties(prefix = "bank.async")
+public record AsyncProperties(
+        @DefaultValue("2")
+        int workers,
+
+        @DefaultValue("65536")
+        int queueCapacity,
+
+        @DefaultValue("256")
+        int batchSize,
+
+        @DefaultValue("5m")
+        Duration retention,
+
+        @DefaultValue("1000000")
+        int maxTickets
+) {
+}
@@ -0,0 +1,19 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.contention.HotAccountTracker;
+
+@Configuration
+@EnableConfigurationProperties(ContentionProperties.class)
+public class ContentionConfig {
+
+    @Bean
+    public HotAccountTracker hotAccountTracker(ContentionProperties properties) {
+        if (!properties.enabled()) {
+            return HotAccountTracker.DISABLED;
+        }
+        return new HotAccountTracker(properties.trackedAccounts(), properties.sampleRate());
+    }
+}
@@ -0,0 +1,17 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "bank.contention")
+public record ContentionProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("64")
+        int trackedAccounts,
+
+        @DefaultValue("8")
+        int sampleRate
+) {
+}
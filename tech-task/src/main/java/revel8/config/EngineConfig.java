@@ -0,0 +1,30 @@
+package revel8.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.history.TransferHistory;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.repository.AccountRepository;
+import revel8.service.impl.ShardedAccountService;
+
+@Configuration
+@EnableConfigurationProperties(EngineProperties.class)
+public class EngineConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.engine", name = "type", havingValue = "sharded")
+    public ShardedAccountService shardedAccountService(EngineProperties properties,
+                                                       AccountRepository accountRepository,
+                                                       AccountJournal journal,
+                                                       TransferHistory history,
+                                                       IdGenerator ids) {
+        if (properties.lockFreeBalanceUpdates() || properties.stripedCredits()) {
+            throw new IllegalStateException(
+                    "Lock-free balance updates and striped credits cannot be combined with the sharded engine");
+        }
+        return new ShardedAccountService(accountRepository, journal, properties.shardCount(), history, ids);
+    }
+}
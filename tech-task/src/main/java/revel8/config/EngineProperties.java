@@ -0,0 +1,29 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "bank.engine")
+public record EngineProperties(
+        @DefaultValue("locking")
+        EngineType type,
+
+        @DefaultValue("0")
+        int shards,
+
+        @DefaultValue("false")
+        boolean lockFreeBalanceUpdates,
+
+        @DefaultValue("false")
+        boolean stripedCredits
+) {
+
+    public enum EngineType {
+        LOCKING,
+        SHARDED
+    }
+
+    public int shardCount() {
+        return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,35 @@
+package revel8.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.history.MappedTransferHistory;
+import revel8.history.TransferHistory;
+
+import java.io.IOException;
+
+@Configuration
+@EnableConfigurationProperties(HistoryProperties.class)
+public class HistoryConfig {
+
+    /**
+     * Without the journal the accounts do not survive a restart, so neither should their history.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.history", name = "enabled", havingValue = "true")
+    public MappedTransferHistory mappedTransferHistory(HistoryProperties properties,
+                                                       JournalProperties journalProperties) throws IOException {
+        return MappedTransferHistory.open(
+                properties.directory(),
+                Math.toIntExact(properties.segmentSize().toBytes()),
+                !journalProperties.enabled()
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.history", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public TransferHistory noTransferHistory() {
+        return TransferHistory.NONE;
+    }
+}
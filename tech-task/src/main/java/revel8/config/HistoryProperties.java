@@ -0,0 +1,20 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties(prefix = "bank.history")
+public record HistoryProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("data/history")
+        Path directory,
+
+        @DefaultValue("64MB")
+        DataSize segmentSize
+) {
+}
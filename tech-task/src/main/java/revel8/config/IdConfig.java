@@ -0,0 +1,20 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.id.IdGenerator;
+import revel8.id.TimeOrderedIdGenerator;
+
+@Configuration
+@EnableConfigurationProperties(IdProperties.class)
+public class IdConfig {
+
+    @Bean
+    public IdGenerator idGenerator(IdProperties properties) {
+        return switch (properties.generator()) {
+            case RANDOM -> IdGenerator.RANDOM;
+            case UUID_V7 -> new TimeOrderedIdGenerator();
+        };
+    }
+}
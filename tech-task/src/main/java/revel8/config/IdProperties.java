@@ -0,0 +1,16 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "bank.ids")
+public record IdProperties(
+        @DefaultValue("random")
+        IdStrategy generator
+) {
+
+    public enum IdStrategy {
+        RANDOM,
+        UUID_V7
+    }
+}
@@ -0,0 +1,17 @@
+package revel8.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.web.IdempotencyCache;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyCache idempotencyCache(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        return new IdempotencyCache(properties.maxEntries(), properties.ttl(), meterRegistry);
+    }
+}
@@ -0,0 +1,16 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("100000")
+        int maxEntries,
+
+        @DefaultValue("24h")
+        Duration ttl
+) {
+}
@@ -0,0 +1,74 @@
+package revel8.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.journal.AccountJournal;
+import revel8.journal.JournalReplayer;
+import revel8.journal.MappedFileJournal;
+import revel8.repository.AccountRepository;
+import revel8.snapshot.SnapshotScheduler;
+import revel8.snapshot.SnapshotStore;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties({JournalProperties.class, SnapshotProperties.class})
+public class JournalConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.journal", name = "enabled", havingValue = "true")
+    public SnapshotStore snapshotStore(SnapshotProperties properties) {
+        return new SnapshotStore(properties.directory(), properties.partitions());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.journal", name = "enabled", havingValue = "true")
+    public MappedFileJournal mappedFileJournal(JournalProperties properties, SnapshotStore snapshotStore,
+                                               AccountRepository accountRepository,
+                                               MeterRegistry meterRegistry) throws IOException {
+        long start = System.nanoTime();
+        SnapshotStore.LoadResult snapshot = snapshotStore.loadLatest(accountRepository);
+        long snapshotLoaded = System.nanoTime();
+
+        JournalReplayer replayer = new JournalReplayer(accountRepository);
+        MappedFileJournal journal = MappedFileJournal.open(
+                properties.directory(),
+                Math.toIntExact(properties.segmentSize().toBytes()),
+                properties.commitWindow(),
+                replayer
+        );
+        int completedCredits = replayer.completePendingCredits(journal);
+        long coldStartNanos = System.nanoTime() - start;
+
+        log.info("Loaded {} accounts from snapshot {} in {} ms, replayed {} journal entries in {} ms",
+                snapshot.accounts(), snapshot.sequence(), (snapshotLoaded - start) / 1_000_000,
+                replayer.getReplayedEntries(), (System.nanoTime() - snapshotLoaded) / 1_000_000);
+        if (completedCredits > 0) {
+            log.warn("Completed {} transfers that were debited but not yet credited before shutdown", completedCredits);
+        }
+        TimeGauge.builder("bank.recovery.cold.start", () -> coldStartNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent loading the latest snapshot and replaying the journal tail at startup")
+                .register(meterRegistry);
+        return journal;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.journal", name = "enabled", havingValue = "true")
+    public SnapshotScheduler snapshotScheduler(SnapshotProperties properties, SnapshotStore snapshotStore,
+                                               MappedFileJournal journal, AccountRepository accountRepository) {
+        return new SnapshotScheduler(snapshotStore, journal, accountRepository, properties.interval());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.journal", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public AccountJournal noOpAccountJournal() {
+        return AccountJournal.NO_OP;
+    }
+}
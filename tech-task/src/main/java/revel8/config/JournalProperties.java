@@ -0,0 +1,24 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.journal")
+public record JournalProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("data/journal")
+        Path directory,
+
+        @DefaultValue("64MB")
+        DataSize segmentSize,
+
+        @DefaultValue("2ms")
+        Duration commitWindow
+) {
+}
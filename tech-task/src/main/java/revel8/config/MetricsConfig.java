@@ -0,0 +1,38 @@
+package revel8.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.datastructure.TimedLock;
+import revel8.service.AccountService;
+import revel8.service.impl.MeteredAccountService;
+
+@Configuration
+@ConditionalOnProperty(prefix = "bank.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    /**
+     * Wraps whichever engine is active, so that both report the same operation metrics.
+     */
+    @Bean
+    public static BeanPostProcessor meteredAccountServicePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AccountService service && !(bean instanceof MeteredAccountService)) {
+                    return new MeteredAccountService(service, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder accountLockMetrics() {
+        return TimedLock::bindTo;
+    }
+}
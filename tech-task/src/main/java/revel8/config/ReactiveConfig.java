@@ -0,0 +1,23 @@
+package revel8.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ReactiveProperties.class)
+public class ReactiveConfig {
+
+    /**
+     * Runs account service calls, which may wait for account locks or a journal fsync, off the
+     * event loop. Calls beyond the queue limit are rejected instead of piling up.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler accountServiceScheduler(ReactiveProperties properties) {
+        return Schedulers.newBoundedElastic(properties.serviceThreads(), properties.queuedCalls(), "account-service");
+    }
+}
@@ -0,0 +1,17 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "bank.reactive")
+public record ReactiveProperties(
+        @DefaultValue("64")
+        int serviceThreads,
+
+        @DefaultValue("10000")
+        int queuedCalls,
+
+        @DefaultValue("1000")
+        int streamPageSize
+) {
+}
@@ -0,0 +1,22 @@
+package revel8.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.repository.ColumnarAccountRepository;
+
+@Configuration
+@EnableConfigurationProperties(RepositoryProperties.class)
+public class RepositoryConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bank.repository", name = "type", havingValue = "columnar")
+    public ColumnarAccountRepository columnarAccountRepository(RepositoryProperties properties, IdProperties idProperties) {
+        // Columnar lock stripes are picked by the top bits of the id, which UUIDv7 fills with the clock
+        if (idProperties.generator() == IdProperties.IdStrategy.UUID_V7) {
+            throw new IllegalStateException("The columnar repository cannot be combined with time-ordered ids");
+        }
+        return new ColumnarAccountRepository(properties.lockStripes());
+    }
+}
@@ -0,0 +1,19 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "bank.repository")
+public record RepositoryProperties(
+        @DefaultValue("heap")
+        RepositoryType type,
+
+        @DefaultValue("4096")
+        int lockStripes
+) {
+
+    public enum RepositoryType {
+        HEAP,
+        COLUMNAR
+    }
+}
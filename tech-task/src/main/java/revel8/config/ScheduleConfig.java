@@ -0,0 +1,21 @@
+package revel8.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.id.IdGenerator;
+import revel8.schedule.TransferScheduler;
+import revel8.service.AccountService;
+
+@Configuration
+@EnableConfigurationProperties(ScheduleProperties.class)
+public class ScheduleConfig {
+
+    @Bean
+    public TransferScheduler transferScheduler(ScheduleProperties properties, AccountService accountService,
+                                               IdGenerator ids, MeterRegistry meterRegistry) {
+        return new TransferScheduler(accountService, ids, properties.tick(), properties.batchSize(), properties.threads(),
+                properties.retention(), meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.schedule")
+public record ScheduleProperties(
+        @DefaultValue("10ms")
+        Duration tick,
+
+        @DefaultValue("256")
+        int batchSize,
+
+        @DefaultValue("2")
+        int threads,
+
+        @DefaultValue("1h")
+        Duration retention
+) {
+}
@@ -0,0 +1,20 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.snapshot")
+public record SnapshotProperties(
+        @DefaultValue("data/snapshots")
+        Path directory,
+
+        @DefaultValue("5m")
+        Duration interval,
+
+        @DefaultValue("8")
+        int partitions
+) {
+}
@@ -0,0 +1,23 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import revel8.config.EngineProperties.EngineType;
+import revel8.stats.LedgerStats;
+
+@Configuration
+@EnableConfigurationProperties(StatsProperties.class)
+public class StatsConfig {
+
+    /**
+     * Only the locking engine feeds the aggregates, so they are off with the sharded engine.
+     */
+    @Bean
+    public LedgerStats ledgerStats(StatsProperties properties, EngineProperties engineProperties) {
+        if (!properties.enabled() || engineProperties.type() == EngineType.SHARDED) {
+            return LedgerStats.DISABLED;
+        }
+        return new LedgerStats(properties.window(), properties.windows());
+    }
+}
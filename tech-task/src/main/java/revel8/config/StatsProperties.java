@@ -0,0 +1,19 @@
+package revel8.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.stats")
+public record StatsProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("1m")
+        Duration window,
+
+        @DefaultValue("60")
+        int windows
+) {
+}
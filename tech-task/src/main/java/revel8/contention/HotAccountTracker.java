@@ -0,0 +1,208 @@
+package revel8.contention;
+
+import revel8.dto.HotAccountResponse;
+import revel8.model.Account;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Finds the accounts whose locks are the most contended. One in {@code sampleRate} lock
+ * acquisitions is sampled; when a sampled acquisition has to wait, its account is counted in a
+ * space-saving sketch of {@code capacity} accounts. A counted account that is not yet tracked
+ * replaces the tracked account with the lowest count and inherits that count as its error bound.
+ * Memory stays bounded, and any account behind more than one in {@code capacity} of the counted
+ * waits is guaranteed to be tracked.
+ * <p>
+ * For tracked accounts, sampled acquisitions are also counted whether they waited or not, and
+ * the waits go into a log-linear histogram with four buckets per power of two, so its
+ * percentiles are within 25% of the true wait.
+ */
+public class HotAccountTracker {
+    public static final HotAccountTracker DISABLED = new HotAccountTracker(0, 0, System::nanoTime);
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final int capacity;
+    private final int sampleRate;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Object admissionLock = new Object();
+
+    public HotAccountTracker(int capacity, int sampleRate) {
+        this(capacity, sampleRate, System::nanoTime);
+    }
+
+    HotAccountTracker(int capacity, int sampleRate, LongSupplier nanoClock) {
+        if (capacity < 0 || sampleRate < 0 || (capacity == 0) != (sampleRate == 0)) {
+            throw new IllegalArgumentException("Capacity and sample rate must both be positive");
+        }
+        this.capacity = capacity;
+        this.sampleRate = sampleRate;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes the account's lock, recording the acquisition if it is sampled.
+     */
+    public void lock(Account account) {
+        ReentrantLock lock = account.getLock();
+        if (sampleRate == 0 || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            lock.lock();
+            return;
+        }
+        if (lock.tryLock()) {
+            Entry entry = entries.get(account.getId());
+            if (entry != null) {
+                entry.acquisitions.incrementAndGet();
+            }
+            return;
+        }
+        int queued = lock.getQueueLength() + 1;
+        long start = nanoClock.getAsLong();
+        lock.lock();
+        recordContention(account.getId(), lock, nanoClock.getAsLong() - start, queued);
+    }
+
+    /**
+     * The tracked accounts, most contended first. Counts are scaled up by the sample rate, so they
+     * estimate all acquisitions rather than the sampled ones.
+     */
+    public List<HotAccountResponse> hottest(int limit) {
+        long now = nanoClock.getAsLong();
+        return entries.values().stream()
+                .sorted(Comparator.comparingLong((Entry entry) -> entry.count.get()).reversed())
+                .limit(limit)
+                .map(entry -> entry.toResponse(sampleRate, now))
+                .toList();
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void reset() {
+        synchronized (admissionLock) {
+            entries.clear();
+        }
+    }
+
+    void recordContention(UUID accountId, ReentrantLock lock, long waitNanos, int queued) {
+        Entry entry = entries.get(accountId);
+        if (entry == null) {
+            entry = admit(accountId, lock);
+        }
+        entry.count.incrementAndGet();
+        entry.acquisitions.incrementAndGet();
+        entry.waits.incrementAndGet(bucket(waitNanos));
+        entry.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        entry.maxQueueLength.accumulateAndGet(queued, Math::max);
+    }
+
+    private Entry admit(UUID accountId, ReentrantLock lock) {
+        synchronized (admissionLock) {
+            Entry entry = entries.get(accountId);
+            if (entry != null) {
+                return entry;
+            }
+            long inherited = 0;
+            if (entries.size() >= capacity) {
+                Entry evicted = null;
+                for (Entry candidate : entries.values()) {
+                    if (evicted == null || candidate.count.get() < evicted.count.get()) {
+                        evicted = candidate;
+                    }
+                }
+                entries.remove(evicted.accountId);
+                inherited = evicted.count.get();
+            }
+            entry = new Entry(accountId, lock, inherited, nanoClock.getAsLong());
+            entries.put(accountId, entry);
+            return entry;
+        }
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static final class Entry {
+        private final UUID accountId;
+        private final ReentrantLock lock;
+        private final long error;
+        private final long trackedSinceNanos;
+        private final AtomicLong count;
+        private final AtomicLong acquisitions = new AtomicLong();
+        private final AtomicLongArray waits = new AtomicLongArray(BUCKETS);
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicInteger maxQueueLength = new AtomicInteger();
+
+        Entry(UUID accountId, ReentrantLock lock, long inheritedCount, long trackedSinceNanos) {
+            this.accountId = accountId;
+            this.lock = lock;
+            this.error = inheritedCount;
+            this.count = new AtomicLong(inheritedCount);
+            this.trackedSinceNanos = trackedSinceNanos;
+        }
+
+        HotAccountResponse toResponse(int sampleRate, long nowNanos) {
+            long[] histogram = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = waits.get(i);
+                total += histogram[i];
+            }
+            double seconds = Math.max(nowNanos - trackedSinceNanos, 1) / 1e9;
+            return new HotAccountResponse(
+                    accountId,
+                    count.get() * sampleRate,
+                    error * sampleRate,
+                    acquisitions.get() * sampleRate / seconds,
+                    lock.getQueueLength(),
+                    maxQueueLength.get(),
+                    percentileMicros(histogram, total, 0.5),
+                    percentileMicros(histogram, total, 0.99),
+                    maxWaitNanos.get() / 1000.0
+            );
+        }
+
+        private static double percentileMicros(long[] histogram, long total, double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return bucketUpperBound(i) / 1000.0;
+                }
+            }
+            return bucketUpperBound(histogram.length - 1) / 1000.0;
+        }
+    }
+}
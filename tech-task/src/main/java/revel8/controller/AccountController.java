@@ -1,40 +1,76 @@
 package revel8.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import revel8.dto.*;
 import revel8.service.AccountService;
+import revel8.web.IdempotencyCache;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api")
-@RequiredArgsConstructor
 public class AccountController {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final AccountService accountService;
+    private final IdempotencyCache idempotencyCache;
+    private final ObjectWriter ndjsonWriter;
+
+    public AccountController(AccountService accountService, IdempotencyCache idempotencyCache,
+                             ObjectMapper objectMapper) {
+        this.accountService = accountService;
+        this.idempotencyCache = idempotencyCache;
+        this.ndjsonWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator((String) null);
+    }
 
     @PostMapping("/accounts")
     @ResponseStatus(HttpStatus.CREATED)
-    public CreateAccountResponse createAccount(@Valid @RequestBody CreateAccountRequest req) {
-        return accountService.createAccount(req);
+    public CreateAccountResponse createAccount(@Valid @RequestBody CreateAccountRequest req,
+                                               @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("create", req), () -> accountService.createAccount(req));
     }
 
     @PostMapping("/accounts/{id}/deposit")
-    public BalanceResponse deposit(@PathVariable UUID id, @Valid @RequestBody AmountRequest req) {
-        return accountService.deposit(id, req);
+    public BalanceResponse deposit(@PathVariable UUID id, @Valid @RequestBody AmountRequest req,
+                                   @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("deposit", id, req), () -> accountService.deposit(id, req));
     }
 
     @PostMapping("/accounts/{id}/withdraw")
-    public BalanceResponse withdraw(@PathVariable UUID id, @Valid @RequestBody AmountRequest req) {
-        return accountService.withdraw(id, req);
+    public BalanceResponse withdraw(@PathVariable UUID id, @Valid @RequestBody AmountRequest req,
+                                    @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("withdraw", id, req), () -> accountService.withdraw(id, req));
     }
 
     @PostMapping("/transfers")
-    public TransferResponse transfer(@Valid @RequestBody TransferRequest req) {
-        return accountService.transfer(req);
+    public TransferResponse transfer(@Valid @RequestBody TransferRequest req,
+                                     @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("transfer", req), () -> accountService.transfer(req));
+    }
+
+    @PostMapping("/transfers/batch")
+    public TransferBatchResponse transferBatch(@Valid @RequestBody TransferBatchRequest req,
+                                               @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("batch", req), () -> accountService.transferBatch(req));
     }
 
     @GetMapping("/accounts/{id}/outgoing-transfers")
@@ -42,9 +78,65 @@ public class AccountController {
         return accountService.getOutgoingTransfers(id);
     }
 
+    @GetMapping("/accounts/{id}/transfers")
+    public TransferHistoryResponse transferHistory(@PathVariable UUID id,
+                                                   @RequestParam(defaultValue = "OUTGOING") TransferDirection direction,
+                                                   @RequestParam(required = false) Long before,
+                                                   @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int limit) {
+        return accountService.getTransferHistory(id, direction, before, limit);
+    }
+
     @GetMapping("/accounts")
-    public List<CreateAccountResponse> getAllAccounts() {
-        return accountService.getAllAccounts();
+    public AccountPageResponse getAccounts(@RequestParam(required = false) UUID afterId,
+                                           @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return accountService.getAccounts(afterId, limit);
+    }
+
+    @GetMapping(value = "/accounts", params = "email")
+    public List<CreateAccountResponse> getAccountsByEmail(@RequestParam String email) {
+        return accountService.findAccountsByEmail(email);
     }
-}
 
+    @GetMapping(value = "/accounts", params = "city")
+    public AccountPageResponse getAccountsByCity(@RequestParam String city,
+                                                 @RequestParam(required = false) UUID afterId,
+                                                 @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return accountService.getAccountsByCity(city, afterId, limit);
+    }
+
+    @GetMapping(value = "/accounts", params = {"minAge", "maxAge"})
+    public AccountPageResponse getAccountsByAge(@RequestParam int minAge, @RequestParam int maxAge,
+                                                @RequestParam(required = false) UUID afterId,
+                                                @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return accountService.getAccountsByAge(minAge, maxAge, afterId, limit);
+    }
+
+    /**
+     * Writes every account as one JSON object per line straight to the response as it is read.
+     */
+    @GetMapping(value = "/accounts/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAccounts() {
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = ndjsonWriter.createGenerator(out);
+            accountService.forEachAccount(account -> writeLine(generator, account));
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeLine(JsonGenerator generator, CreateAccountResponse account) {
+        try {
+            ndjsonWriter.writeValue(generator, account);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T idempotent(String idempotencyKey, Object request, Supplier<T> operation) {
+        if (idempotencyKey == null) {
+            return operation.get();
+        }
+        return idempotencyCache.execute(idempotencyKey, request, operation);
+    }
+}
@@ -0,0 +1,49 @@
+package revel8.controller;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import revel8.contention.HotAccountTracker;
+import revel8.dto.BalanceAuditResponse;
+import revel8.dto.HotAccountsResponse;
+import revel8.service.AccountService;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final HotAccountTracker hotAccountTracker;
+    private final AccountService accountService;
+
+    @GetMapping("/hot-accounts")
+    public HotAccountsResponse hotAccounts(@RequestParam(defaultValue = "10") @Min(1) @Max(1000) int limit) {
+        return new HotAccountsResponse(hotAccountTracker.getSampleRate(), hotAccountTracker.hottest(limit));
+    }
+
+    @DeleteMapping("/hot-accounts")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void resetHotAccounts() {
+        hotAccountTracker.reset();
+    }
+
+    @PutMapping("/striped-accounts/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void stripeCredits(@PathVariable UUID id) {
+        accountService.stripeCredits(id);
+    }
+
+    /**
+     * An audit visits every account, so it runs off the request threads.
+     */
+    @PostMapping("/balance-audit")
+    public Mono<BalanceAuditResponse> auditBalances() {
+        return Mono.fromSupplier(accountService::auditBalances).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,42 @@
+package revel8.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import revel8.async.AsyncTransferProcessor;
+import revel8.dto.AsyncTransferResponse;
+import revel8.dto.TransferRequest;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/transfers/async")
+@RequiredArgsConstructor
+public class AsyncTransferController {
+
+    private final AsyncTransferProcessor processor;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public AsyncTransferResponse submit(@Valid @RequestBody TransferRequest req) {
+        return processor.submit(req);
+    }
+
+    /**
+     * With {@code waitMillis}, answers as soon as the transfer is done or once the wait is over,
+     * whichever comes first.
+     */
+    @GetMapping("/{ticketId}")
+    public CompletableFuture<AsyncTransferResponse> poll(@PathVariable UUID ticketId,
+                                                         @RequestParam(defaultValue = "0") @Min(0) @Max(30000) long waitMillis) {
+        if (waitMillis == 0) {
+            return CompletableFuture.completedFuture(processor.poll(ticketId));
+        }
+        return processor.await(ticketId, Duration.ofMillis(waitMillis));
+    }
+}
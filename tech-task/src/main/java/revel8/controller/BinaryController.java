@@ -0,0 +1,49 @@
+package revel8.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import revel8.exception.InvalidFrameException;
+import revel8.protocol.BinaryCommandProcessor;
+import revel8.service.AccountService;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ingress for high-frequency clients: deposits, withdrawals and transfers as length-prefixed
+ * binary frames, many per request, without JSON binding or bean validation. See
+ * {@link revel8.protocol.BinaryProtocol} for the frame layout.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api")
+public class BinaryController {
+
+    private final BinaryCommandProcessor processor;
+
+    public BinaryController(AccountService accountService) {
+        this.processor = new BinaryCommandProcessor(accountService);
+    }
+
+    @PostMapping(value = "/binary", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] execute(@RequestBody byte[] frames) {
+        return processor.process(frames);
+    }
+
+    /**
+     * Answered here rather than by {@link revel8.exception.GlobalExceptionHandler}, whose JSON body
+     * cannot be sent to a client that only accepts {@code application/octet-stream}.
+     */
+    @ExceptionHandler(InvalidFrameException.class)
+    public ResponseEntity<byte[]> handleInvalidFrame(InvalidFrameException ex) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(ex.getMessage().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,146 @@
+package revel8.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import revel8.config.ReactiveProperties;
+import revel8.dto.*;
+import revel8.service.AccountService;
+import revel8.web.IdempotencyCache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static revel8.controller.AccountController.IDEMPOTENCY_KEY_HEADER;
+
+/**
+ * The endpoints of {@link AccountController} for the reactive stack, selected with
+ * {@code spring.main.web-application-type=reactive}. Service calls run on the bounded
+ * {@code accountServiceScheduler}, so the event loop never waits for an account lock.
+ * The account stream is read a page at a time as the client consumes it.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api")
+public class ReactiveAccountController {
+
+    private final AccountService accountService;
+    private final IdempotencyCache idempotencyCache;
+    private final Scheduler scheduler;
+    private final int streamPageSize;
+
+    public ReactiveAccountController(AccountService accountService, IdempotencyCache idempotencyCache,
+                                     Scheduler accountServiceScheduler, ReactiveProperties properties) {
+        this.accountService = accountService;
+        this.idempotencyCache = idempotencyCache;
+        this.scheduler = accountServiceScheduler;
+        this.streamPageSize = properties.streamPageSize();
+    }
+
+    @PostMapping("/accounts")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<CreateAccountResponse> createAccount(@Valid @RequestBody CreateAccountRequest req,
+                                                     @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("create", req), () -> accountService.createAccount(req));
+    }
+
+    @PostMapping("/accounts/{id}/deposit")
+    public Mono<BalanceResponse> deposit(@PathVariable UUID id, @Valid @RequestBody AmountRequest req,
+                                         @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("deposit", id, req), () -> accountService.deposit(id, req));
+    }
+
+    @PostMapping("/accounts/{id}/withdraw")
+    public Mono<BalanceResponse> withdraw(@PathVariable UUID id, @Valid @RequestBody AmountRequest req,
+                                          @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("withdraw", id, req), () -> accountService.withdraw(id, req));
+    }
+
+    @PostMapping("/transfers")
+    public Mono<TransferResponse> transfer(@Valid @RequestBody TransferRequest req,
+                                           @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("transfer", req), () -> accountService.transfer(req));
+    }
+
+    @PostMapping("/transfers/batch")
+    public Mono<TransferBatchResponse> transferBatch(@Valid @RequestBody TransferBatchRequest req,
+                                                     @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("batch", req), () -> accountService.transferBatch(req));
+    }
+
+    @GetMapping("/accounts/{id}/outgoing-transfers")
+    public Mono<OutgoingTransfersResponse> outgoing(@PathVariable UUID id) {
+        return call(() -> accountService.getOutgoingTransfers(id));
+    }
+
+    @GetMapping(value = "/accounts/{id}/outgoing-transfers", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransferResponse> streamOutgoing(@PathVariable UUID id) {
+        return call(() -> accountService.getOutgoingTransfers(id))
+                .flatMapIterable(OutgoingTransfersResponse::transfers);
+    }
+
+    @GetMapping("/accounts/{id}/transfers")
+    public Mono<TransferHistoryResponse> transferHistory(@PathVariable UUID id,
+                                                         @RequestParam(defaultValue = "OUTGOING") TransferDirection direction,
+                                                         @RequestParam(required = false) Long before,
+                                                         @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int limit) {
+        return call(() -> accountService.getTransferHistory(id, direction, before, limit));
+    }
+
+    @GetMapping("/accounts")
+    public Mono<AccountPageResponse> getAccounts(@RequestParam(required = false) UUID afterId,
+                                                 @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return call(() -> accountService.getAccounts(afterId, limit));
+    }
+
+    @GetMapping(value = "/accounts", params = "email")
+    public Mono<List<CreateAccountResponse>> getAccountsByEmail(@RequestParam String email) {
+        return call(() -> accountService.findAccountsByEmail(email));
+    }
+
+    @GetMapping(value = "/accounts", params = "city")
+    public Mono<AccountPageResponse> getAccountsByCity(@RequestParam String city,
+                                                       @RequestParam(required = false) UUID afterId,
+                                                       @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return call(() -> accountService.getAccountsByCity(city, afterId, limit));
+    }
+
+    @GetMapping(value = "/accounts", params = {"minAge", "maxAge"})
+    public Mono<AccountPageResponse> getAccountsByAge(@RequestParam int minAge, @RequestParam int maxAge,
+                                                      @RequestParam(required = false) UUID afterId,
+                                                      @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return call(() -> accountService.getAccountsByAge(minAge, maxAge, afterId, limit));
+    }
+
+    /**
+     * Streams every account as one JSON object per line. The next page is only read once the
+     * client has taken the previous one, so a slow client holds at most one page in memory.
+     */
+    @GetMapping(value = "/accounts/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CreateAccountResponse> streamAccounts() {
+        return call(() -> accountService.getAccounts(null, streamPageSize))
+                .expand(page -> page.nextAfterId() == null
+                        ? Mono.empty()
+                        : call(() -> accountService.getAccounts(page.nextAfterId(), streamPageSize)))
+                .concatMapIterable(AccountPageResponse::accounts, 1);
+    }
+
+    private <T> Mono<T> call(Supplier<T> operation) {
+        return Mono.fromSupplier(operation).subscribeOn(scheduler);
+    }
+
+    private <T> Mono<T> idempotent(String idempotencyKey, Object request, Supplier<T> operation) {
+        if (idempotencyKey == null) {
+            return call(operation);
+        }
+        return call(() -> idempotencyCache.execute(idempotencyKey, request, operation));
+    }
+}
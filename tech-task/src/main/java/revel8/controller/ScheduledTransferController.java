@@ -0,0 +1,36 @@
+package revel8.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import revel8.dto.ScheduledTransferRequest;
+import revel8.dto.ScheduledTransferResponse;
+import revel8.schedule.TransferScheduler;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/transfers/scheduled")
+@RequiredArgsConstructor
+public class ScheduledTransferController {
+
+    private final TransferScheduler scheduler;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ScheduledTransferResponse schedule(@Valid @RequestBody ScheduledTransferRequest req) {
+        return scheduler.schedule(req);
+    }
+
+    @GetMapping("/{id}")
+    public ScheduledTransferResponse get(@PathVariable UUID id) {
+        return scheduler.get(id);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancel(@PathVariable UUID id) {
+        scheduler.cancel(id);
+    }
+}
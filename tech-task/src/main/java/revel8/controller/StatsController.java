@@ -0,0 +1,21 @@
+package revel8.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import revel8.dto.StatsResponse;
+import revel8.stats.LedgerStats;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final LedgerStats ledgerStats;
+
+    @GetMapping
+    public StatsResponse stats() {
+        return ledgerStats.read();
+    }
+}
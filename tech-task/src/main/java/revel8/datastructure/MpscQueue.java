@@ -0,0 +1,53 @@
+package revel8.datastructure;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded lock-free multi-producer single-consumer queue after Dmitry Vyukov's non-intrusive design.
+ * Producers swap themselves in as the tail with a single {@code getAndSet} and then link the
+ * previous tail to their node; only the consumer thread may call {@link #poll} and {@link #isEmpty}.
+ * <p>
+ * Between those two producer steps the consumer cannot see the new node yet, so {@code poll} may
+ * briefly return {@code null} while an offer is in progress.
+ */
+public class MpscQueue<E> {
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head;
+
+    public MpscQueue() {
+        Node<E> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    public void offer(E element) {
+        Node<E> node = new Node<>(Objects.requireNonNull(element));
+        Node<E> previous = tail.getAndSet(node);
+        previous.next = node;
+    }
+
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E element = next.value;
+        next.value = null;
+        head = next;
+        return element;
+    }
+
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    private static final class Node<E> {
+        private E value;
+        private volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
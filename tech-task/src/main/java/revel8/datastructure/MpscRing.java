@@ -0,0 +1,93 @@
+package revel8.datastructure;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer single-consumer queue over a preallocated ring, in the manner of the
+ * LMAX Disruptor. A producer claims the next sequence with a CAS on the producer cursor, provided
+ * the consumer has freed that slot, writes its element and then publishes the slot by storing the
+ * sequence in it. The consumer takes published slots in sequence order and frees them all at once
+ * per {@link #drainTo} call. Only the consumer thread may call {@link #drainTo}.
+ * <p>
+ * A producer that has claimed a slot but not yet published it holds up the consumer at that
+ * slot, so {@code drainTo} may briefly return fewer elements than {@link #size} reports.
+ */
+public class MpscRing<E> {
+    private final Object[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    public MpscRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Returns false without waiting if the ring is full.
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element);
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= slots.length) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        slots[slot] = element;
+        published.set(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Moves up to {@code max} elements into {@code target} in the order they were claimed and
+     * returns how many were moved.
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(List<? super E> target, int max) {
+        long next = consumed.get();
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) next & mask;
+            if (published.get(slot) != next) {
+                break;
+            }
+            target.add((E) slots[slot]);
+            slots[slot] = null;
+            next++;
+            drained++;
+        }
+        if (drained > 0) {
+            consumed.set(next);
+        }
+        return drained;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Claimed slots not yet drained, including ones still being written.
+     */
+    public int size() {
+        return (int) (claimed.get() - consumed.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,119 @@
+package revel8.datastructure;
+
+import revel8.model.TransferRecord;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link RingBuffer} with the records flattened into one {@code long[]}, seven longs per slot.
+ * Appending copies the fields out of the record, so neither the record nor its ids stay reachable
+ * from the account; records are only created again when the history is read. The array is
+ * allocated for the full capacity on the first append, so accounts that never send a transfer
+ * pay nothing for it.
+ * <p>
+ * Readers use the same seqlock as {@link RingBuffer}: they copy the array and retry if
+ * {@link #version} changed or was odd while they did.
+ */
+public class PackedRingBuffer implements TransferRecordBuffer {
+    private static final VarHandle VERSION;
+
+    private static final int TRANSFER_ID_MSB = 0;
+    private static final int TRANSFER_ID_LSB = 1;
+    private static final int TO_MSB = 2;
+    private static final int TO_LSB = 3;
+    private static final int AMOUNT = 4;
+    private static final int TIMESTAMP = 5;
+    private static final int RESULTING_BALANCE = 6;
+    private static final int FIELDS = 7;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(PackedRingBuffer.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int capacity;
+    private long[] slots;
+    private int nextIndex = 0;
+    private int count = 0;
+    @SuppressWarnings("unused")
+    private volatile long version;
+
+    public PackedRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void append(TransferRecord transfer) {
+        long start = (long) VERSION.getOpaque(this);
+        VERSION.setOpaque(this, start + 1);
+        VarHandle.storeStoreFence();
+
+        if (slots == null) {
+            slots = new long[capacity * FIELDS];
+        }
+        int base = nextIndex * FIELDS;
+        slots[base + TRANSFER_ID_MSB] = transfer.transferId().getMostSignificantBits();
+        slots[base + TRANSFER_ID_LSB] = transfer.transferId().getLeastSignificantBits();
+        slots[base + TO_MSB] = transfer.toAccountId().getMostSignificantBits();
+        slots[base + TO_LSB] = transfer.toAccountId().getLeastSignificantBits();
+        slots[base + AMOUNT] = transfer.amountInCents();
+        slots[base + TIMESTAMP] = transfer.timestampMillis();
+        slots[base + RESULTING_BALANCE] = transfer.resultingBalanceInCents();
+        nextIndex = nextIndex + 1 == capacity ? 0 : nextIndex + 1;
+        if (count < capacity) {
+            count++;
+        }
+
+        VERSION.setRelease(this, start + 2);
+    }
+
+    @Override
+    public List<TransferRecord> getRecentNewestFirst() {
+        long[] current = slots;
+        if (current == null) {
+            return List.of();
+        }
+        long[] copy = new long[current.length];
+        while (true) {
+            long start = (long) VERSION.getAcquire(this);
+            if ((start & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int copiedCount = count;
+            int copiedNext = nextIndex;
+            System.arraycopy(current, 0, copy, 0, current.length);
+            VarHandle.loadLoadFence();
+            if ((long) VERSION.getOpaque(this) == start) {
+                return newestFirst(copy, copiedNext, copiedCount);
+            }
+        }
+    }
+
+    private List<TransferRecord> newestFirst(long[] copy, int nextIndex, int count) {
+        List<TransferRecord> result = new ArrayList<>(count);
+        int index = nextIndex;
+        for (int i = 0; i < count; i++) {
+            index = index == 0 ? capacity - 1 : index - 1;
+            int base = index * FIELDS;
+            result.add(new TransferRecord(
+                    new UUID(copy[base + TRANSFER_ID_MSB], copy[base + TRANSFER_ID_LSB]),
+                    new UUID(copy[base + TO_MSB], copy[base + TO_LSB]),
+                    copy[base + AMOUNT],
+                    copy[base + TIMESTAMP],
+                    copy[base + RESULTING_BALANCE]
+            ));
+        }
+        return result;
+    }
+}
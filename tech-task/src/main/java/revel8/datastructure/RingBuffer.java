@@ -2,13 +2,36 @@ package revel8.datastructure;
 
 import revel8.model.TransferRecord;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
 
-public class RingBuffer {
+/**
+ * Fixed-capacity history that keeps the most recent records as they were appended. Appends must
+ * come from one thread at a time (callers hold the owning account's lock), but
+ * {@link #getRecentNewestFirst} may be called from any thread without locking.
+ * <p>
+ * Readers are coordinated with a seqlock: the writer makes {@link #version} odd before it touches
+ * the buffer and even again afterwards, and a reader retries its copy until it saw the same even
+ * version before and after copying. Appends therefore never wait for readers.
+ */
+public class RingBuffer implements TransferRecordBuffer {
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(RingBuffer.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final TransferRecord[] buffer;
     private int nextIndex = 0;
     private int count = 0;
+    @SuppressWarnings("unused")
+    private volatile long version;
 
     public RingBuffer(int capacity) {
         if (capacity <= 0) {
@@ -17,27 +40,52 @@ public class RingBuffer {
         this.buffer = new TransferRecord[capacity];
     }
 
+    @Override
     public void append(TransferRecord transfer) {
+        long start = (long) VERSION.getOpaque(this);
+        VERSION.setOpaque(this, start + 1);
+        VarHandle.storeStoreFence();
+
         buffer[nextIndex] = transfer;
         nextIndex = (nextIndex + 1) % buffer.length;
         if (count < buffer.length) {
             count++;
         }
+
+        VERSION.setRelease(this, start + 2);
     }
 
+    @Override
     public List<TransferRecord> getRecentNewestFirst() {
+        TransferRecord[] copy = new TransferRecord[buffer.length];
+        while (true) {
+            long start = (long) VERSION.getAcquire(this);
+            if ((start & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int copiedCount = count;
+            int copiedNext = nextIndex;
+            System.arraycopy(buffer, 0, copy, 0, buffer.length);
+            VarHandle.loadLoadFence();
+            if ((long) VERSION.getOpaque(this) == start) {
+                return newestFirst(copy, copiedNext, copiedCount);
+            }
+        }
+    }
+
+    private static List<TransferRecord> newestFirst(TransferRecord[] records, int nextIndex, int count) {
         List<TransferRecord> result = new ArrayList<>(count);
-        int index = decrementIndex(nextIndex);
-        
+        int index = decrementIndex(nextIndex, records.length);
+
         for (int i = 0; i < count; i++) {
-            result.add(buffer[index]);
-            index = decrementIndex(index);
+            result.add(records[index]);
+            index = decrementIndex(index, records.length);
         }
         return result;
     }
 
-    private int decrementIndex(int index) {
-        return (index - 1 + buffer.length) % buffer.length;
+    private static int decrementIndex(int index, int length) {
+        return (index - 1 + length) % length;
     }
 }
-
@@ -0,0 +1,94 @@
+package revel8.datastructure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Account lock that reports lock contention. {@code bank.account.lock.wait} records how long
+ * {@link #lock()} waited whenever the lock was held by another thread; acquisitions that did not
+ * wait are not recorded and do not read the clock. {@code bank.account.lock.hold} records how
+ * long the lock was then held, for one in {@value #HOLD_SAMPLE_RATE} acquisitions, so its count
+ * is a fraction of all acquisitions while its distribution is representative. Reentrant
+ * acquisitions are not measured separately.
+ * <p>
+ * Accounts are created outside the Spring context, so the timers are shared by every lock and
+ * nothing is recorded until {@link #bindTo} has been called. Binding again moves all locks to
+ * the new registry.
+ */
+public class TimedLock extends ReentrantLock {
+    static final int HOLD_SAMPLE_RATE = 16;
+
+    private static volatile Timers timers;
+
+    // Written and read only by the holder
+    private int acquisitions;
+    private long acquiredNanos;
+
+    public static void bindTo(MeterRegistry registry) {
+        timers = new Timers(
+                timer("bank.account.lock.wait", "Time spent waiting for an account lock held by another thread", registry),
+                timer("bank.account.lock.hold", "Time an account lock was held, sampled", registry));
+    }
+
+    @Override
+    public void lock() {
+        Timers current = timers;
+        if (current == null) {
+            super.lock();
+            return;
+        }
+        if (tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        super.lock();
+        long acquired = System.nanoTime();
+        current.waiting.record(acquired - start, TimeUnit.NANOSECONDS);
+        if (++acquisitions % HOLD_SAMPLE_RATE == 0) {
+            acquiredNanos = acquired;
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!super.tryLock()) {
+            return false;
+        }
+        if (timers != null && getHoldCount() == 1 && ++acquisitions % HOLD_SAMPLE_RATE == 0) {
+            acquiredNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        long acquired = acquiredNanos;
+        if (acquired == 0 || getHoldCount() != 1) {
+            super.unlock();
+            return;
+        }
+        acquiredNanos = 0;
+        long held = System.nanoTime() - acquired;
+        super.unlock();
+        Timers current = timers;
+        if (current != null) {
+            current.holding.record(held, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timer(String name, String description, MeterRegistry registry) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(registry);
+    }
+
+    private record Timers(Timer waiting, Timer holding) {
+    }
+}
@@ -0,0 +1,16 @@
+package revel8.datastructure;
+
+import revel8.model.TransferRecord;
+
+import java.util.List;
+
+/**
+ * Bounded history of an account's most recent outgoing transfers. Appends come from one thread
+ * at a time, the holder of the account's lock; reads may come from any thread without it.
+ */
+public interface TransferRecordBuffer {
+
+    void append(TransferRecord transfer);
+
+    List<TransferRecord> getRecentNewestFirst();
+}
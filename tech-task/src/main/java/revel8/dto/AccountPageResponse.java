@@ -0,0 +1,11 @@
+package revel8.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of accounts. {@code nextAfterId} is the cursor for the following page and is
+ * {@code null} once the last page has been returned.
+ */
+public record AccountPageResponse(List<CreateAccountResponse> accounts, UUID nextAfterId) {
+}
@@ -0,0 +1,14 @@
+package revel8.dto;
+
+import java.util.UUID;
+
+public record AsyncTransferResponse(
+        UUID ticketId,
+        AsyncTransferStatus status,
+        TransferResponse transfer,
+        String error
+) {
+    public static AsyncTransferResponse pending(UUID ticketId) {
+        return new AsyncTransferResponse(ticketId, AsyncTransferStatus.PENDING, null, null);
+    }
+}
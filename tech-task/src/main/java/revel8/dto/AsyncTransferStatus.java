@@ -0,0 +1,7 @@
+package revel8.dto;
+
+public enum AsyncTransferStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
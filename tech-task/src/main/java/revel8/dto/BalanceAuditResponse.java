@@ -0,0 +1,19 @@
+package revel8.dto;
+
+import java.util.List;
+
+/**
+ * Balances as of one instant. {@code netInflowSincePreviousAudit} is what deposits, withdrawals
+ * and new accounts added since the previous audit, and {@code discrepancy} is how far the total
+ * is from the previous total plus that inflow; both are null on the first audit after startup.
+ */
+public record BalanceAuditResponse(
+        int epoch,
+        long accounts,
+        String totalBalance,
+        String netInflowSincePreviousAudit,
+        String discrepancy,
+        List<CityBalanceResponse> cities,
+        double durationMillis
+) {
+}
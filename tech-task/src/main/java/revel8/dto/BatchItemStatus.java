@@ -0,0 +1,7 @@
+package revel8.dto;
+
+public enum BatchItemStatus {
+    COMPLETED,
+    FAILED,
+    SKIPPED
+}
@@ -0,0 +1,6 @@
+package revel8.dto;
+
+public enum BatchMode {
+    ATOMIC,
+    BEST_EFFORT
+}
@@ -0,0 +1,4 @@
+package revel8.dto;
+
+public record CityBalanceResponse(String city, long accounts, String totalBalance) {
+}
@@ -0,0 +1,13 @@
+package revel8.dto;
+
+import java.util.UUID;
+
+public record HistoricalTransferResponse(
+        UUID transferId,
+        UUID fromAccountId,
+        UUID toAccountId,
+        String amount,
+        long timestamp,
+        String senderBalance
+) {
+}
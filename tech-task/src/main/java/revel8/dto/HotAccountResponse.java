@@ -0,0 +1,20 @@
+package revel8.dto;
+
+import java.util.UUID;
+
+/**
+ * Lock contention on one account. {@code contendedAcquisitions} may overestimate by up to
+ * {@code contendedAcquisitionsError}; rates are per second since the account started being tracked.
+ */
+public record HotAccountResponse(
+        UUID accountId,
+        long contendedAcquisitions,
+        long contendedAcquisitionsError,
+        double acquisitionsPerSecond,
+        int queueLength,
+        int maxQueueLength,
+        double waitP50Micros,
+        double waitP99Micros,
+        double waitMaxMicros
+) {
+}
@@ -0,0 +1,6 @@
+package revel8.dto;
+
+import java.util.List;
+
+public record HotAccountsResponse(int sampleRate, List<HotAccountResponse> accounts) {
+}
@@ -0,0 +1,28 @@
+package revel8.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Runs once at {@code runAt}, or every {@code repeatEvery} from then on if it is set.
+ */
+public record ScheduledTransferRequest(
+        @NotNull(message = "Source account is required")
+        UUID fromAccountId,
+
+        @NotNull(message = "Destination account is required")
+        UUID toAccountId,
+
+        @NotBlank(message = "Amount is required")
+        String amount,
+
+        @NotNull(message = "Start time is required")
+        Instant runAt,
+
+        Duration repeatEvery
+) {
+}
@@ -0,0 +1,18 @@
+package revel8.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+public record ScheduledTransferResponse(
+        UUID scheduleId,
+        UUID fromAccountId,
+        UUID toAccountId,
+        String amount,
+        Instant nextRunAt,
+        Duration repeatEvery,
+        long completedRuns,
+        long failedRuns,
+        String lastError
+) {
+}
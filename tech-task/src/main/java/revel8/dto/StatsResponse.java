@@ -0,0 +1,22 @@
+package revel8.dto;
+
+import java.util.List;
+
+/**
+ * Running totals since startup. {@code windows} are the most recent tumbling windows, newest
+ * first, starting with the one in progress.
+ */
+public record StatsResponse(
+        long accounts,
+        String totalBalance,
+        long deposits,
+        String depositVolume,
+        long withdrawals,
+        String withdrawalVolume,
+        long transfers,
+        String transferVolume,
+        List<CityBalanceResponse> cities,
+        long windowMillis,
+        List<StatsWindowResponse> windows
+) {
+}
@@ -0,0 +1,12 @@
+package revel8.dto;
+
+public record StatsWindowResponse(
+        long startMillis,
+        long transfers,
+        String transferVolume,
+        long deposits,
+        String depositVolume,
+        long withdrawals,
+        String withdrawalVolume
+) {
+}
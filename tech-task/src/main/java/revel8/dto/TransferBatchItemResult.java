@@ -0,0 +1,20 @@
+package revel8.dto;
+
+public record TransferBatchItemResult(
+        int index,
+        BatchItemStatus status,
+        TransferResponse transfer,
+        String error
+) {
+    public static TransferBatchItemResult completed(int index, TransferResponse transfer) {
+        return new TransferBatchItemResult(index, BatchItemStatus.COMPLETED, transfer, null);
+    }
+
+    public static TransferBatchItemResult failed(int index, String error) {
+        return new TransferBatchItemResult(index, BatchItemStatus.FAILED, null, error);
+    }
+
+    public static TransferBatchItemResult skipped(int index) {
+        return new TransferBatchItemResult(index, BatchItemStatus.SKIPPED, null, null);
+    }
+}
@@ -0,0 +1,21 @@
+package revel8.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TransferBatchRequest(
+        @NotEmpty(message = "At least one transfer is required")
+        @Size(max = 10000, message = "At most 10000 transfers per batch")
+        List<@Valid TransferRequest> transfers,
+
+        BatchMode mode
+) {
+    public TransferBatchRequest {
+        if (mode == null) {
+            mode = BatchMode.BEST_EFFORT;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package revel8.dto;
+
+import java.util.List;
+
+public record TransferBatchResponse(
+        BatchMode mode,
+        int completed,
+        int failed,
+        List<TransferBatchItemResult> results
+) {
+}
@@ -0,0 +1,6 @@
+package revel8.dto;
+
+public enum TransferDirection {
+    OUTGOING,
+    INCOMING
+}
@@ -0,0 +1,10 @@
+package revel8.dto;
+
+import java.util.List;
+
+/**
+ * One page of an account's transfers, newest first. {@code nextBefore} is the cursor for the
+ * next, older page and is {@code null} once the oldest transfer has been returned.
+ */
+public record TransferHistoryResponse(List<HistoricalTransferResponse> transfers, Long nextBefore) {
+}
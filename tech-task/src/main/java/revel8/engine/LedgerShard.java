@@ -0,0 +1,151 @@
+package revel8.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import revel8.datastructure.MpscQueue;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A thread that owns a subset of the accounts and runs every command for them in submission order.
+ * Commands arrive through a lock-free queue; the thread spins briefly when it runs dry and then
+ * parks until a producer unparks it. Shutting down is split in two so that a group of shards can
+ * stop together: {@link #shutdown} rejects new commands from outside but keeps accepting those
+ * {@linkplain #handOff handed over} by other shards, and {@link #close} rejects those too. Every
+ * command accepted before that still runs.
+ */
+@Slf4j
+public class LedgerShard implements Closeable {
+    private static final int SPINS_BEFORE_PARK = 64;
+
+    private final MpscQueue<Runnable> commands = new MpscQueue<>();
+    private final AtomicInteger submitting = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean parked;
+    private volatile boolean running = true;
+    private volatile boolean closing;
+    // Set once no command can reach the queue any more
+    private volatile boolean stopped;
+
+    public LedgerShard(String name) {
+        this.thread = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    /**
+     * @throws RejectedExecutionException if the shard is shutting down
+     */
+    public void execute(Runnable command) {
+        enqueue(command, false);
+    }
+
+    /**
+     * Like {@link #execute}, for commands that another shard hands over while running one of its
+     * own; these are still accepted after {@link #shutdown}.
+     *
+     * @throws RejectedExecutionException if the shard is closing
+     */
+    public void handOff(Runnable command) {
+        enqueue(command, true);
+    }
+
+    private void enqueue(Runnable command, boolean handedOver) {
+        submitting.incrementAndGet();
+        try {
+            if (handedOver ? closing : !running) {
+                throw new RejectedExecutionException("Ledger shard " + thread.getName() + " is shut down");
+            }
+            commands.offer(command);
+        } finally {
+            submitting.decrementAndGet();
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void run() {
+        int idle = 0;
+        while (!stopped) {
+            Runnable command = commands.poll();
+            if (command != null) {
+                idle = 0;
+                runQuietly(command);
+            } else if (++idle < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                parked = true;
+                if (commands.isEmpty() && !stopped) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+                idle = 0;
+            }
+        }
+
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            runQuietly(command);
+        }
+    }
+
+    private static void runQuietly(Runnable command) {
+        try {
+            command.run();
+        } catch (Throwable e) {
+            log.error("Ledger command failed", e);
+        }
+    }
+
+    /**
+     * Rejects further {@link #execute} calls and waits until every command accepted so far has
+     * run. Commands handed over by other shards are still accepted and run until {@link #close}.
+     */
+    public void shutdown() {
+        running = false;
+        awaitSubmitters();
+        CompletableFuture<Void> drained = new CompletableFuture<>();
+        try {
+            handOff(() -> drained.complete(null));
+        } catch (RejectedExecutionException e) {
+            // Already closed, so nothing is left to run
+            return;
+        }
+        drained.join();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closing = true;
+        awaitSubmitters();
+        stopped = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitSubmitters() {
+        while (submitting.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
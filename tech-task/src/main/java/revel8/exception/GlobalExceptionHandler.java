@@ -1,12 +1,16 @@
 package revel8.exception;
 
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import revel8.dto.ErrorResponse;
 
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
@@ -18,6 +22,18 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(ex.getMessage());
     }
     
+    @ExceptionHandler(TicketNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleTicketNotFound(TicketNotFoundException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+    
+    @ExceptionHandler(ScheduleNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleScheduleNotFound(ScheduleNotFoundException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+    
     @ExceptionHandler(InsufficientFundsException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleInsufficientFunds(InsufficientFundsException ex) {
@@ -36,6 +52,36 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(ex.getMessage());
     }
     
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public ErrorResponse handleIdempotencyKeyReuse(IdempotencyKeyReuseException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+    
+    @ExceptionHandler(HistoryUnavailableException.class)
+    @ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+    public ErrorResponse handleHistoryUnavailable(HistoryUnavailableException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+    
+    @ExceptionHandler(StripedCreditsUnavailableException.class)
+    @ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+    public ErrorResponse handleStripedCreditsUnavailable(StripedCreditsUnavailableException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+
+    @ExceptionHandler(AuditUnavailableException.class)
+    @ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+    public ErrorResponse handleAuditUnavailable(AuditUnavailableException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+
+    @ExceptionHandler(StatsUnavailableException.class)
+    @ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+    public ErrorResponse handleStatsUnavailable(StatsUnavailableException ex) {
+        return new ErrorResponse(ex.getMessage());
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(MethodArgumentNotValidException ex) {
@@ -45,6 +91,30 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(errors);
     }
     
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleReactiveValidationException(WebExchangeBindException ex) {
+        String errors = ex.getBindingResult().getFieldErrors().stream()
+            .map(error -> error.getField() + ": " + error.getDefaultMessage())
+            .collect(Collectors.joining(", "));
+        return new ErrorResponse(errors);
+    }
+    
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleRejectedExecution(RejectedExecutionException ex) {
+        return new ErrorResponse("Too many requests in progress");
+    }
+    
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleParameterValidationException(HandlerMethodValidationException ex) {
+        String errors = ex.getAllErrors().stream()
+            .map(MessageSourceResolvable::getDefaultMessage)
+            .collect(Collectors.joining(", "));
+        return new ErrorResponse(errors);
+    }
+    
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleGenericException(Exception ex) {
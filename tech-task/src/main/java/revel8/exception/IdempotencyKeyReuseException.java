@@ -0,0 +1,7 @@
+package revel8.exception;
+
+import lombok.experimental.StandardException;
+
+@StandardException
+public class IdempotencyKeyReuseException extends RuntimeException {
+}
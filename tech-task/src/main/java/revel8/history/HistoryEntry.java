@@ -0,0 +1,18 @@
+package revel8.history;
+
+import java.util.UUID;
+
+/**
+ * A transfer read back from the history log. {@code position} is its place in the log and serves
+ * as the paging cursor.
+ */
+public record HistoryEntry(
+        long position,
+        UUID transferId,
+        UUID fromAccountId,
+        UUID toAccountId,
+        long amountInCents,
+        long timestampMillis,
+        long senderBalanceInCents
+) {
+}
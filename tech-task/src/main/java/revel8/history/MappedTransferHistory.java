@@ -0,0 +1,299 @@
+package revel8.history;
+
+import revel8.dto.TransferDirection;
+import revel8.model.TransferRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only transfer log in fixed-size memory-mapped segment files. Every transfer gets the
+ * next position in the log, and each segment stores its records column by column: one
+ * {@code long} column per field, each {@code recordsPerSegment} entries long, after a header
+ * holding that count. Fields are read straight out of the mapping with absolute {@code getLong}
+ * calls, without copying records into intermediate buffers.
+ * <p>
+ * Two of the columns link every record to the previous record with the same sender and the
+ * previous record with the same recipient. Together with the newest position per account and
+ * direction, kept in memory and rebuilt by scanning the log on startup, this is the per-account
+ * index: a page is read by following the links back from the newest record or from the cursor.
+ * <p>
+ * Records are written through the page cache and not forced to disk, so the newest transfers can
+ * be missing from the log after a crash even though the journal has them.
+ */
+public class MappedTransferHistory implements TransferHistory, Closeable {
+    private static final String SEGMENT_SUFFIX = ".hist";
+    private static final int HEADER_SIZE = Long.BYTES;
+
+    private static final int TRANSFER_ID_MSB = 0;
+    private static final int TRANSFER_ID_LSB = 1;
+    private static final int FROM_MSB = 2;
+    private static final int FROM_LSB = 3;
+    private static final int TO_MSB = 4;
+    private static final int TO_LSB = 5;
+    private static final int AMOUNT = 6;
+    private static final int TIMESTAMP = 7;
+    private static final int SENDER_BALANCE = 8;
+    // Position + 1 of the previous record in the same chain, 0 for none
+    private static final int PREVIOUS_OUTGOING = 9;
+    private static final int PREVIOUS_INCOMING = 10;
+    private static final int COLUMNS = 11;
+    static final int RECORD_SIZE = COLUMNS * Long.BYTES;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Map<UUID, long[]> newest = new HashMap<>();
+    private volatile Segment[] segments;
+    private long size;
+
+    private MappedTransferHistory(Path directory, int recordsPerSegment, Segment[] segments, long size) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Opens the log in {@code directory} and rebuilds the per-account index from it. With
+     * {@code discardExisting} any segments left from an earlier run are deleted first, which is
+     * what callers want when the accounts they refer to were not persisted.
+     */
+    public static MappedTransferHistory open(Path directory, int segmentSize, boolean discardExisting) throws IOException {
+        int recordsPerSegment = (segmentSize - HEADER_SIZE) / RECORD_SIZE;
+        if (recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+
+        List<Path> paths = listSegments(directory);
+        if (discardExisting) {
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+            paths = List.of();
+        }
+
+        Segment[] segments = new Segment[Math.max(16, paths.size() * 2)];
+        for (int i = 0; i < paths.size(); i++) {
+            segments[i] = Segment.open(paths.get(i), recordsPerSegment);
+            recordsPerSegment = segments[i].records;
+        }
+        MappedTransferHistory history = new MappedTransferHistory(directory, recordsPerSegment, segments, 0);
+        history.rebuildIndex(paths.size());
+        return history;
+    }
+
+    @Override
+    public void record(UUID fromAccountId, TransferRecord transfer) {
+        UUID toAccountId = transfer.toAccountId();
+        appendLock.lock();
+        try {
+            long position = size;
+            Segment segment = segmentForWrite(position);
+            int index = (int) (position % recordsPerSegment);
+            long[] fromChains = newest.computeIfAbsent(fromAccountId, id -> new long[2]);
+            long[] toChains = newest.computeIfAbsent(toAccountId, id -> new long[2]);
+
+            segment.put(FROM_MSB, index, fromAccountId.getMostSignificantBits());
+            segment.put(FROM_LSB, index, fromAccountId.getLeastSignificantBits());
+            segment.put(TO_MSB, index, toAccountId.getMostSignificantBits());
+            segment.put(TO_LSB, index, toAccountId.getLeastSignificantBits());
+            segment.put(AMOUNT, index, transfer.amountInCents());
+            segment.put(TIMESTAMP, index, transfer.timestampMillis());
+            segment.put(SENDER_BALANCE, index, transfer.resultingBalanceInCents());
+            segment.put(PREVIOUS_OUTGOING, index, fromChains[0]);
+            segment.put(PREVIOUS_INCOMING, index, toChains[1]);
+            // Written last: a non-zero transfer id marks the record as complete when the index is rebuilt
+            segment.put(TRANSFER_ID_LSB, index, transfer.transferId().getLeastSignificantBits());
+            segment.put(TRANSFER_ID_MSB, index, transfer.transferId().getMostSignificantBits());
+
+            fromChains[0] = position + 1;
+            toChains[1] = position + 1;
+            size = position + 1;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * When {@code before} is the position of one of the account's own records in this direction,
+     * which is what a cursor from the previous page is, the walk starts right at its link instead
+     * of from the newest record.
+     */
+    @Override
+    public List<HistoryEntry> read(UUID accountId, TransferDirection direction, long before, int limit) {
+        if (before <= 0) {
+            return List.of();
+        }
+        boolean outgoing = direction == TransferDirection.OUTGOING;
+        int accountMsb = outgoing ? FROM_MSB : TO_MSB;
+        int previousColumn = outgoing ? PREVIOUS_OUTGOING : PREVIOUS_INCOMING;
+
+        long link;
+        appendLock.lock();
+        try {
+            long[] chains = newest.get(accountId);
+            link = chains == null ? 0 : chains[outgoing ? 0 : 1];
+            if (before < size && belongsTo(before, accountMsb, accountId)) {
+                link = get(before, previousColumn);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+
+        List<HistoryEntry> page = new ArrayList<>(Math.min(limit, 1024));
+        while (link != 0 && page.size() < limit) {
+            long position = link - 1;
+            if (position < before) {
+                page.add(entryAt(position));
+            }
+            link = get(position, previousColumn);
+        }
+        return page;
+    }
+
+    public long size() {
+        appendLock.lock();
+        try {
+            return size;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            for (Segment segment : segments) {
+                if (segment != null) {
+                    segment.close();
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void rebuildIndex(int segmentCount) {
+        long position = 0;
+        long end = (long) segmentCount * recordsPerSegment;
+        while (position < end && (get(position, TRANSFER_ID_MSB) != 0 || get(position, TRANSFER_ID_LSB) != 0)) {
+            UUID from = new UUID(get(position, FROM_MSB), get(position, FROM_LSB));
+            UUID to = new UUID(get(position, TO_MSB), get(position, TO_LSB));
+            newest.computeIfAbsent(from, id -> new long[2])[0] = position + 1;
+            newest.computeIfAbsent(to, id -> new long[2])[1] = position + 1;
+            position++;
+        }
+        size = position;
+    }
+
+    private boolean belongsTo(long position, int msbColumn, UUID accountId) {
+        return get(position, msbColumn) == accountId.getMostSignificantBits()
+                && get(position, msbColumn + 1) == accountId.getLeastSignificantBits();
+    }
+
+    private HistoryEntry entryAt(long position) {
+        return new HistoryEntry(
+                position,
+                new UUID(get(position, TRANSFER_ID_MSB), get(position, TRANSFER_ID_LSB)),
+                new UUID(get(position, FROM_MSB), get(position, FROM_LSB)),
+                new UUID(get(position, TO_MSB), get(position, TO_LSB)),
+                get(position, AMOUNT),
+                get(position, TIMESTAMP),
+                get(position, SENDER_BALANCE)
+        );
+    }
+
+    private long get(long position, int column) {
+        return segments[(int) (position / recordsPerSegment)].get(column, (int) (position % recordsPerSegment));
+    }
+
+    private Segment segmentForWrite(long position) {
+        int segmentIndex = (int) (position / recordsPerSegment);
+        Segment[] current = segments;
+        if (segmentIndex < current.length && current[segmentIndex] != null) {
+            return current[segmentIndex];
+        }
+        try {
+            Segment segment = Segment.open(directory.resolve(String.format("%020d%s", position, SEGMENT_SUFFIX)),
+                    recordsPerSegment);
+            if (segmentIndex >= current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[segmentIndex] = segment;
+            segments = current;
+            return segment;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create transfer history segment", e);
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static final class Segment implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int records;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer, int records) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.records = records;
+        }
+
+        /**
+         * Opens an existing segment with the record count in its header, or creates one holding
+         * {@code records} records.
+         */
+        static Segment open(Path path, int records) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() >= HEADER_SIZE) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                records = Math.toIntExact(header.getLong(0));
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) records * RECORD_SIZE);
+            buffer.putLong(0, records);
+            return new Segment(channel, buffer, records);
+        }
+
+        long get(int column, int index) {
+            return buffer.getLong(offset(column, index));
+        }
+
+        void put(int column, int index, long value) {
+            buffer.putLong(offset(column, index), value);
+        }
+
+        private int offset(int column, int index) {
+            return HEADER_SIZE + (column * records + index) * Long.BYTES;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package revel8.history;
+
+import revel8.dto.TransferDirection;
+import revel8.exception.HistoryUnavailableException;
+import revel8.model.TransferRecord;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Complete transfer history of every account in both directions, beyond the most recent
+ * transfers each account keeps in memory. {@link #record} is called while the sender's account
+ * lock is held, right where the transfer is added to the in-memory history.
+ */
+public interface TransferHistory {
+
+    TransferHistory NONE = new TransferHistory() {
+        @Override
+        public void record(UUID fromAccountId, TransferRecord transfer) {
+        }
+
+        @Override
+        public List<HistoryEntry> read(UUID accountId, TransferDirection direction, long before, int limit) {
+            throw new HistoryUnavailableException("Full transfer history is not enabled");
+        }
+    };
+
+    void record(UUID fromAccountId, TransferRecord transfer);
+
+    /**
+     * Returns up to {@code limit} transfers of the account in the given direction, newest first,
+     * starting below the position {@code before}; {@code Long.MAX_VALUE} starts at the newest.
+     */
+    List<HistoryEntry> read(UUID accountId, TransferDirection direction, long before, int limit);
+}
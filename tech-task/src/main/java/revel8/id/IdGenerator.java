@@ -0,0 +1,16 @@
+package revel8.id;
+
+import java.util.UUID;
+
+/**
+ * Source of account and transfer ids.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+    /**
+     * Version 4 UUIDs from {@link UUID#randomUUID}, which draws on a shared {@code SecureRandom}.
+     */
+    IdGenerator RANDOM = UUID::randomUUID;
+
+    UUID next();
+}
@@ -0,0 +1,25 @@
+package revel8.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version 7 UUIDs (RFC 9562): the top 48 bits are the Unix time in milliseconds, the remaining
+ * 74 non-fixed bits come from {@link ThreadLocalRandom}, so generating an id takes no lock and
+ * makes no system call beyond reading the clock. Ids compare in creation order down to the
+ * millisecond; ids created in the same millisecond are ordered randomly.
+ * <p>
+ * The random bits are not cryptographically strong, so ids must not double as secrets.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+
+    @Override
+    public UUID next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = System.currentTimeMillis() << 16 | VERSION | random.nextInt() & 0x0FFF;
+        long lsb = random.nextLong() >>> 2 | VARIANT;
+        return new UUID(msb, lsb);
+    }
+}
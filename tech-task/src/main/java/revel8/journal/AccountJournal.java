@@ -0,0 +1,66 @@
+package revel8.journal;
+
+import revel8.model.TransferRecord;
+
+import java.util.UUID;
+
+/**
+ * Write-ahead log of every balance mutation. The {@code log*} methods are called while the
+ * affected account locks are held and return the sequence number of the appended entry; callers
+ * release their locks first and then block in {@link #awaitDurable(long)} so that concurrent
+ * writers can share a single fsync.
+ */
+public interface AccountJournal {
+
+    AccountJournal NO_OP = new AccountJournal() {
+        @Override
+        public long logCreate(UUID accountId, String name, String email, int age, String city, long initialCents) {
+            return 0;
+        }
+
+        @Override
+        public long logDeposit(UUID accountId, long amountInCents) {
+            return 0;
+        }
+
+        @Override
+        public long logWithdraw(UUID accountId, long amountInCents) {
+            return 0;
+        }
+
+        @Override
+        public long logTransfer(UUID fromAccountId, TransferRecord transfer) {
+            return 0;
+        }
+
+        @Override
+        public long logTransferDebit(UUID fromAccountId, TransferRecord transfer) {
+            return 0;
+        }
+
+        @Override
+        public long logTransferCredit(UUID transferId, UUID toAccountId, long amountInCents) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long sequence) {
+        }
+    };
+
+    /**
+     * Logged before the account is published, so that nothing can mutate it ahead of its CREATE.
+     */
+    long logCreate(UUID accountId, String name, String email, int age, String city, long initialCents);
+    long logDeposit(UUID accountId, long amountInCents);
+    long logWithdraw(UUID accountId, long amountInCents);
+    long logTransfer(UUID fromAccountId, TransferRecord transfer);
+
+    /**
+     * First half of a transfer whose two sides are applied separately; replay credits the
+     * recipient itself if the matching {@link #logTransferCredit} entry never made it to disk.
+     */
+    long logTransferDebit(UUID fromAccountId, TransferRecord transfer);
+    long logTransferCredit(UUID transferId, UUID toAccountId, long amountInCents);
+    void awaitDurable(long sequence);
+}
@@ -0,0 +1,13 @@
+package revel8.journal;
+
+import java.util.UUID;
+
+public interface JournalEntryHandler {
+
+    void onCreate(long sequence, UUID accountId, String name, String email, int age, String city, long initialCents);
+    void onDeposit(long sequence, UUID accountId, long amountInCents);
+    void onWithdraw(long sequence, UUID accountId, long amountInCents);
+    void onTransfer(long sequence, UUID transferId, UUID fromAccountId, UUID toAccountId, long amountInCents, long timestampMillis);
+    void onTransferDebit(long sequence, UUID transferId, UUID fromAccountId, UUID toAccountId, long amountInCents, long timestampMillis);
+    void onTransferCredit(long sequence, UUID transferId, UUID toAccountId, long amountInCents);
+}
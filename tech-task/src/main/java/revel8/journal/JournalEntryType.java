@@ -0,0 +1,28 @@
+package revel8.journal;
+
+enum JournalEntryType {
+    CREATE((byte) 1),
+    DEPOSIT((byte) 2),
+    WITHDRAW((byte) 3),
+    TRANSFER((byte) 4),
+    TRANSFER_DEBIT((byte) 5),
+    TRANSFER_CREDIT((byte) 6);
+
+    private static final JournalEntryType[] BY_CODE = new JournalEntryType[7];
+
+    static {
+        for (JournalEntryType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    final byte code;
+
+    JournalEntryType(byte code) {
+        this.code = code;
+    }
+
+    static JournalEntryType fromCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
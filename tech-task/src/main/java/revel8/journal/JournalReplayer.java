@@ -0,0 +1,131 @@
+package revel8.journal;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+import revel8.repository.AccountRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Applies journal entries on top of whatever the repository already holds. Accounts restored from
+ * a snapshot carry the sequence of the last entry they reflect, so older entries are skipped per
+ * account rather than per snapshot.
+ */
+@RequiredArgsConstructor
+public class JournalReplayer implements JournalEntryHandler {
+    private final AccountRepository accountRepository;
+
+    private final Map<UUID, PendingCredit> pendingCredits = new HashMap<>();
+
+    @Getter
+    private long replayedEntries;
+
+    @Override
+    public void onCreate(long sequence, UUID accountId, String name, String email, int age, String city, long initialCents) {
+        replayedEntries++;
+        Optional<Account> existing = accountRepository.findById(accountId);
+        if (existing.isPresent() && existing.get().getJournalSequence() >= sequence) {
+            return;
+        }
+        accountRepository.save(Account.builder()
+                .id(accountId)
+                .name(name)
+                .email(email)
+                .age(age)
+                .city(city)
+                .balanceInCents(initialCents)
+                .journalSequence(sequence)
+                .build());
+    }
+
+    @Override
+    public void onDeposit(long sequence, UUID accountId, long amountInCents) {
+        replayedEntries++;
+        apply(require(accountId, sequence), sequence, amountInCents);
+    }
+
+    @Override
+    public void onWithdraw(long sequence, UUID accountId, long amountInCents) {
+        replayedEntries++;
+        apply(require(accountId, sequence), sequence, -amountInCents);
+    }
+
+    @Override
+    public void onTransfer(long sequence, UUID transferId, UUID fromAccountId, UUID toAccountId, long amountInCents, long timestampMillis) {
+        replayedEntries++;
+        Account from = require(fromAccountId, sequence);
+        Account to = require(toAccountId, sequence);
+        if (apply(from, sequence, -amountInCents)) {
+            from.getOutgoing().append(new TransferRecord(
+                    transferId,
+                    toAccountId,
+                    amountInCents,
+                    timestampMillis,
+                    from.getBalanceInCents()
+            ));
+        }
+        apply(to, sequence, amountInCents);
+    }
+
+    @Override
+    public void onTransferDebit(long sequence, UUID transferId, UUID fromAccountId, UUID toAccountId, long amountInCents, long timestampMillis) {
+        replayedEntries++;
+        Account from = require(fromAccountId, sequence);
+        if (apply(from, sequence, -amountInCents)) {
+            from.getOutgoing().append(new TransferRecord(
+                    transferId,
+                    toAccountId,
+                    amountInCents,
+                    timestampMillis,
+                    from.getBalanceInCents()
+            ));
+        }
+        pendingCredits.put(transferId, new PendingCredit(transferId, toAccountId, amountInCents));
+    }
+
+    @Override
+    public void onTransferCredit(long sequence, UUID transferId, UUID toAccountId, long amountInCents) {
+        replayedEntries++;
+        pendingCredits.remove(transferId);
+        apply(require(toAccountId, sequence), sequence, amountInCents);
+    }
+
+    /**
+     * Finishes transfers whose debit was journaled but whose credit was not, logging the credit so
+     * the next replay sees a complete transfer.
+     */
+    public int completePendingCredits(AccountJournal journal) {
+        for (PendingCredit credit : pendingCredits.values()) {
+            Account to = require(credit.toAccountId(), 0);
+            long sequence = journal.logTransferCredit(credit.transferId(), credit.toAccountId(), credit.amountInCents());
+            apply(to, sequence, credit.amountInCents());
+            journal.awaitDurable(sequence);
+        }
+        int completed = pendingCredits.size();
+        pendingCredits.clear();
+        return completed;
+    }
+
+    private static boolean apply(Account account, long sequence, long deltaInCents) {
+        if (account.getJournalSequence() >= sequence) {
+            return false;
+        }
+        account.setBalanceInCents(account.getBalanceInCents() + deltaInCents);
+        account.setJournalSequence(sequence);
+        return true;
+    }
+
+    private record PendingCredit(UUID transferId, UUID toAccountId, long amountInCents) {
+    }
+
+    private Account require(UUID accountId, long sequence) {
+        return accountRepository.findById(accountId)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Journal entry " + sequence + " references unknown account " + accountId));
+    }
+}
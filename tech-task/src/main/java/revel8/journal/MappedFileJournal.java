@@ -0,0 +1,499 @@
+package revel8.journal;
+
+import revel8.model.TransferRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal stored in fixed-size memory-mapped segment files named after the sequence
+ * number of their first entry. Each entry is framed as
+ * {@code [length:int][type:byte][sequence:long][payload][crc32c:int]}; replay stops at the first
+ * frame that is empty, torn or out of sequence.
+ * <p>
+ * Appends only copy bytes into the mapping. A single flusher thread forces the mapping to disk
+ * once per commit window, so every writer that appended during that window is acknowledged by
+ * the same fsync.
+ */
+public class MappedFileJournal implements AccountJournal, Closeable {
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int HEADER_SIZE = Integer.BYTES + 1 + Long.BYTES;
+    private static final int FRAME_OVERHEAD = HEADER_SIZE + Integer.BYTES;
+    private static final int UUID_SIZE = 2 * Long.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long commitWindowNanos;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final CRC32C checksum = new CRC32C();
+    private Segment current;
+    private long lastSequence;
+    private int frameStart;
+    private volatile long writtenSequence;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncRequested = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+    private volatile long durableSequence;
+    private volatile RuntimeException syncFailure;
+    private volatile boolean running = true;
+    private final Thread flusher;
+
+    private final Map<UUID, Long> openDebits = new ConcurrentHashMap<>();
+
+    private MappedFileJournal(Path directory, int segmentSize, Duration commitWindow, Segment current, long lastSequence) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.commitWindowNanos = commitWindow.toNanos();
+        this.current = current;
+        this.lastSequence = lastSequence;
+        this.writtenSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Replays every entry found in {@code directory} into {@code handler} and returns a journal
+     * positioned right after the last intact entry.
+     */
+    public static MappedFileJournal open(Path directory, int segmentSize, Duration commitWindow,
+                                         JournalEntryHandler handler) throws IOException {
+        if (segmentSize <= FRAME_OVERHEAD) {
+            throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+
+        List<Path> paths = listSegments(directory);
+        long lastSequence = 0;
+        Segment tail = null;
+        for (Path path : paths) {
+            Segment segment = Segment.open(path, firstSequenceOf(path), segmentSize);
+            if (tail != null) {
+                if (segment.firstSequence != lastSequence + 1) {
+                    throw new IllegalStateException("Journal gap before segment " + path.getFileName()
+                            + ", last replayed sequence is " + lastSequence);
+                }
+                tail.close();
+            }
+            lastSequence = segment.replay(handler);
+            tail = segment;
+        }
+
+        if (tail == null) {
+            tail = Segment.create(directory, 1, segmentSize);
+        }
+        tail.clearFrom(tail.position);
+        return new MappedFileJournal(directory, segmentSize, commitWindow, tail, lastSequence);
+    }
+
+    @Override
+    public long logCreate(UUID accountId, String name, String email, int age, String city, long initialCents) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        byte[] cityBytes = city.getBytes(StandardCharsets.UTF_8);
+        int payloadSize = UUID_SIZE + Long.BYTES + Integer.BYTES
+                + 3 * Integer.BYTES + nameBytes.length + emailBytes.length + cityBytes.length;
+
+        appendLock.lock();
+        try {
+            ByteBuffer buf = begin(JournalEntryType.CREATE, payloadSize);
+            putUuid(buf, accountId);
+            buf.putLong(initialCents);
+            buf.putInt(age);
+            putBytes(buf, nameBytes);
+            putBytes(buf, emailBytes);
+            putBytes(buf, cityBytes);
+            return commit(buf);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public long logDeposit(UUID accountId, long amountInCents) {
+        return logAmount(JournalEntryType.DEPOSIT, accountId, amountInCents);
+    }
+
+    @Override
+    public long logWithdraw(UUID accountId, long amountInCents) {
+        return logAmount(JournalEntryType.WITHDRAW, accountId, amountInCents);
+    }
+
+    @Override
+    public long logTransfer(UUID fromAccountId, TransferRecord transfer) {
+        return logTransfer(JournalEntryType.TRANSFER, fromAccountId, transfer);
+    }
+
+    @Override
+    public long logTransferDebit(UUID fromAccountId, TransferRecord transfer) {
+        return logTransfer(JournalEntryType.TRANSFER_DEBIT, fromAccountId, transfer);
+    }
+
+    @Override
+    public long logTransferCredit(UUID transferId, UUID toAccountId, long amountInCents) {
+        appendLock.lock();
+        try {
+            ByteBuffer buf = begin(JournalEntryType.TRANSFER_CREDIT, 2 * UUID_SIZE + Long.BYTES);
+            putUuid(buf, transferId);
+            putUuid(buf, toAccountId);
+            buf.putLong(amountInCents);
+            long sequence = commit(buf);
+            openDebits.remove(transferId);
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            syncRequested.signal();
+            while (durableSequence < sequence) {
+                if (syncFailure != null) {
+                    throw syncFailure;
+                }
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    public long getWrittenSequence() {
+        return writtenSequence;
+    }
+
+    /**
+     * Deletes every segment whose entries all have a sequence of at most {@code sequence}. The
+     * segment currently being appended to is always kept, and so is every segment from the oldest
+     * transfer debit that has no credit yet, since replay needs it to finish that transfer.
+     */
+    public int truncateUpTo(long sequence) throws IOException {
+        for (long debit : openDebits.values()) {
+            sequence = Math.min(sequence, debit - 1);
+        }
+        List<Path> segments = listSegments(directory);
+        int deleted = 0;
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (firstSequenceOf(segments.get(i + 1)) > sequence + 1) {
+                break;
+            }
+            Files.delete(segments.get(i));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        syncLock.lock();
+        try {
+            syncRequested.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+
+        appendLock.lock();
+        try {
+            current.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long logAmount(JournalEntryType type, UUID accountId, long amountInCents) {
+        appendLock.lock();
+        try {
+            ByteBuffer buf = begin(type, UUID_SIZE + Long.BYTES);
+            putUuid(buf, accountId);
+            buf.putLong(amountInCents);
+            return commit(buf);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long logTransfer(JournalEntryType type, UUID fromAccountId, TransferRecord transfer) {
+        appendLock.lock();
+        try {
+            ByteBuffer buf = begin(type, 3 * UUID_SIZE + 2 * Long.BYTES);
+            putUuid(buf, transfer.transferId());
+            putUuid(buf, fromAccountId);
+            putUuid(buf, transfer.toAccountId());
+            buf.putLong(transfer.amountInCents());
+            buf.putLong(transfer.timestampMillis());
+            if (type == JournalEntryType.TRANSFER_DEBIT) {
+                openDebits.put(transfer.transferId(), lastSequence + 1);
+            }
+            return commit(buf);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private ByteBuffer begin(JournalEntryType type, int payloadSize) {
+        int frameSize = FRAME_OVERHEAD + payloadSize;
+        if (frameSize > segmentSize) {
+            throw new IllegalArgumentException("Journal entry of " + frameSize + " bytes exceeds the segment size");
+        }
+        long sequence = lastSequence + 1;
+        if (current.position + frameSize > current.capacity()) {
+            roll(sequence);
+        }
+
+        frameStart = current.position;
+        ByteBuffer buf = current.buffer;
+        buf.position(frameStart);
+        buf.putInt(frameSize - Integer.BYTES);
+        buf.put(type.code);
+        buf.putLong(sequence);
+        return buf;
+    }
+
+    private long commit(ByteBuffer buf) {
+        int end = buf.position();
+        checksum.reset();
+        checksum.update(buf.slice(frameStart + Integer.BYTES, end - frameStart - Integer.BYTES));
+        buf.putInt((int) checksum.getValue());
+
+        current.position = buf.position();
+        lastSequence++;
+        writtenSequence = lastSequence;
+        return lastSequence;
+    }
+
+    private void roll(long firstSequence) {
+        Segment previous = current;
+        try {
+            previous.buffer.force();
+            current = Segment.create(directory, firstSequence, segmentSize);
+            previous.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll journal segment", e);
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            syncLock.lock();
+            try {
+                while (running && durableSequence >= writtenSequence) {
+                    syncRequested.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                syncLock.unlock();
+            }
+            if (commitWindowNanos > 0) {
+                LockSupport.parkNanos(commitWindowNanos);
+            }
+            sync();
+        }
+    }
+
+    private void sync() {
+        long target;
+        Segment segment;
+        int upTo;
+        appendLock.lock();
+        try {
+            target = lastSequence;
+            segment = current;
+            upTo = segment.position;
+        } finally {
+            appendLock.unlock();
+        }
+
+        RuntimeException failure = null;
+        try {
+            segment.force(upTo);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        syncLock.lock();
+        try {
+            if (failure == null) {
+                durableSequence = target;
+            } else {
+                syncFailure = failure;
+            }
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private static void putUuid(ByteBuffer buf, UUID id) {
+        buf.putLong(id.getMostSignificantBits());
+        buf.putLong(id.getLeastSignificantBits());
+    }
+
+    private static void putBytes(ByteBuffer buf, byte[] bytes) {
+        buf.putInt(bytes.length);
+        buf.put(bytes);
+    }
+
+    private static UUID getUuid(ByteBuffer buf) {
+        return new UUID(buf.getLong(), buf.getLong());
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted((a, b) -> Long.compare(firstSequenceOf(a), firstSequenceOf(b)))
+                    .toList();
+        }
+    }
+
+    static long firstSequenceOf(Path segment) {
+        String fileName = segment.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment implements Closeable {
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int forcedPosition;
+
+        private Segment(long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path directory, long firstSequence, int size) throws IOException {
+            Path path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+            return open(path, firstSequence, size);
+        }
+
+        static Segment open(Path path, long firstSequence, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long mappedSize = Math.max(size, channel.size());
+            return new Segment(firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        long replay(JournalEntryHandler handler) {
+            CRC32C crc = new CRC32C();
+            long sequence = firstSequence - 1;
+            int pos = 0;
+            while (pos + FRAME_OVERHEAD <= buffer.capacity()) {
+                int length = buffer.getInt(pos);
+                if (length < FRAME_OVERHEAD - Integer.BYTES || pos + Integer.BYTES + length > buffer.capacity()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(pos + Integer.BYTES, length - Integer.BYTES));
+                if ((int) crc.getValue() != buffer.getInt(pos + length)) {
+                    break;
+                }
+                long entrySequence = buffer.getLong(pos + Integer.BYTES + 1);
+                if (entrySequence != sequence + 1) {
+                    break;
+                }
+
+                JournalEntryType type = JournalEntryType.fromCode(buffer.get(pos + Integer.BYTES));
+                if (type == null) {
+                    throw new IllegalStateException("Unknown journal entry type at sequence " + entrySequence);
+                }
+                decode(type, entrySequence, buffer.slice(pos + HEADER_SIZE, length - FRAME_OVERHEAD + Integer.BYTES), handler);
+                sequence = entrySequence;
+                pos += Integer.BYTES + length;
+            }
+            position = pos;
+            forcedPosition = pos;
+            return sequence;
+        }
+
+        private static void decode(JournalEntryType type, long sequence, ByteBuffer payload, JournalEntryHandler handler) {
+            switch (type) {
+                case CREATE -> {
+                    UUID id = getUuid(payload);
+                    long initialCents = payload.getLong();
+                    int age = payload.getInt();
+                    handler.onCreate(sequence, id, getString(payload), getString(payload), age, getString(payload), initialCents);
+                }
+                case DEPOSIT -> handler.onDeposit(sequence, getUuid(payload), payload.getLong());
+                case WITHDRAW -> handler.onWithdraw(sequence, getUuid(payload), payload.getLong());
+                case TRANSFER -> handler.onTransfer(sequence, getUuid(payload), getUuid(payload), getUuid(payload),
+                        payload.getLong(), payload.getLong());
+                case TRANSFER_DEBIT -> handler.onTransferDebit(sequence, getUuid(payload), getUuid(payload), getUuid(payload),
+                        payload.getLong(), payload.getLong());
+                case TRANSFER_CREDIT -> handler.onTransferCredit(sequence, getUuid(payload), getUuid(payload), payload.getLong());
+            }
+        }
+
+        void clearFrom(int from) {
+            byte[] zeros = new byte[8192];
+            for (int pos = from; pos < buffer.capacity(); pos += zeros.length) {
+                buffer.put(pos, zeros, 0, Math.min(zeros.length, buffer.capacity() - pos));
+            }
+            buffer.force();
+        }
+
+        void force(int upTo) {
+            int from = forcedPosition;
+            if (upTo > from) {
+                buffer.force(from, upTo - from);
+                forcedPosition = upTo;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
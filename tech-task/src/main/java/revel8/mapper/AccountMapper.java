@@ -9,6 +9,7 @@ import revel8.dto.CreateAccountResponse;
 import revel8.dto.TransferResponse;
 import revel8.model.Account;
 import revel8.model.TransferRecord;
+import revel8.money.MoneyCodec;
 
 @Mapper
 public interface AccountMapper {
@@ -25,7 +26,7 @@ public interface AccountMapper {
 
     @Named("formatAmount")
     default String formatAmount(long cents) {
-        return String.format("%d.%02d", cents / 100, Math.abs(cents % 100));
+        return MoneyCodec.format(cents);
     }
 }
 
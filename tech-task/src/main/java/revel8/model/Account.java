@@ -1,17 +1,45 @@
 package revel8.model;
 
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
-import revel8.datastructure.RingBuffer;
+import revel8.datastructure.PackedRingBuffer;
+import revel8.datastructure.TimedLock;
+import revel8.datastructure.TransferRecordBuffer;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.UUID;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Getter
 @Builder
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
 public class Account {
-    private static final int STORED_RECORDS_LIMIT = 50;
+    public static final int STORED_RECORDS_LIMIT = 50;
+
+    /** Returned by {@link #tryAddLockFree} when the balance would go negative. */
+    public static final long INSUFFICIENT_FUNDS = -1;
+    /** Returned by {@link #tryAddLockFree} while a lock holder has the balance held. */
+    public static final long BALANCE_HELD = -2;
+
+    /**
+     * Balances are never negative, so the sign bit of the stored value marks a balance that a
+     * lock holder is in the middle of updating.
+     */
+    public static final long HELD_BIT = Long.MIN_VALUE;
+
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balanceInCents", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     private final UUID id;
     private final String name;
@@ -21,10 +49,64 @@ public class Account {
 
     @Setter
     private long balanceInCents;
+
+    @Setter
+    private long journalSequence;
+
+    /** The last balance audit that has counted this account; read and written under the lock. */
+    @Setter
+    private int auditEpoch;
     
     @Builder.Default
-    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock lock = new TimedLock();
     
     @Builder.Default
-    private final RingBuffer outgoing = new RingBuffer(STORED_RECORDS_LIMIT);
+    private final TransferRecordBuffer outgoing = new PackedRingBuffer(STORED_RECORDS_LIMIT);
+
+    public long getBalanceInCents() {
+        return balanceInCents & ~HELD_BIT;
+    }
+
+    /**
+     * Adds {@code deltaInCents} with a CAS loop instead of the lock and returns the new balance,
+     * {@link #INSUFFICIENT_FUNDS} if it would go negative, or {@link #BALANCE_HELD} if a lock holder
+     * is updating the balance, in which case the caller has to take the lock.
+     */
+    public long tryAddLockFree(long deltaInCents) {
+        long current = (long) BALANCE.getVolatile(this);
+        while (true) {
+            if (current < 0) {
+                return BALANCE_HELD;
+            }
+            long updated = current + deltaInCents;
+            if (updated < 0) {
+                return INSUFFICIENT_FUNDS;
+            }
+            long witness = (long) BALANCE.compareAndExchange(this, current, updated);
+            if (witness == current) {
+                return updated;
+            }
+            current = witness;
+        }
+    }
+
+    /**
+     * Marks the balance as being updated so that {@link #tryAddLockFree} backs off, and returns it.
+     * Must be called with the lock held and paired with {@link #releaseBalance}.
+     */
+    public long holdBalance() {
+        return (long) BALANCE.getAndBitwiseOr(this, HELD_BIT) & ~HELD_BIT;
+    }
+
+    public void releaseBalance(long balanceInCents) {
+        BALANCE.setVolatile(this, balanceInCents);
+    }
+
+    /**
+     * For repositories that keep account state in their own storage and hand out views over it.
+     * Such subclasses override every accessor except {@link #getId()}.
+     */
+    protected Account(UUID id) {
+        this(id, null, null, null, null, 0, 0, 0, null, null);
+    }
 }
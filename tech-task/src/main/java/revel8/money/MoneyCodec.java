@@ -0,0 +1,152 @@
+package revel8.money;
+
+import revel8.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-point conversion between decimal strings and {@code long} cents.
+ * <p>
+ * Plain decimals such as {@code "-1234.5"} are parsed in a single pass without allocating. Anything
+ * the fast path does not handle (exponents, more than 16 integer digits) falls back to
+ * {@link BigDecimal}, so both paths accept the same inputs and round the same way: HALF_EVEN to
+ * two decimals, rejecting values that do not fit in a {@code long}. Exponents far outside that range
+ * are settled from the precision alone instead of expanding the number.
+ */
+public final class MoneyCodec {
+    private static final String INVALID_AMOUNT_MESSAGE = "Invalid amount format";
+    private static final int MAX_FAST_INTEGER_DIGITS = 16;
+    private static final int MAX_INTEGER_DIGITS = 18;
+    private static final int MAX_FORMATTED_LENGTH = 21;
+    private static final int CACHED_FORMATS = 10_000;
+    private static final String[] FORMAT_CACHE = new String[CACHED_FORMATS];
+
+    private MoneyCodec() {
+    }
+
+    public static long parseCents(String amount) {
+        if (amount == null) {
+            throw new InvalidAmountException(INVALID_AMOUNT_MESSAGE);
+        }
+        int length = amount.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (amount.charAt(i) == '-' || amount.charAt(i) == '+')) {
+            negative = amount.charAt(i) == '-';
+            i++;
+        }
+
+        long units = 0;
+        int integerDigits = 0;
+        char c = 0;
+        while (i < length && isDigit(c = amount.charAt(i))) {
+            if (++integerDigits > MAX_FAST_INTEGER_DIGITS) {
+                return parseSlow(amount);
+            }
+            units = units * 10 + (c - '0');
+            i++;
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        int roundingDigit = 0;
+        boolean sticky = false;
+        if (i < length && c == '.') {
+            i++;
+            while (i < length && isDigit(c = amount.charAt(i))) {
+                int digit = c - '0';
+                if (fractionDigits < 2) {
+                    fraction = fraction * 10 + digit;
+                } else if (fractionDigits == 2) {
+                    roundingDigit = digit;
+                } else if (digit != 0) {
+                    sticky = true;
+                }
+                fractionDigits++;
+                i++;
+            }
+        }
+
+        if (i < length) {
+            return parseSlow(amount);
+        }
+        if (integerDigits == 0 && fractionDigits == 0) {
+            throw new InvalidAmountException(INVALID_AMOUNT_MESSAGE);
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+
+        long cents = units * 100 + fraction;
+        if (roundingDigit > 5 || (roundingDigit == 5 && (sticky || (cents & 1) == 1))) {
+            cents++;
+        }
+        return negative ? -cents : cents;
+    }
+
+    public static String format(long cents) {
+        if (cents >= 0 && cents < CACHED_FORMATS) {
+            String cached = FORMAT_CACHE[(int) cents];
+            if (cached == null) {
+                cached = formatUncached(cents);
+                FORMAT_CACHE[(int) cents] = cached;
+            }
+            return cached;
+        }
+        return formatUncached(cents);
+    }
+
+    /**
+     * Writes {@code cents} as ASCII into {@code buffer} ending right before {@code end} and returns
+     * the index of the first written byte. The buffer needs room for {@value #MAX_FORMATTED_LENGTH} bytes.
+     */
+    public static int formatTo(long cents, byte[] buffer, int end) {
+        int pos = end;
+        long remainder = Math.abs(cents % 100);
+        buffer[--pos] = (byte) ('0' + remainder % 10);
+        buffer[--pos] = (byte) ('0' + remainder / 10);
+        buffer[--pos] = '.';
+
+        long units = cents / 100;
+        boolean negative = units < 0;
+        do {
+            buffer[--pos] = (byte) ('0' + Math.abs(units % 10));
+            units /= 10;
+        } while (units != 0);
+        if (negative) {
+            buffer[--pos] = '-';
+        }
+        return pos;
+    }
+
+    private static String formatUncached(long cents) {
+        byte[] buffer = new byte[MAX_FORMATTED_LENGTH];
+        int start = formatTo(cents, buffer, buffer.length);
+        return new String(buffer, start, buffer.length - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private static long parseSlow(String amount) {
+        try {
+            BigDecimal value = new BigDecimal(amount);
+            int integerDigits = value.precision() - value.scale();
+            if (value.signum() == 0 || integerDigits < -2) {
+                return 0;
+            }
+            if (integerDigits > MAX_INTEGER_DIGITS) {
+                throw new InvalidAmountException(INVALID_AMOUNT_MESSAGE);
+            }
+            return value
+                .setScale(2, RoundingMode.HALF_EVEN)
+                .movePointRight(2)
+                .longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new InvalidAmountException(INVALID_AMOUNT_MESSAGE);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,139 @@
+package revel8.protocol;
+
+import lombok.extern.slf4j.Slf4j;
+import revel8.dto.AmountRequest;
+import revel8.dto.BalanceResponse;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.exception.AccountNotFoundException;
+import revel8.exception.InsufficientFundsException;
+import revel8.exception.InvalidAmountException;
+import revel8.exception.InvalidFrameException;
+import revel8.exception.InvalidTransferException;
+import revel8.money.MoneyCodec;
+import revel8.service.AccountService;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static revel8.protocol.BinaryProtocol.*;
+
+/**
+ * Runs the commands of a {@link BinaryProtocol} request body one after the other against the
+ * {@link AccountService} and collects their results into one response body. The framing of the
+ * whole body is checked before anything runs, so a truncated body is rejected without applying
+ * any of its commands; a frame with an unknown command or the wrong length, or whose command
+ * throws, only fails itself.
+ */
+@Slf4j
+public class BinaryCommandProcessor {
+    private static final int OK_TRANSFER_FRAME = Integer.BYTES + 1 + 4 * Long.BYTES;
+
+    private final AccountService accountService;
+
+    public BinaryCommandProcessor(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    public byte[] process(byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        int frames = countFrames(in);
+        ByteBuffer out = ByteBuffer.allocate(frames * OK_TRANSFER_FRAME);
+        while (in.hasRemaining()) {
+            int length = in.getInt();
+            int end = in.position() + length;
+            out = execute(in.slice(in.position(), length), out);
+            in.position(end);
+        }
+        return out.position() == out.capacity() ? out.array() : Arrays.copyOf(out.array(), out.position());
+    }
+
+    private static int countFrames(ByteBuffer in) {
+        int frames = 0;
+        int position = 0;
+        while (position < in.limit()) {
+            if (in.limit() - position < Integer.BYTES) {
+                throw new InvalidFrameException("Truncated frame length at byte " + position);
+            }
+            int length = in.getInt(position);
+            if (length < 0 || length > in.limit() - position - Integer.BYTES) {
+                throw new InvalidFrameException("Frame at byte " + position + " runs past the end of the body");
+            }
+            position += Integer.BYTES + length;
+            frames++;
+        }
+        return frames;
+    }
+
+    private ByteBuffer execute(ByteBuffer frame, ByteBuffer out) {
+        byte command = frame.hasRemaining() ? frame.get() : 0;
+        try {
+            switch (command) {
+                case DEPOSIT, WITHDRAW -> {
+                    if (frame.limit() != ACCOUNT_COMMAND_LENGTH) {
+                        return error(out, UNKNOWN_COMMAND, "Expected " + ACCOUNT_COMMAND_LENGTH + " bytes for command " + command);
+                    }
+                    UUID accountId = new UUID(frame.getLong(), frame.getLong());
+                    AmountRequest amount = new AmountRequest(MoneyCodec.format(frame.getLong()));
+                    BalanceResponse response = command == DEPOSIT
+                            ? accountService.deposit(accountId, amount)
+                            : accountService.withdraw(accountId, amount);
+                    return ensure(out, Integer.BYTES + 1 + Long.BYTES)
+                            .putInt(1 + Long.BYTES)
+                            .put(OK)
+                            .putLong(MoneyCodec.parseCents(response.balance()));
+                }
+                case TRANSFER -> {
+                    if (frame.limit() != TRANSFER_COMMAND_LENGTH) {
+                        return error(out, UNKNOWN_COMMAND, "Expected " + TRANSFER_COMMAND_LENGTH + " bytes for command " + command);
+                    }
+                    UUID from = new UUID(frame.getLong(), frame.getLong());
+                    UUID to = new UUID(frame.getLong(), frame.getLong());
+                    TransferResponse response = accountService.transfer(
+                            new TransferRequest(from, to, MoneyCodec.format(frame.getLong())));
+                    return ensure(out, OK_TRANSFER_FRAME)
+                            .putInt(OK_TRANSFER_FRAME - Integer.BYTES)
+                            .put(OK)
+                            .putLong(response.transferId().getMostSignificantBits())
+                            .putLong(response.transferId().getLeastSignificantBits())
+                            .putLong(MoneyCodec.parseCents(response.resultingBalance()))
+                            .putLong(response.recipientBalance() == null
+                                    ? UNKNOWN_BALANCE
+                                    : MoneyCodec.parseCents(response.recipientBalance()));
+                }
+                default -> {
+                    return error(out, UNKNOWN_COMMAND, "Unknown command " + command);
+                }
+            }
+        } catch (InsufficientFundsException e) {
+            return error(out, INSUFFICIENT_FUNDS, e.getMessage());
+        } catch (AccountNotFoundException e) {
+            return error(out, ACCOUNT_NOT_FOUND, e.getMessage());
+        } catch (InvalidAmountException e) {
+            return error(out, INVALID_AMOUNT, e.getMessage());
+        } catch (InvalidTransferException e) {
+            return error(out, INVALID_TRANSFER, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Binary command {} failed", command, e);
+            return error(out, FAILED, e.getMessage());
+        }
+    }
+
+    private static ByteBuffer error(ByteBuffer out, byte status, String message) {
+        byte[] text = message == null ? new byte[0] : message.getBytes(StandardCharsets.UTF_8);
+        return ensure(out, Integer.BYTES + 1 + text.length)
+                .putInt(1 + text.length)
+                .put(status)
+                .put(text);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer out, int bytes) {
+        if (out.remaining() >= bytes) {
+            return out;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+        return grown.put(out.flip());
+    }
+}
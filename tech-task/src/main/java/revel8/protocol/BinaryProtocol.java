@@ -0,0 +1,67 @@
+package revel8.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Frame layout of the binary ingress at {@code POST /api/binary}. Every frame, in either direction,
+ * is a big-endian {@code int} length followed by that many bytes. A request frame starts with a
+ * command byte:
+ * <ul>
+ *     <li>{@link #DEPOSIT}, {@link #WITHDRAW}: account id as two {@code long}s, amount in cents</li>
+ *     <li>{@link #TRANSFER}: source id, destination id, each as two {@code long}s, amount in cents</li>
+ * </ul>
+ * A request body may hold any number of frames. The response holds one frame per request frame,
+ * in the same order, each starting with a status byte. On {@link #OK} a deposit or withdrawal is
+ * followed by the new balance in cents, and a transfer by the transfer id as two {@code long}s,
+ * the sender's balance and the recipient's balance, or {@code -1} if it was not read. Any other
+ * status is followed by the error message in UTF-8. {@link #FAILED} means the command broke off
+ * for another reason, such as an overloaded engine or a journal error, and may or may not have
+ * been applied.
+ */
+public final class BinaryProtocol {
+    public static final byte DEPOSIT = 1;
+    public static final byte WITHDRAW = 2;
+    public static final byte TRANSFER = 3;
+
+    public static final byte OK = 0;
+    public static final byte INSUFFICIENT_FUNDS = 1;
+    public static final byte ACCOUNT_NOT_FOUND = 2;
+    public static final byte INVALID_AMOUNT = 3;
+    public static final byte INVALID_TRANSFER = 4;
+    public static final byte UNKNOWN_COMMAND = 5;
+    public static final byte FAILED = 6;
+
+    public static final int ACCOUNT_COMMAND_LENGTH = 1 + 3 * Long.BYTES;
+    public static final int TRANSFER_COMMAND_LENGTH = 1 + 5 * Long.BYTES;
+    public static final long UNKNOWN_BALANCE = -1;
+
+    private BinaryProtocol() {
+    }
+
+    public static void putDeposit(ByteBuffer buffer, UUID accountId, long cents) {
+        putAccountCommand(buffer, DEPOSIT, accountId, cents);
+    }
+
+    public static void putWithdraw(ByteBuffer buffer, UUID accountId, long cents) {
+        putAccountCommand(buffer, WITHDRAW, accountId, cents);
+    }
+
+    public static void putTransfer(ByteBuffer buffer, UUID fromAccountId, UUID toAccountId, long cents) {
+        buffer.putInt(TRANSFER_COMMAND_LENGTH)
+                .put(TRANSFER)
+                .putLong(fromAccountId.getMostSignificantBits())
+                .putLong(fromAccountId.getLeastSignificantBits())
+                .putLong(toAccountId.getMostSignificantBits())
+                .putLong(toAccountId.getLeastSignificantBits())
+                .putLong(cents);
+    }
+
+    private static void putAccountCommand(ByteBuffer buffer, byte command, UUID accountId, long cents) {
+        buffer.putInt(ACCOUNT_COMMAND_LENGTH)
+                .put(command)
+                .putLong(accountId.getMostSignificantBits())
+                .putLong(accountId.getLeastSignificantBits())
+                .putLong(cents);
+    }
+}
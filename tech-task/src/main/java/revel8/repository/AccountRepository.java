@@ -0,0 +1,62 @@
+package revel8.repository;
+
+import revel8.model.Account;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AccountRepository {
+
+    default Account create(String name, String email, Integer age, String city, long initialCents) {
+        Account account = createLocked(newId(), name, email, age, city, initialCents);
+        account.getLock().unlock();
+        return account;
+    }
+
+    /**
+     * Returns an id that no stored account uses, for {@link #createLocked}.
+     */
+    UUID newId();
+
+    /**
+     * Stores a new account under {@code id} whose lock is already held by the calling thread when
+     * any other thread can find it, so that the caller can finish setting it up before anything
+     * else mutates it. The caller must unlock it. Fails if {@code id} is already taken.
+     */
+    Account createLocked(UUID id, String name, String email, Integer age, String city, long initialCents);
+
+    /**
+     * Stores {@code account} under its id, replacing any account already stored there. Used when
+     * rebuilding state from snapshots and the journal.
+     */
+    void save(Account account);
+
+    Optional<Account> findById(UUID id);
+
+    Collection<Account> findAll();
+
+    /**
+     * Returns up to {@code limit} accounts that follow {@code afterId}, or the first accounts if it
+     * is {@code null}. The order is fixed per repository and accounts never move within it, so
+     * passing the last id of each page as the next {@code afterId} visits every account once.
+     * Returns an empty list if {@code afterId} is not a stored account.
+     */
+    List<Account> findPage(UUID afterId, int limit);
+
+    /**
+     * Returns the accounts registered with {@code email}, compared ignoring case.
+     */
+    List<Account> findByEmail(String email);
+
+    /**
+     * Like {@link #findPage}, restricted to accounts in {@code city}.
+     */
+    List<Account> findPageByCity(String city, UUID afterId, int limit);
+
+    /**
+     * Like {@link #findPage}, restricted to accounts aged {@code minAge} to {@code maxAge} inclusive.
+     */
+    List<Account> findPageByAge(int minAge, int maxAge, UUID afterId, int limit);
+}
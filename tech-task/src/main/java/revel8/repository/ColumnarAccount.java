@@ -0,0 +1,97 @@
+package revel8.repository;
+
+import revel8.datastructure.TransferRecordBuffer;
+import revel8.model.Account;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * View over one slot of a {@link ColumnarAccountRepository}. Reads and writes go straight to the
+ * columns, so views of the same account are interchangeable and cheap to throw away.
+ */
+final class ColumnarAccount extends Account {
+    private final ColumnarAccountRepository store;
+    private final int slot;
+
+    ColumnarAccount(ColumnarAccountRepository store, UUID id, int slot) {
+        super(id);
+        this.store = store;
+        this.slot = slot;
+    }
+
+    @Override
+    public String getName() {
+        return store.name(slot);
+    }
+
+    @Override
+    public String getEmail() {
+        return store.email(slot);
+    }
+
+    @Override
+    public Integer getAge() {
+        return store.age(slot);
+    }
+
+    @Override
+    public String getCity() {
+        return store.city(slot);
+    }
+
+    @Override
+    public long getBalanceInCents() {
+        return store.balance(slot);
+    }
+
+    @Override
+    public void setBalanceInCents(long balanceInCents) {
+        store.setBalance(slot, balanceInCents);
+    }
+
+    @Override
+    public long tryAddLockFree(long deltaInCents) {
+        return store.tryAddLockFree(slot, deltaInCents);
+    }
+
+    @Override
+    public long holdBalance() {
+        return store.holdBalance(slot);
+    }
+
+    @Override
+    public void releaseBalance(long balanceInCents) {
+        store.releaseBalance(slot, balanceInCents);
+    }
+
+    @Override
+    public long getJournalSequence() {
+        return store.journalSequence(slot);
+    }
+
+    @Override
+    public void setJournalSequence(long journalSequence) {
+        store.setJournalSequence(slot, journalSequence);
+    }
+
+    @Override
+    public int getAuditEpoch() {
+        return store.auditEpoch(slot);
+    }
+
+    @Override
+    public void setAuditEpoch(int auditEpoch) {
+        store.setAuditEpoch(slot, auditEpoch);
+    }
+
+    @Override
+    public ReentrantLock getLock() {
+        return store.lock(getId());
+    }
+
+    @Override
+    public TransferRecordBuffer getOutgoing() {
+        return store.outgoing(slot);
+    }
+}
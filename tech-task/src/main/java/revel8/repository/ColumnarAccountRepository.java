@@ -0,0 +1,535 @@
+package revel8.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import revel8.datastructure.PackedRingBuffer;
+import revel8.datastructure.TimedLock;
+import revel8.datastructure.TransferRecordBuffer;
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Account store that keeps every account in primitive columns instead of one object graph per
+ * account. Accounts occupy consecutive slots in fixed-size pages of {@code long[]}/{@code int[]}
+ * columns, names and emails are packed as UTF-8 into shared byte chunks, cities are interned to
+ * an int id, and transfer history is only allocated for accounts that have sent a transfer. The
+ * GC therefore sees a handful of large primitive arrays per 64K accounts rather than a dozen
+ * objects per account.
+ * <p>
+ * {@link #findById} returns a short-lived {@link Account} view over the slot. Account locks are
+ * striped by the top bits of the id, so ascending-id lock order (used by transfers and batches)
+ * is also ascending stripe order and cannot deadlock; two accounts on one stripe simply share a
+ * reentrant lock.
+ * <p>
+ * Creating accounts takes a write lock on the whole store just to store and index the new slot;
+ * lookups run as optimistic reads. {@link #createLocked} takes the new account's stripe before
+ * that write lock, so waiting for a stripe held by a slow transfer never stalls lookups.
+ */
+public class ColumnarAccountRepository implements AccountRepository, MeterBinder {
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int NO_AGE = Integer.MIN_VALUE;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final StampedLock structureLock = new StampedLock();
+    private final UuidIndex index = new UuidIndex(PAGE_SIZE);
+    private final Map<String, Integer> cityIds = new HashMap<>();
+    private volatile String[] cities = new String[64];
+    private volatile Page[] pages = new Page[16];
+    private volatile byte[][] chunks = new byte[16][];
+    private int chunkCount;
+    private int chunkPosition = CHUNK_SIZE;
+    private volatile int size;
+
+    private final ReentrantLock[] lockStripes;
+    private final int stripeBits;
+
+    public ColumnarAccountRepository(int lockStripes) {
+        if (lockStripes <= 0) {
+            throw new IllegalArgumentException("Lock stripes must be positive");
+        }
+        this.stripeBits = 32 - Integer.numberOfLeadingZeros(lockStripes - 1);
+        this.lockStripes = new ReentrantLock[1 << stripeBits];
+        for (int i = 0; i < this.lockStripes.length; i++) {
+            this.lockStripes[i] = new TimedLock();
+        }
+    }
+
+    @Override
+    public UUID newId() {
+        UUID id;
+        do {
+            id = UUID.randomUUID();
+        } while (slotOf(id) >= 0);
+        return id;
+    }
+
+    @Override
+    public Account createLocked(UUID id, String name, String email, Integer age, String city, long initialCents) {
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        long stamp = structureLock.writeLock();
+        try {
+            if (index.get(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0) {
+                throw new IllegalStateException("Account id " + id + " is already taken");
+            }
+            int slot = size;
+            store(slot, id, name, email, age, city, initialCents, 0);
+            index.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), slot);
+            size = slot + 1;
+            return new ColumnarAccount(this, id, slot);
+        } catch (RuntimeException e) {
+            lock.unlock();
+            throw e;
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void save(Account account) {
+        UUID id = account.getId();
+        long stamp = structureLock.writeLock();
+        try {
+            int slot = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot < 0) {
+                slot = size;
+                index.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), slot);
+                size = slot + 1;
+            }
+            store(slot, id, account.getName(), account.getEmail(), account.getAge(), account.getCity(),
+                    account.getBalanceInCents(), account.getJournalSequence());
+
+            TransferRecordBuffer history = new PackedRingBuffer(Account.STORED_RECORDS_LIMIT);
+            List<TransferRecord> newestFirst = account.getOutgoing().getRecentNewestFirst();
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                history.append(newestFirst.get(i));
+            }
+            page(slot).outgoing.set(slot & PAGE_MASK, newestFirst.isEmpty() ? null : history);
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Optional<Account> findById(UUID id) {
+        int slot = slotOf(id);
+        return slot < 0 ? Optional.empty() : Optional.of(new ColumnarAccount(this, id, slot));
+    }
+
+    /**
+     * Pages through accounts in slot order, which is the order they were first stored in, so new
+     * accounts only ever appear after the last page.
+     */
+    @Override
+    public List<Account> findPage(UUID afterId, int limit) {
+        int from = 0;
+        if (afterId != null) {
+            int afterSlot = slotOf(afterId);
+            if (afterSlot < 0) {
+                return List.of();
+            }
+            from = afterSlot + 1;
+        }
+        int to = (int) Math.min(size, (long) from + limit);
+        List<Account> page = new ArrayList<>(Math.max(0, to - from));
+        for (int slot = from; slot < to; slot++) {
+            page.add(accountAt(slot));
+        }
+        return page;
+    }
+
+    /**
+     * The columnar store keeps no secondary indexes, which would cost more memory than the
+     * columns they point into. The query methods scan the relevant column instead, comparing
+     * primitives or raw bytes and only building views for matches.
+     */
+    @Override
+    public List<Account> findByEmail(String email) {
+        byte[] wanted = InMemoryAccountRepository.emailKey(email).getBytes(StandardCharsets.UTF_8);
+        List<Account> matches = new ArrayList<>(1);
+        int count = size;
+        for (int slot = 0; slot < count; slot++) {
+            if (emailMatches(slot, wanted)) {
+                matches.add(accountAt(slot));
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public List<Account> findPageByCity(String city, UUID afterId, int limit) {
+        int cityId;
+        long stamp = structureLock.readLock();
+        try {
+            cityId = cityIds.getOrDefault(city, -1);
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+        if (cityId < 0) {
+            return List.of();
+        }
+        return scanPage(afterId, limit, (page, offset) -> page.city[offset] == cityId);
+    }
+
+    @Override
+    public List<Account> findPageByAge(int minAge, int maxAge, UUID afterId, int limit) {
+        return scanPage(afterId, limit, (page, offset) -> page.age[offset] >= minAge && page.age[offset] <= maxAge);
+    }
+
+    @Override
+    public Collection<Account> findAll() {
+        int count = size;
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Account> iterator() {
+                return new Iterator<>() {
+                    private int slot;
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < count;
+                    }
+
+                    @Override
+                    public Account next() {
+                        if (slot >= count) {
+                            throw new NoSuchElementException();
+                        }
+                        return accountAt(slot++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.accounts", this, repository -> repository.size)
+                .description("Number of accounts")
+                .register(registry);
+    }
+
+    private List<Account> scanPage(UUID afterId, int limit, SlotFilter filter) {
+        int from = 0;
+        if (afterId != null) {
+            int afterSlot = slotOf(afterId);
+            if (afterSlot < 0) {
+                return List.of();
+            }
+            from = afterSlot + 1;
+        }
+        List<Account> matches = new ArrayList<>(Math.min(limit, 1024));
+        int count = size;
+        for (int slot = from; slot < count && matches.size() < limit; slot++) {
+            if (filter.matches(page(slot), slot & PAGE_MASK)) {
+                matches.add(accountAt(slot));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Compares the stored email key with {@code wanted}, an email already lower-cased like
+     * {@link InMemoryAccountRepository#emailKey}, byte by byte, so that no string is decoded for accounts that do not match.
+     * Without a stored key the email is all ASCII and is lower-cased while comparing.
+     */
+    private boolean emailMatches(int slot, byte[] wanted) {
+        long reference = page(slot).profile[slot & PAGE_MASK];
+        byte[] chunk = chunks[(int) (reference >>> 32)];
+        int position = (int) reference;
+        position += Integer.BYTES + Math.max(readInt(chunk, position), 0);
+        int emailLength = readInt(chunk, position);
+        int keyPosition = position + Integer.BYTES + Math.max(emailLength, 0);
+        boolean folded = readInt(chunk, keyPosition) < 0;
+        if (!folded) {
+            position = keyPosition;
+        }
+        if (readInt(chunk, position) != wanted.length) {
+            return false;
+        }
+        position += Integer.BYTES;
+        for (int i = 0; i < wanted.length; i++) {
+            byte stored = chunk[position + i];
+            if ((folded ? toLowerAscii(stored) : stored) != wanted[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private ColumnarAccount accountAt(int slot) {
+        Page page = page(slot);
+        int offset = slot & PAGE_MASK;
+        return new ColumnarAccount(this, new UUID(page.idMsb[offset], page.idLsb[offset]), slot);
+    }
+
+    private int slotOf(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long stamp = structureLock.tryOptimisticRead();
+        int slot = index.get(msb, lsb);
+        if (!structureLock.validate(stamp)) {
+            stamp = structureLock.readLock();
+            try {
+                slot = index.get(msb, lsb);
+            } finally {
+                structureLock.unlockRead(stamp);
+            }
+        }
+        return slot;
+    }
+
+    private void store(int slot, UUID id, String name, String email, Integer age, String city,
+                       long balanceInCents, long journalSequence) {
+        Page page = pageForWrite(slot);
+        int offset = slot & PAGE_MASK;
+        page.idMsb[offset] = id.getMostSignificantBits();
+        page.idLsb[offset] = id.getLeastSignificantBits();
+        page.balance[offset] = balanceInCents;
+        page.journalSequence[offset] = journalSequence;
+        page.age[offset] = age == null ? NO_AGE : age;
+        page.city[offset] = internCity(city);
+        page.profile[offset] = appendProfile(name, email);
+    }
+
+    private Page page(int slot) {
+        return pages[slot >>> PAGE_SHIFT];
+    }
+
+    private Page pageForWrite(int slot) {
+        int pageIndex = slot >>> PAGE_SHIFT;
+        Page[] current = pages;
+        if (pageIndex >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[pageIndex] == null) {
+            current[pageIndex] = new Page();
+        }
+        pages = current;
+        return current[pageIndex];
+    }
+
+    private int internCity(String city) {
+        if (city == null) {
+            return -1;
+        }
+        Integer existing = cityIds.get(city);
+        if (existing != null) {
+            return existing;
+        }
+        int id = cityIds.size();
+        String[] current = cities;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = city;
+        cities = current;
+        cityIds.put(city, id);
+        return id;
+    }
+
+    /**
+     * Packs name, email and email key as {@code [nameLength:int][name][emailLength:int][email]
+     * [keyLength:int][key]} into the current chunk and returns {@code chunk << 32 | offset}. A
+     * length of -1 encodes {@code null}; the key is only stored for emails that are not all ASCII,
+     * since the others are lower-cased while comparing.
+     */
+    private long appendProfile(String name, String email) {
+        byte[] nameBytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+        byte[] emailBytes = email == null ? null : email.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = emailBytes == null || isAscii(emailBytes) ? null : InMemoryAccountRepository.emailKey(email).getBytes(StandardCharsets.UTF_8);
+        int length = 3 * Integer.BYTES + (nameBytes == null ? 0 : nameBytes.length)
+                + (emailBytes == null ? 0 : emailBytes.length) + (keyBytes == null ? 0 : keyBytes.length);
+
+        byte[][] current = chunks;
+        if (chunkPosition + length > CHUNK_SIZE || chunkCount == 0) {
+            if (chunkCount == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[chunkCount++] = new byte[Math.max(CHUNK_SIZE, length)];
+            chunkPosition = 0;
+            chunks = current;
+        }
+        byte[] chunk = current[chunkCount - 1];
+        long reference = (long) (chunkCount - 1) << 32 | chunkPosition;
+        chunkPosition = putBytes(chunk, putBytes(chunk, putBytes(chunk, chunkPosition, nameBytes), emailBytes), keyBytes);
+        return reference;
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int putBytes(byte[] chunk, int position, byte[] bytes) {
+        int length = bytes == null ? -1 : bytes.length;
+        chunk[position] = (byte) (length >>> 24);
+        chunk[position + 1] = (byte) (length >>> 16);
+        chunk[position + 2] = (byte) (length >>> 8);
+        chunk[position + 3] = (byte) length;
+        if (bytes != null) {
+            System.arraycopy(bytes, 0, chunk, position + Integer.BYTES, bytes.length);
+        }
+        return position + Integer.BYTES + Math.max(length, 0);
+    }
+
+    private String profileString(int slot, boolean email) {
+        long reference = page(slot).profile[slot & PAGE_MASK];
+        byte[] chunk = chunks[(int) (reference >>> 32)];
+        int position = (int) reference;
+        if (email) {
+            position += Integer.BYTES + Math.max(readInt(chunk, position), 0);
+        }
+        int length = readInt(chunk, position);
+        return length < 0 ? null : new String(chunk, position + Integer.BYTES, length, StandardCharsets.UTF_8);
+    }
+
+    private static int readInt(byte[] chunk, int position) {
+        return (chunk[position] & 0xFF) << 24 | (chunk[position + 1] & 0xFF) << 16
+                | (chunk[position + 2] & 0xFF) << 8 | (chunk[position + 3] & 0xFF);
+    }
+
+    String name(int slot) {
+        return profileString(slot, false);
+    }
+
+    String email(int slot) {
+        return profileString(slot, true);
+    }
+
+    Integer age(int slot) {
+        int age = page(slot).age[slot & PAGE_MASK];
+        return age == NO_AGE ? null : age;
+    }
+
+    String city(int slot) {
+        int city = page(slot).city[slot & PAGE_MASK];
+        return city < 0 ? null : cities[city];
+    }
+
+    long balance(int slot) {
+        return page(slot).balance[slot & PAGE_MASK] & ~Account.HELD_BIT;
+    }
+
+    long tryAddLockFree(int slot, long deltaInCents) {
+        long[] balance = page(slot).balance;
+        int offset = slot & PAGE_MASK;
+        long current = (long) LONGS.getVolatile(balance, offset);
+        while (true) {
+            if (current < 0) {
+                return Account.BALANCE_HELD;
+            }
+            long updated = current + deltaInCents;
+            if (updated < 0) {
+                return Account.INSUFFICIENT_FUNDS;
+            }
+            long witness = (long) LONGS.compareAndExchange(balance, offset, current, updated);
+            if (witness == current) {
+                return updated;
+            }
+            current = witness;
+        }
+    }
+
+    long holdBalance(int slot) {
+        return (long) LONGS.getAndBitwiseOr(page(slot).balance, slot & PAGE_MASK, Account.HELD_BIT) & ~Account.HELD_BIT;
+    }
+
+    void releaseBalance(int slot, long balanceInCents) {
+        LONGS.setVolatile(page(slot).balance, slot & PAGE_MASK, balanceInCents);
+    }
+
+    void setBalance(int slot, long balanceInCents) {
+        page(slot).balance[slot & PAGE_MASK] = balanceInCents;
+    }
+
+    long journalSequence(int slot) {
+        return page(slot).journalSequence[slot & PAGE_MASK];
+    }
+
+    void setJournalSequence(int slot, long journalSequence) {
+        page(slot).journalSequence[slot & PAGE_MASK] = journalSequence;
+    }
+
+    int auditEpoch(int slot) {
+        return page(slot).auditEpoch[slot & PAGE_MASK];
+    }
+
+    void setAuditEpoch(int slot, int auditEpoch) {
+        page(slot).auditEpoch[slot & PAGE_MASK] = auditEpoch;
+    }
+
+    TransferRecordBuffer outgoing(int slot) {
+        AtomicReferenceArray<TransferRecordBuffer> outgoing = page(slot).outgoing;
+        int offset = slot & PAGE_MASK;
+        TransferRecordBuffer history = outgoing.get(offset);
+        if (history == null) {
+            outgoing.compareAndSet(offset, null, new PackedRingBuffer(Account.STORED_RECORDS_LIMIT));
+            history = outgoing.get(offset);
+        }
+        return history;
+    }
+
+    /**
+     * Maps the id's most significant bits, in signed order, onto the stripe index so that
+     * {@code a.compareTo(b) < 0} implies {@code stripe(a) <= stripe(b)}.
+     */
+    ReentrantLock lock(UUID id) {
+        if (stripeBits == 0) {
+            return lockStripes[0];
+        }
+        return lockStripes[(int) ((id.getMostSignificantBits() ^ Long.MIN_VALUE) >>> (64 - stripeBits))];
+    }
+
+    @FunctionalInterface
+    private interface SlotFilter {
+        boolean matches(Page page, int offset);
+    }
+
+    private static final class Page {
+        private final long[] idMsb = new long[PAGE_SIZE];
+        private final long[] idLsb = new long[PAGE_SIZE];
+        private final long[] balance = new long[PAGE_SIZE];
+        private final long[] journalSequence = new long[PAGE_SIZE];
+        private final long[] profile = new long[PAGE_SIZE];
+        private final int[] age = new int[PAGE_SIZE];
+        private final int[] city = new int[PAGE_SIZE];
+        private final int[] auditEpoch = new int[PAGE_SIZE];
+        private final AtomicReferenceArray<TransferRecordBuffer> outgoing = new AtomicReferenceArray<>(PAGE_SIZE);
+    }
+}
@@ -1,20 +1,76 @@
 package revel8.repository;
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
+import revel8.id.IdGenerator;
 import revel8.model.Account;
 
+/**
+ * Keeps accounts in a hash map for lookups by id, plus secondary indexes that are updated as
+ * accounts are created or saved: an id-ordered skip list for paging, a hash index on the
+ * lower-cased email, a per-city skip list and one skip list per year of age. The skip lists are
+ * ordered by id, so every query can be paged with an {@code afterId} cursor. With time-ordered
+ * ids new accounts are appended at the end of every skip list instead of at random positions.
+ */
 @Repository
-public class InMemoryAccountRepository {
+@ConditionalOnProperty(prefix = "bank.repository", name = "type", havingValue = "heap", matchIfMissing = true)
+public class InMemoryAccountRepository implements AccountRepository, MeterBinder {
+    private static final int MAX_INDEXED_AGE = 150;
+
+    // Rough per-entry sizes with compressed oops, used for the index footprint gauge
+    private static final long HASH_ENTRY_BYTES = 40;
+    private static final long SINGLE_ACCOUNT_ARRAY_BYTES = 24;
+    private static final long SKIP_LIST_ENTRY_BYTES = 36;
+
     private final ConcurrentHashMap<UUID, Account> accounts = new ConcurrentHashMap<>();
+    // Ordered by id for paging; lookups stay on the hash map
+    private final ConcurrentSkipListMap<UUID, Account> accountsById = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Account[]> accountsByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<UUID, Account>> accountsByCity = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final ConcurrentSkipListMap<UUID, Account>[] accountsByAge = new ConcurrentSkipListMap[MAX_INDEXED_AGE + 1];
+    private final LongAdder emailEntries = new LongAdder();
+    private final LongAdder cityEntries = new LongAdder();
+    private final LongAdder ageEntries = new LongAdder();
+    private final IdGenerator ids;
+
+    public InMemoryAccountRepository() {
+        this(IdGenerator.RANDOM);
+    }
+
+    @Autowired
+    public InMemoryAccountRepository(IdGenerator ids) {
+        this.ids = ids;
+        for (int age = 0; age <= MAX_INDEXED_AGE; age++) {
+            accountsByAge[age] = new ConcurrentSkipListMap<>();
+        }
+    }
 
-    public Account create(String name, String email, Integer age, String city, long initialCents) {
-        UUID id = UUID.randomUUID();
+    @Override
+    public UUID newId() {
+        return ids.next();
+    }
+
+    @Override
+    public Account createLocked(UUID id, String name, String email, Integer age, String city, long initialCents) {
         Account acc = Account.builder()
                 .id(id)
                 .name(name)
@@ -23,21 +79,185 @@ public class InMemoryAccountRepository {
                 .city(city)
                 .balanceInCents(initialCents)
                 .build();
-        
-        // extremely unlikely to happen but there is a probability
+        acc.getLock().lock();
+
         Account existing = accounts.putIfAbsent(id, acc);
         if (existing != null) {
-            return create(name, email, age, city, initialCents);
+            acc.getLock().unlock();
+            throw new IllegalStateException("Account id " + id + " is already taken");
         }
-        
+        index(acc);
+
         return acc;
     }
 
+    @Override
+    public void save(Account account) {
+        Account replaced = accounts.put(account.getId(), account);
+        if (replaced != null) {
+            unindex(replaced);
+        }
+        index(account);
+    }
+
+    @Override
     public Optional<Account> findById(UUID id) {
         return Optional.ofNullable(accounts.get(id));
     }
 
+    @Override
     public Collection<Account> findAll() {
         return accounts.values();
     }
+
+    @Override
+    public List<Account> findPage(UUID afterId, int limit) {
+        if (afterId != null && !accounts.containsKey(afterId)) {
+            return List.of();
+        }
+        return page(accountsById, afterId, limit);
+    }
+
+    @Override
+    public List<Account> findByEmail(String email) {
+        Account[] matches = accountsByEmail.get(emailKey(email));
+        return matches == null ? List.of() : List.of(matches);
+    }
+
+    @Override
+    public List<Account> findPageByCity(String city, UUID afterId, int limit) {
+        ConcurrentSkipListMap<UUID, Account> inCity = accountsByCity.get(city);
+        if (inCity == null || afterId != null && !accounts.containsKey(afterId)) {
+            return List.of();
+        }
+        return page(inCity, afterId, limit);
+    }
+
+    @Override
+    public List<Account> findPageByAge(int minAge, int maxAge, UUID afterId, int limit) {
+        int fromAge = Math.max(minAge, 0);
+        int toAge = Math.min(maxAge, MAX_INDEXED_AGE);
+        if (afterId != null) {
+            Account after = accounts.get(afterId);
+            if (after == null || after.getAge() == null) {
+                return List.of();
+            }
+            if (after.getAge() >= fromAge) {
+                fromAge = after.getAge();
+            } else {
+                afterId = null;
+            }
+        }
+
+        List<Account> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int age = fromAge; age <= toAge && page.size() < limit; age++) {
+            page.addAll(page(accountsByAge[age], age == fromAge ? afterId : null, limit - page.size()));
+        }
+        return page;
+    }
+
+    /**
+     * Publishes the number of accounts, and the number of entries in each secondary index with an
+     * estimate of the heap they take on top of the accounts themselves.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.accounts", accounts, Map::size)
+                .description("Number of accounts")
+                .register(registry);
+        bindIndex(registry, "email", emailEntries, HASH_ENTRY_BYTES + SINGLE_ACCOUNT_ARRAY_BYTES);
+        bindIndex(registry, "city", cityEntries, SKIP_LIST_ENTRY_BYTES);
+        bindIndex(registry, "age", ageEntries, SKIP_LIST_ENTRY_BYTES);
+        bindIndex(registry, "id", accounts, SKIP_LIST_ENTRY_BYTES);
+    }
+
+    private static void bindIndex(MeterRegistry registry, String index, Object entries, long bytesPerEntry) {
+        Gauge.builder("bank.repository.index.entries", entries, InMemoryAccountRepository::entryCount)
+                .tag("index", index)
+                .description("Entries in a secondary account index")
+                .register(registry);
+        Gauge.builder("bank.repository.index.bytes", entries, e -> entryCount(e) * bytesPerEntry)
+                .tag("index", index)
+                .description("Estimated heap taken by a secondary account index")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static double entryCount(Object entries) {
+        return entries instanceof LongAdder adder ? adder.sum() : ((Map<?, ?>) entries).size();
+    }
+
+    private void index(Account account) {
+        accountsById.put(account.getId(), account);
+        if (account.getEmail() != null) {
+            accountsByEmail.merge(emailKey(account.getEmail()), new Account[]{account}, InMemoryAccountRepository::concat);
+            emailEntries.increment();
+        }
+        if (account.getCity() != null) {
+            accountsByCity.computeIfAbsent(account.getCity(), city -> new ConcurrentSkipListMap<>())
+                    .put(account.getId(), account);
+            cityEntries.increment();
+        }
+        if (isIndexedAge(account.getAge())) {
+            accountsByAge[account.getAge()].put(account.getId(), account);
+            ageEntries.increment();
+        }
+    }
+
+    /**
+     * Removes the entries of an account that {@link #save} replaced. Its replacement has the same
+     * id, so the id index entry is simply overwritten.
+     */
+    private void unindex(Account account) {
+        UUID id = account.getId();
+        if (account.getEmail() != null) {
+            accountsByEmail.computeIfPresent(emailKey(account.getEmail()), (email, matches) -> without(matches, id));
+            emailEntries.decrement();
+        }
+        if (account.getCity() != null) {
+            ConcurrentSkipListMap<UUID, Account> inCity = accountsByCity.get(account.getCity());
+            if (inCity != null && inCity.remove(id) != null) {
+                cityEntries.decrement();
+            }
+        }
+        if (isIndexedAge(account.getAge()) && accountsByAge[account.getAge()].remove(id) != null) {
+            ageEntries.decrement();
+        }
+    }
+
+    private static List<Account> page(NavigableMap<UUID, Account> index, UUID afterId, int limit) {
+        NavigableMap<UUID, Account> tail = afterId == null ? index : index.tailMap(afterId, false);
+        List<Account> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Account account : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(account);
+        }
+        return page;
+    }
+
+    private static boolean isIndexedAge(Integer age) {
+        return age != null && age >= 0 && age <= MAX_INDEXED_AGE;
+    }
+
+    /**
+     * The form emails are compared in, by both stores.
+     */
+    static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static Account[] concat(Account[] existing, Account[] added) {
+        Account[] merged = Arrays.copyOf(existing, existing.length + added.length);
+        System.arraycopy(added, 0, merged, existing.length, added.length);
+        return merged;
+    }
+
+    private static Account[] without(Account[] matches, UUID id) {
+        Account[] remaining = Arrays.stream(matches)
+                .filter(account -> !account.getId().equals(id))
+                .toArray(Account[]::new);
+        return remaining.length == 0 ? null : remaining;
+    }
 }
@@ -0,0 +1,101 @@
+package revel8.repository;
+
+/**
+ * Open-addressing hash map from a UUID, given as its two longs, to a non-negative int. Entries are
+ * stored inline as {@code [msb, lsb, value + 1]} triples in a single {@code long[]} so that a
+ * lookup touches one array and the map allocates nothing per entry; a zero third slot marks an
+ * empty bucket. Collisions are resolved by linear probing.
+ * <p>
+ * Not thread-safe. Lookups never write and only read the table through one local reference, so
+ * they are safe to run optimistically as long as the caller validates the result afterwards.
+ */
+final class UuidIndex {
+    private static final int ENTRY_LONGS = 3;
+
+    private long[] table;
+    private int mask;
+    private int size;
+
+    UuidIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value stored for the UUID, or {@code -1} if there is none.
+     */
+    int get(long msb, long lsb) {
+        long[] entries = table;
+        int buckets = entries.length / ENTRY_LONGS;
+        int bucket = hash(msb, lsb) & (buckets - 1);
+        for (int probes = 0; probes < buckets; probes++) {
+            int base = bucket * ENTRY_LONGS;
+            long value = entries[base + 2];
+            if (value == 0) {
+                return -1;
+            }
+            if (entries[base] == msb && entries[base + 1] == lsb) {
+                return (int) (value - 1);
+            }
+            bucket = (bucket + 1) & (buckets - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Maps the UUID to {@code value} and returns the value it replaced, or {@code -1}.
+     */
+    int put(long msb, long lsb, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative");
+        }
+        if ((size + 1) * 2 > mask + 1) {
+            resize();
+        }
+        int bucket = hash(msb, lsb) & mask;
+        while (true) {
+            int base = bucket * ENTRY_LONGS;
+            long existing = table[base + 2];
+            if (existing == 0) {
+                table[base] = msb;
+                table[base + 1] = lsb;
+                table[base + 2] = value + 1L;
+                size++;
+                return -1;
+            }
+            if (table[base] == msb && table[base + 1] == lsb) {
+                table[base + 2] = value + 1L;
+                return (int) (existing - 1);
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        long[] old = table;
+        allocate((mask + 1) * 2);
+        size = 0;
+        for (int base = 0; base < old.length; base += ENTRY_LONGS) {
+            if (old[base + 2] != 0) {
+                put(old[base], old[base + 1], (int) (old[base + 2] - 1));
+            }
+        }
+    }
+
+    private void allocate(int buckets) {
+        table = new long[buckets * ENTRY_LONGS];
+        mask = buckets - 1;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,65 @@
+package revel8.schedule;
+
+import revel8.dto.ScheduledTransferResponse;
+import revel8.dto.TransferRequest;
+import revel8.money.MoneyCodec;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One standing order. Account ids are kept as their bits rather than as {@link UUID}s to keep
+ * millions of pending orders small. Run counts and the last error are written only by the
+ * thread running the order.
+ */
+final class ScheduledTransfer extends TimerEntry {
+    final UUID id;
+    private final long fromMostSignificantBits;
+    private final long fromLeastSignificantBits;
+    private final long toMostSignificantBits;
+    private final long toLeastSignificantBits;
+    final long cents;
+    // Zero for a one-off transfer
+    final long intervalMillis;
+    volatile long runAtMillis;
+    volatile boolean cancelled;
+    // Set once a one-off order has run; it then only waits on the wheel to be forgotten
+    volatile boolean finished;
+    volatile long completedRuns;
+    volatile long failedRuns;
+    volatile String lastError;
+
+    ScheduledTransfer(UUID id, UUID from, UUID to, long cents, long runAtMillis, long intervalMillis) {
+        this.id = id;
+        this.fromMostSignificantBits = from.getMostSignificantBits();
+        this.fromLeastSignificantBits = from.getLeastSignificantBits();
+        this.toMostSignificantBits = to.getMostSignificantBits();
+        this.toLeastSignificantBits = to.getLeastSignificantBits();
+        this.cents = cents;
+        this.runAtMillis = runAtMillis;
+        this.intervalMillis = intervalMillis;
+    }
+
+    TransferRequest toRequest() {
+        return new TransferRequest(
+                new UUID(fromMostSignificantBits, fromLeastSignificantBits),
+                new UUID(toMostSignificantBits, toLeastSignificantBits),
+                MoneyCodec.format(cents)
+        );
+    }
+
+    ScheduledTransferResponse toResponse() {
+        return new ScheduledTransferResponse(
+                id,
+                new UUID(fromMostSignificantBits, fromLeastSignificantBits),
+                new UUID(toMostSignificantBits, toLeastSignificantBits),
+                MoneyCodec.format(cents),
+                Instant.ofEpochMilli(runAtMillis),
+                intervalMillis == 0 ? null : Duration.ofMillis(intervalMillis),
+                completedRuns,
+                failedRuns,
+                lastError
+        );
+    }
+}
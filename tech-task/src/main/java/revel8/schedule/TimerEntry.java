@@ -0,0 +1,20 @@
+package revel8.schedule;
+
+/**
+ * Something held in a {@link TimingWheel}. The links live in the entry itself, so the wheel
+ * allocates nothing per entry and can unlink one without searching its bucket.
+ */
+public abstract class TimerEntry {
+    long deadlineTick;
+    int bucket = -1;
+    TimerEntry previous;
+    TimerEntry next;
+
+    public long getDeadlineTick() {
+        return deadlineTick;
+    }
+
+    public boolean isScheduled() {
+        return bucket >= 0;
+    }
+}
@@ -0,0 +1,124 @@
+package revel8.schedule;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel over integer ticks. Each level has 64 buckets; level {@code n}
+ * holds the entries whose deadline first differs from the current tick in bits
+ * {@code 6n..6n+5}, in the bucket for those bits. Scheduling and cancelling are O(1). Advancing
+ * onto a tick whose low {@code 6n} bits are zero moves the matching level-{@code n} bucket down
+ * to the levels below, so each entry is moved at most once per level before it expires.
+ * Eleven levels cover every {@code long} tick, so nothing ever overflows.
+ * <p>
+ * Not thread-safe; callers serialize access.
+ */
+public class TimingWheel {
+    private static final int BITS_PER_LEVEL = 6;
+    private static final int SLOTS = 1 << BITS_PER_LEVEL;
+    private static final int LEVELS = (Long.SIZE + BITS_PER_LEVEL - 1) / BITS_PER_LEVEL;
+
+    private final TimerEntry[] buckets = new TimerEntry[LEVELS * SLOTS];
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+    }
+
+    /**
+     * Schedules the entry, which must not be scheduled already. A deadline that has already
+     * passed expires on the next tick.
+     */
+    public void schedule(TimerEntry entry, long deadlineTick) {
+        if (entry.isScheduled()) {
+            throw new IllegalStateException("Entry is already scheduled");
+        }
+        entry.deadlineTick = deadlineTick;
+        insert(entry, Math.max(deadlineTick, currentTick + 1));
+        size++;
+    }
+
+    /**
+     * Returns false if the entry was not scheduled, for instance because it already expired.
+     */
+    public boolean cancel(TimerEntry entry) {
+        if (!entry.isScheduled()) {
+            return false;
+        }
+        unlink(entry);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to {@code tick}, handing every entry whose deadline is reached to
+     * {@code expired} tick by tick.
+     */
+    public void advance(long tick, Consumer<? super TimerEntry> expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (level * BITS_PER_LEVEL)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            TimerEntry entry;
+            int bucket = (int) (currentTick & (SLOTS - 1));
+            while ((entry = buckets[bucket]) != null) {
+                unlink(entry);
+                size--;
+                expired.accept(entry);
+            }
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        int bucket = level * SLOTS + (int) ((currentTick >>> (level * BITS_PER_LEVEL)) & (SLOTS - 1));
+        TimerEntry entry = buckets[bucket];
+        buckets[bucket] = null;
+        while (entry != null) {
+            TimerEntry next = entry.next;
+            entry.previous = null;
+            entry.next = null;
+            entry.bucket = -1;
+            insert(entry, Math.max(entry.deadlineTick, currentTick));
+            entry = next;
+        }
+    }
+
+    private void insert(TimerEntry entry, long tick) {
+        long differing = tick ^ currentTick;
+        int level = differing == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(differing)) / BITS_PER_LEVEL;
+        int bucket = level * SLOTS + (int) ((tick >>> (level * BITS_PER_LEVEL)) & (SLOTS - 1));
+        TimerEntry head = buckets[bucket];
+        entry.next = head;
+        entry.previous = null;
+        if (head != null) {
+            head.previous = entry;
+        }
+        buckets[bucket] = entry;
+        entry.bucket = bucket;
+    }
+
+    private void unlink(TimerEntry entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            buckets[entry.bucket] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+        entry.bucket = -1;
+    }
+}
@@ -0,0 +1,286 @@
+package revel8.schedule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import revel8.dto.ScheduledTransferRequest;
+import revel8.dto.ScheduledTransferResponse;
+import revel8.exception.InvalidAmountException;
+import revel8.exception.InvalidTransferException;
+import revel8.exception.ScheduleNotFoundException;
+import revel8.id.IdGenerator;
+import revel8.money.MoneyCodec;
+import revel8.service.AccountService;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs one-off and recurring transfers through {@link AccountService#transfer} when they fall
+ * due. Pending orders sit in a {@link TimingWheel} with ticks of {@code tick}, so scheduling and
+ * cancelling cost the same however many orders are pending. A ticker thread wakes once per tick,
+ * takes every order that has fallen due and hands them to the executor threads in batches of
+ * {@code batchSize}. A recurring order is put back on the wheel after each run, whether it
+ * succeeded or not, for {@code repeatEvery} after its previous due time, so a late run does not
+ * shift the ones after it. A one-off order that has run stays readable, with its result, for
+ * {@code retention}; it is put back on the wheel for that long and dropped when it falls due.
+ * <p>
+ * Orders are held in memory only and are gone after a restart.
+ * <p>
+ * {@code bank.schedule.pending} is the number of orders still to run, {@code bank.schedule.lateness}
+ * how long after its due time each run started, {@code bank.schedule.batch.size} the orders
+ * handed over per batch and {@code bank.schedule.runs} the runs, tagged by result.
+ */
+@Slf4j
+public class TransferScheduler implements Closeable {
+    private final AccountService accountService;
+    private final IdGenerator ids;
+    private final long tickMillis;
+    private final int batchSize;
+    private final long retentionMillis;
+    private final LongSupplier clock;
+    private final Executor executor;
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    // Guarded by wheelLock
+    private final TimingWheel wheel;
+    private final Map<UUID, ScheduledTransfer> orders = new ConcurrentHashMap<>();
+    private final Map<UUID, ScheduledTransfer> finished = new ConcurrentHashMap<>();
+    private final Thread ticker;
+    private volatile boolean running = true;
+
+    private final Timer lateness;
+    private final DistributionSummary batchSizes;
+    private final Counter completed;
+    private final Counter failed;
+
+    public TransferScheduler(AccountService accountService, IdGenerator ids, Duration tick, int batchSize, int threads,
+                             Duration retention, MeterRegistry meterRegistry) {
+        this(accountService, ids, tick, batchSize, retention, System::currentTimeMillis,
+                Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("scheduled-transfers-", 0).daemon().factory()),
+                true, meterRegistry);
+    }
+
+    TransferScheduler(AccountService accountService, IdGenerator ids, Duration tick, int batchSize, Duration retention,
+                      LongSupplier clock, Executor executor, boolean startTicker, MeterRegistry meterRegistry) {
+        if (tick.toMillis() <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Tick and batch size must be positive");
+        }
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("Retention cannot be negative");
+        }
+        this.accountService = accountService;
+        this.ids = ids;
+        this.tickMillis = tick.toMillis();
+        this.batchSize = batchSize;
+        this.retentionMillis = retention.toMillis();
+        this.clock = clock;
+        this.executor = executor;
+        this.wheel = new TimingWheel(clock.getAsLong() / tickMillis);
+
+        this.lateness = Timer.builder("bank.schedule.lateness")
+                .description("Time from a scheduled transfer falling due to its run starting")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("bank.schedule.batch.size")
+                .description("Due scheduled transfers handed to the executor per batch")
+                .register(meterRegistry);
+        this.completed = runs("completed", meterRegistry);
+        this.failed = runs("failed", meterRegistry);
+        Gauge.builder("bank.schedule.pending", orders, Map::size)
+                .description("Scheduled and recurring transfers still to run")
+                .register(meterRegistry);
+
+        this.ticker = Thread.ofPlatform().name("transfer-scheduler").daemon().unstarted(this::tickLoop);
+        if (startTicker) {
+            ticker.start();
+        }
+    }
+
+    public ScheduledTransferResponse schedule(ScheduledTransferRequest request) {
+        long cents = MoneyCodec.parseCents(request.amount());
+        if (cents <= 0) {
+            throw new InvalidAmountException("Transfer amount must be positive");
+        }
+        if (request.fromAccountId().equals(request.toAccountId())) {
+            throw new InvalidTransferException("Cannot transfer to the same account");
+        }
+        long intervalMillis = request.repeatEvery() == null ? 0 : request.repeatEvery().toMillis();
+        if (request.repeatEvery() != null && intervalMillis < tickMillis) {
+            throw new InvalidTransferException("Transfers cannot repeat more often than every " + Duration.ofMillis(tickMillis));
+        }
+        ScheduledTransfer order = new ScheduledTransfer(ids.next(), request.fromAccountId(), request.toAccountId(), cents,
+                request.runAt().toEpochMilli(), intervalMillis);
+        orders.put(order.id, order);
+        wheelLock.lock();
+        try {
+            wheel.schedule(order, deadlineTick(order.runAtMillis));
+        } finally {
+            wheelLock.unlock();
+        }
+        return order.toResponse();
+    }
+
+    public ScheduledTransferResponse get(UUID scheduleId) {
+        return order(scheduleId).toResponse();
+    }
+
+    /**
+     * Removes the order, or the result of a one-off order that has run. A run already under way
+     * finishes, but the order is not run again.
+     */
+    public void cancel(UUID scheduleId) {
+        ScheduledTransfer order = order(scheduleId);
+        wheelLock.lock();
+        try {
+            order.cancelled = true;
+            wheel.cancel(order);
+        } finally {
+            wheelLock.unlock();
+        }
+        orders.remove(scheduleId);
+        finished.remove(scheduleId);
+    }
+
+    public int pending() {
+        return orders.size();
+    }
+
+    /**
+     * Advances the wheel to the current time and hands every due order to the executor; returns
+     * how many fell due.
+     */
+    int runDue() {
+        List<ScheduledTransfer> due = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            wheel.advance(clock.getAsLong() / tickMillis, entry -> {
+                ScheduledTransfer order = (ScheduledTransfer) entry;
+                if (order.finished) {
+                    finished.remove(order.id);
+                } else {
+                    due.add(order);
+                }
+            });
+        } finally {
+            wheelLock.unlock();
+        }
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<ScheduledTransfer> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            batchSizes.record(batch.size());
+            executor.execute(() -> run(batch));
+        }
+        return due.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+        try {
+            if (ticker.isAlive()) {
+                ticker.join();
+            }
+            if (executor instanceof ExecutorService service) {
+                service.shutdown();
+                service.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void tickLoop() {
+        long nextTick = (clock.getAsLong() / tickMillis + 1) * tickMillis;
+        while (running) {
+            long wait = nextTick - clock.getAsLong();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(wait));
+                continue;
+            }
+            try {
+                runDue();
+            } catch (RuntimeException e) {
+                log.error("Scheduled transfer tick failed", e);
+            }
+            nextTick = Math.max(nextTick + tickMillis, clock.getAsLong() / tickMillis * tickMillis);
+        }
+    }
+
+    private void run(List<ScheduledTransfer> batch) {
+        for (ScheduledTransfer order : batch) {
+            if (order.cancelled) {
+                continue;
+            }
+            lateness.record(Math.max(clock.getAsLong() - order.runAtMillis, 0), TimeUnit.MILLISECONDS);
+            try {
+                accountService.transfer(order.toRequest());
+                order.completedRuns++;
+                order.lastError = null;
+                completed.increment();
+            } catch (RuntimeException e) {
+                order.failedRuns++;
+                order.lastError = e.getMessage();
+                failed.increment();
+            }
+            wheelLock.lock();
+            try {
+                if (order.cancelled) {
+                    continue;
+                }
+                if (order.intervalMillis == 0) {
+                    order.finished = true;
+                    finished.put(order.id, order);
+                    orders.remove(order.id);
+                    wheel.schedule(order, deadlineTick(clock.getAsLong() + retentionMillis));
+                } else {
+                    order.runAtMillis += order.intervalMillis;
+                    wheel.schedule(order, deadlineTick(order.runAtMillis));
+                }
+            } finally {
+                wheelLock.unlock();
+            }
+        }
+    }
+
+    private ScheduledTransfer order(UUID scheduleId) {
+        ScheduledTransfer order = orders.get(scheduleId);
+        if (order == null) {
+            order = finished.get(scheduleId);
+        }
+        if (order == null) {
+            throw new ScheduleNotFoundException("Scheduled transfer not found: " + scheduleId);
+        }
+        return order;
+    }
+
+    /**
+     * Rounds up, so no order runs before its due time.
+     */
+    private long deadlineTick(long millis) {
+        return Math.ceilDiv(millis, tickMillis);
+    }
+
+    private static Counter runs(String result, MeterRegistry registry) {
+        return Counter.builder("bank.schedule.runs")
+                .tag("result", result)
+                .description("Scheduled transfer runs")
+                .register(registry);
+    }
+}
@@ -1,15 +1,22 @@
 package revel8.service;
 
+import revel8.dto.AccountPageResponse;
 import revel8.dto.AmountRequest;
+import revel8.dto.BalanceAuditResponse;
 import revel8.dto.BalanceResponse;
 import revel8.dto.CreateAccountRequest;
 import revel8.dto.CreateAccountResponse;
 import revel8.dto.OutgoingTransfersResponse;
+import revel8.dto.TransferBatchRequest;
+import revel8.dto.TransferBatchResponse;
+import revel8.dto.TransferDirection;
+import revel8.dto.TransferHistoryResponse;
 import revel8.dto.TransferRequest;
 import revel8.dto.TransferResponse;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface AccountService {
 
@@ -17,6 +24,28 @@ public interface AccountService {
     BalanceResponse deposit(UUID accountId, AmountRequest request);
     BalanceResponse withdraw(UUID accountId, AmountRequest request);
     TransferResponse transfer(TransferRequest request);
+    TransferBatchResponse transferBatch(TransferBatchRequest request);
     OutgoingTransfersResponse getOutgoingTransfers(UUID accountId);
-    List<CreateAccountResponse> getAllAccounts();
+    TransferHistoryResponse getTransferHistory(UUID accountId, TransferDirection direction, Long before, int limit);
+    AccountPageResponse getAccounts(UUID afterId, int limit);
+    List<CreateAccountResponse> findAccountsByEmail(String email);
+    AccountPageResponse getAccountsByCity(String city, UUID afterId, int limit);
+    AccountPageResponse getAccountsByAge(int minAge, int maxAge, UUID afterId, int limit);
+
+    /**
+     * Passes every account to {@code consumer} one at a time without collecting them first.
+     */
+    void forEachAccount(Consumer<CreateAccountResponse> consumer);
+
+    /**
+     * Lets the account take credits on striped sub-balances instead of under its lock, for
+     * accounts that receive many concurrent transfers. Stays in effect until restart.
+     */
+    void stripeCredits(UUID accountId);
+
+    /**
+     * Totals every balance as of a single instant without pausing transfers, and checks the total
+     * against the previous audit and the deposits and withdrawals made since.
+     */
+    BalanceAuditResponse auditBalances();
 }
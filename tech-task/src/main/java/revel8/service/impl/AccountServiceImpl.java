@@ -1,46 +1,164 @@
 package revel8.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import revel8.audit.BalanceAuditor;
+import revel8.config.EngineProperties;
+import revel8.contention.HotAccountTracker;
 import revel8.dto.*;
 import revel8.exception.AccountNotFoundException;
+import revel8.exception.AuditUnavailableException;
 import revel8.exception.InsufficientFundsException;
 import revel8.exception.InvalidAmountException;
 import revel8.exception.InvalidTransferException;
+import revel8.exception.StripedCreditsUnavailableException;
+import revel8.history.HistoryEntry;
+import revel8.history.TransferHistory;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
 import revel8.model.Account;
 import revel8.model.TransferRecord;
-import revel8.repository.InMemoryAccountRepository;
+import revel8.money.MoneyCodec;
+import revel8.repository.AccountRepository;
 import revel8.service.AccountService;
+import revel8.stats.LedgerStats;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import static revel8.mapper.AccountMapper.ACCOUNT_MAPPER;
 
 @Service
-@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "bank.engine", name = "type", havingValue = "locking", matchIfMissing = true)
 public class AccountServiceImpl implements AccountService {
-    private static final String ACCOUNT_NOT_FOUND_MESSAGE = "Account not found: ";
+    static final String ACCOUNT_NOT_FOUND_MESSAGE = "Account not found: ";
+    static final String INSUFFICIENT_FUNDS_FOR_TRANSFER_MESSAGE = "Insufficient funds for transfer";
+    private static final String INSUFFICIENT_FUNDS_FOR_WITHDRAWAL_MESSAGE = "Insufficient funds for withdrawal";
     
-    private final InMemoryAccountRepository accountRepository;
+    private final AccountRepository accountRepository;
+    private final AccountJournal journal;
+    private final boolean lockFreeBalanceUpdates;
+    private final TransferHistory history;
+    private final HotAccountTracker hotAccounts;
+    private final boolean stripedCredits;
+    private final ConcurrentHashMap<UUID, LongAdder> pendingCredits = new ConcurrentHashMap<>();
+    private final IdGenerator ids;
+    private final BalanceAuditor auditor;
+    private final LedgerStats stats;
+
+    public AccountServiceImpl(AccountRepository accountRepository, AccountJournal journal) {
+        this(accountRepository, journal, false);
+    }
+
+    @Autowired
+    public AccountServiceImpl(AccountRepository accountRepository, AccountJournal journal, EngineProperties engineProperties,
+                              TransferHistory history, HotAccountTracker hotAccounts, IdGenerator ids, LedgerStats stats) {
+        this(accountRepository, journal, engineProperties.lockFreeBalanceUpdates(), history, hotAccounts,
+                engineProperties.stripedCredits(), ids, stats);
+    }
+
+    public AccountServiceImpl(AccountRepository accountRepository, AccountJournal journal, boolean lockFreeBalanceUpdates) {
+        this(accountRepository, journal, lockFreeBalanceUpdates, TransferHistory.NONE);
+    }
+
+    public AccountServiceImpl(AccountRepository accountRepository, AccountJournal journal, boolean lockFreeBalanceUpdates,
+                              TransferHistory history) {
+        this(accountRepository, journal, lockFreeBalanceUpdates, history, HotAccountTracker.DISABLED, false, IdGenerator.RANDOM);
+    }
+
+    public AccountServiceImpl(AccountRepository accountRepository, AccountJournal journal, boolean lockFreeBalanceUpdates,
+                              TransferHistory history, HotAccountTracker hotAccounts, boolean stripedCredits,
+                              IdGenerator ids) {
+        this(accountRepository, journal, lockFreeBalanceUpdates, history, hotAccounts, stripedCredits, ids,
+                LedgerStats.DISABLED);
+    }
+
+    /**
+     * With {@code lockFreeBalanceUpdates}, deposits and withdrawals update the balance with a CAS
+     * instead of taking the account lock. Lock holders mark the balances they are updating as
+     * held for the duration, and lock-free updates that find a held balance fall back to the lock,
+     * so transfers and batches still see a balance that nobody else changes while they hold it.
+     * <p>
+     * Lock-free updates bypass the journal's per-account ordering, so the mode cannot be combined
+     * with journaling.
+     * <p>
+     * Deposits, withdrawals and transfers take account locks through {@code hotAccounts}, which
+     * samples them to find the most contended accounts.
+     * <p>
+     * With {@code stripedCredits}, accounts passed to {@link #stripeCredits} receive transfers
+     * without their lock being taken: the amount is added to a {@link LongAdder}, which spreads
+     * concurrent additions over several cells. Whoever next holds the account's lock, to debit
+     * it, credit it directly or read its balance, folds the pending credits into the balance
+     * first, so withdrawals and outgoing transfers never see less than every credit completed
+     * before them. Striped credits are not journaled individually either, so this mode cannot be
+     * combined with journaling.
+     * <p>
+     * Transfer ids are drawn from {@code ids}. Every completed mutation is added to {@code stats},
+     * after the account locks are released; accounts that already exist, such as those restored
+     * from the journal, are added once here.
+     */
+    public AccountServiceImpl(AccountRepository accountRepository, AccountJournal journal, boolean lockFreeBalanceUpdates,
+                              TransferHistory history, HotAccountTracker hotAccounts, boolean stripedCredits,
+                              IdGenerator ids, LedgerStats stats) {
+        if (lockFreeBalanceUpdates && journal != AccountJournal.NO_OP) {
+            throw new IllegalStateException("Lock-free balance updates cannot be combined with the journal");
+        }
+        if (stripedCredits && journal != AccountJournal.NO_OP) {
+            throw new IllegalStateException("Striped credits cannot be combined with the journal");
+        }
+        this.accountRepository = accountRepository;
+        this.journal = journal;
+        this.lockFreeBalanceUpdates = lockFreeBalanceUpdates;
+        this.history = history;
+        this.hotAccounts = hotAccounts;
+        this.stripedCredits = stripedCredits;
+        this.ids = ids;
+        this.auditor = new BalanceAuditor(accountRepository);
+        this.stats = stats;
+        stats.addExisting(accountRepository.findAll());
+    }
 
     @Override
     public CreateAccountResponse createAccount(CreateAccountRequest request) {
-        long cents = parseAmount(request.initialDeposit());
+        long cents = MoneyCodec.parseCents(request.initialDeposit());
         if (cents < 0) {
             throw new InvalidAmountException("Initial deposit cannot be negative");
         }
         
-        Account account = accountRepository.create(request.name(), request.email(), request.age(), request.city(), cents);
+        // CREATE is journaled before the account is published, so a failed write leaves nothing
+        // behind and no other mutation can be journaled ahead of it. The account is published
+        // funded but locked, and its funding is recorded like a deposit before anyone else can
+        // read it, so that a balance audit counts the initial deposit together with its inflow
+        UUID accountId = accountRepository.newId();
+        long sequence = journal.logCreate(accountId, request.name(), request.email(), request.age(), request.city(), cents);
+        Account account = accountRepository.createLocked(accountId, request.name(), request.email(), request.age(),
+            request.city(), cents);
+        try {
+            int epoch = auditor.epoch();
+            auditor.beforeUpdate(account, epoch, 0);
+            auditor.moved(epoch, cents);
+            account.setJournalSequence(sequence);
+        } finally {
+            account.getLock().unlock();
+        }
+        journal.awaitDurable(sequence);
+        stats.created(account.getCity(), cents);
         return ACCOUNT_MAPPER.toCreateAccountResponse(account);
     }
 
     @Override
     public BalanceResponse deposit(UUID accountId, AmountRequest request) {
-        long cents = parseAmount(request.amount());
+        long cents = MoneyCodec.parseCents(request.amount());
         if (cents <= 0) {
             throw new InvalidAmountException("Deposit amount must be positive");
         }
@@ -48,19 +166,39 @@ public class AccountServiceImpl implements AccountService {
         Account acc = accountRepository.findById(accountId)
             .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_MESSAGE + accountId));
         
-        acc.getLock().lock();
+        if (lockFreeBalanceUpdates) {
+            long newBal = acc.tryAddLockFree(cents);
+            if (newBal >= 0) {
+                stats.deposited(acc.getCity(), cents);
+                return ACCOUNT_MAPPER.toBalanceResponse(ACCOUNT_MAPPER.formatAmount(newBal));
+            }
+        }
+
+        long newBal;
+        long sequence;
+        hotAccounts.lock(acc);
+        long balance = hold(acc);
         try {
-            long newBal = acc.getBalanceInCents() + cents;
-            acc.setBalanceInCents(newBal);
-            return ACCOUNT_MAPPER.toBalanceResponse(ACCOUNT_MAPPER.formatAmount(newBal));
+            int epoch = auditor.epoch();
+            auditor.beforeUpdate(acc, epoch, balance);
+            newBal = balance + cents;
+            sequence = journal.logDeposit(accountId, cents);
+            auditor.moved(epoch, cents);
+            balance = newBal;
+            acc.setJournalSequence(sequence);
         } finally {
+            release(acc, balance);
             acc.getLock().unlock();
         }
+
+        journal.awaitDurable(sequence);
+        stats.deposited(acc.getCity(), cents);
+        return ACCOUNT_MAPPER.toBalanceResponse(ACCOUNT_MAPPER.formatAmount(newBal));
     }
 
     @Override
     public BalanceResponse withdraw(UUID accountId, AmountRequest request) {
-        long cents = parseAmount(request.amount());
+        long cents = MoneyCodec.parseCents(request.amount());
         if (cents <= 0) {
             throw new InvalidAmountException("Withdrawal amount must be positive");
         }
@@ -68,75 +206,255 @@ public class AccountServiceImpl implements AccountService {
         Account acc = accountRepository.findById(accountId)
             .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_MESSAGE + accountId));
         
-        acc.getLock().lock();
+        if (lockFreeBalanceUpdates) {
+            long newBal = acc.tryAddLockFree(-cents);
+            if (newBal >= 0) {
+                stats.withdrew(acc.getCity(), cents);
+                return ACCOUNT_MAPPER.toBalanceResponse(ACCOUNT_MAPPER.formatAmount(newBal));
+            }
+            if (newBal == Account.INSUFFICIENT_FUNDS && pendingCredits(acc) == null) {
+                throw new InsufficientFundsException(INSUFFICIENT_FUNDS_FOR_WITHDRAWAL_MESSAGE);
+            }
+        }
+
+        long newBal;
+        long sequence;
+        hotAccounts.lock(acc);
+        long curr = hold(acc);
         try {
-            long curr = acc.getBalanceInCents();
             if (curr < cents) {
-                throw new InsufficientFundsException("Insufficient funds for withdrawal");
+                throw new InsufficientFundsException(INSUFFICIENT_FUNDS_FOR_WITHDRAWAL_MESSAGE);
             }
             
-            long newBal = curr - cents;
-            acc.setBalanceInCents(newBal);
-            
-            return ACCOUNT_MAPPER.toBalanceResponse(ACCOUNT_MAPPER.formatAmount(newBal));
+            int epoch = auditor.epoch();
+            auditor.beforeUpdate(acc, epoch, curr);
+            newBal = curr - cents;
+            sequence = journal.logWithdraw(accountId, cents);
+            auditor.moved(epoch, -cents);
+            curr = newBal;
+            acc.setJournalSequence(sequence);
         } finally {
+            release(acc, curr);
             acc.getLock().unlock();
         }
+
+        journal.awaitDurable(sequence);
+        stats.withdrew(acc.getCity(), cents);
+        return ACCOUNT_MAPPER.toBalanceResponse(ACCOUNT_MAPPER.formatAmount(newBal));
     }
 
     @Override
     public TransferResponse transfer(TransferRequest request) {
-        long cents = parseAmount(request.amount());
-        if (cents <= 0) {
-            throw new InvalidAmountException("Transfer amount must be positive");
-        }
-        if (request.fromAccountId().equals(request.toAccountId())) {
-            throw new InvalidTransferException("Cannot transfer to the same account");
-        }
+        PreparedTransfer prepared = PreparedTransfer.of(accountRepository, request);
+        Account a1 = prepared.from();
+        Account a2 = prepared.to();
+        long cents = prepared.cents();
 
-        Account a1 = accountRepository.findById(request.fromAccountId())
-            .orElseThrow(() -> new AccountNotFoundException("Source " + ACCOUNT_NOT_FOUND_MESSAGE.toLowerCase() + request.fromAccountId()));
-        Account a2 = accountRepository.findById(request.toAccountId())
-            .orElseThrow(() -> new AccountNotFoundException("Destination " + ACCOUNT_NOT_FOUND_MESSAGE.toLowerCase() + request.toAccountId()));
+        LongAdder recipientCredits = pendingCredits(a2);
+        if (recipientCredits != null) {
+            return transferToStriped(request, a1, a2, cents, recipientCredits);
+        }
 
         Account first = (request.fromAccountId().compareTo(request.toAccountId()) < 0) ? a1 : a2;
         Account second = (first == a1) ? a2 : a1;
 
-        first.getLock().lock();
-        second.getLock().lock();
+        TransferRecord transferRecord;
+        long recipientNewBalance;
+        long sequence;
+        hotAccounts.lock(first);
+        hotAccounts.lock(second);
+        long srcBalance = hold(a1);
+        long dstBalance = hold(a2);
         try {
-            long srcBalance = a1.getBalanceInCents();
             if (srcBalance < cents) {
-                throw new InsufficientFundsException("Insufficient funds for transfer");
+                throw new InsufficientFundsException(INSUFFICIENT_FUNDS_FOR_TRANSFER_MESSAGE);
             }
 
-            a1.setBalanceInCents(srcBalance - cents);
-            a2.setBalanceInCents(a2.getBalanceInCents() + cents);
-
-            long senderNewBalance = a1.getBalanceInCents();
-            long recipientNewBalance = a2.getBalanceInCents();
+            int epoch = auditor.epoch();
+            auditor.beforeUpdate(a1, epoch, srcBalance);
+            auditor.beforeUpdate(a2, epoch, dstBalance);
+            long senderNewBalance = srcBalance - cents;
+            recipientNewBalance = dstBalance + cents;
             
-            TransferRecord transferRecord = new TransferRecord(
-                UUID.randomUUID(),
+            transferRecord = new TransferRecord(
+                ids.next(),
                 request.toAccountId(),
                 cents,
                 Instant.now().toEpochMilli(),
                 senderNewBalance
             );
-            a1.getOutgoing().append(transferRecord);
+            sequence = journal.logTransfer(request.fromAccountId(), transferRecord);
 
-            return new TransferResponse(
-                transferRecord.transferId(),
-                transferRecord.toAccountId(),
-                ACCOUNT_MAPPER.formatAmount(cents),
-                transferRecord.timestampMillis(),
-                ACCOUNT_MAPPER.formatAmount(senderNewBalance),
-                ACCOUNT_MAPPER.formatAmount(recipientNewBalance)
-            );
+            srcBalance = senderNewBalance;
+            dstBalance = recipientNewBalance;
+            a1.setJournalSequence(sequence);
+            a2.setJournalSequence(sequence);
+            a1.getOutgoing().append(transferRecord);
+            history.record(request.fromAccountId(), transferRecord);
         } finally {
+            release(a2, dstBalance);
+            release(a1, srcBalance);
             second.getLock().unlock();
             first.getLock().unlock();
         }
+
+        journal.awaitDurable(sequence);
+        stats.transferred(a1.getCity(), a2.getCity(), cents);
+        return toTransferResponse(transferRecord, recipientNewBalance);
+    }
+
+    /**
+     * Locks only the sender and leaves the credit pending on the recipient. The response carries
+     * no recipient balance, since reading it would mean taking the recipient's lock.
+     */
+    private TransferResponse transferToStriped(TransferRequest request, Account from, Account to, long cents,
+                                               LongAdder recipientCredits) {
+        TransferRecord transferRecord;
+        long sequence;
+        hotAccounts.lock(from);
+        long srcBalance = hold(from);
+        try {
+            if (srcBalance < cents) {
+                throw new InsufficientFundsException(INSUFFICIENT_FUNDS_FOR_TRANSFER_MESSAGE);
+            }
+
+            long senderNewBalance = srcBalance - cents;
+            transferRecord = new TransferRecord(
+                ids.next(),
+                request.toAccountId(),
+                cents,
+                Instant.now().toEpochMilli(),
+                senderNewBalance
+            );
+            sequence = journal.logTransfer(request.fromAccountId(), transferRecord);
+
+            srcBalance = senderNewBalance;
+            from.setJournalSequence(sequence);
+            from.getOutgoing().append(transferRecord);
+            history.record(request.fromAccountId(), transferRecord);
+            recipientCredits.add(cents);
+        } finally {
+            release(from, srcBalance);
+            from.getLock().unlock();
+        }
+
+        journal.awaitDurable(sequence);
+        stats.transferred(from.getCity(), to.getCity(), cents);
+        return new TransferResponse(
+            transferRecord.transferId(),
+            transferRecord.toAccountId(),
+            ACCOUNT_MAPPER.formatAmount(cents),
+            transferRecord.timestampMillis(),
+            ACCOUNT_MAPPER.formatAmount(transferRecord.resultingBalanceInCents()),
+            null
+        );
+    }
+
+    /**
+     * Validates every transfer up front, then locks all involved accounts once in ascending id
+     * order (the same order {@link #transfer} uses, so batches and single transfers cannot
+     * deadlock) and applies the batch in request order.
+     */
+    @Override
+    public TransferBatchResponse transferBatch(TransferBatchRequest request) {
+        boolean atomic = request.mode() == BatchMode.ATOMIC;
+        List<TransferRequest> items = request.transfers();
+        int size = items.size();
+        PreparedTransfer[] prepared = new PreparedTransfer[size];
+        TransferBatchItemResult[] results = new TransferBatchItemResult[size];
+        TreeMap<UUID, Account> lockOrder = new TreeMap<>();
+        boolean failed = false;
+
+        for (int i = 0; i < size; i++) {
+            try {
+                prepared[i] = PreparedTransfer.of(accountRepository, items.get(i));
+                lockOrder.put(prepared[i].from().getId(), prepared[i].from());
+                lockOrder.put(prepared[i].to().getId(), prepared[i].to());
+            } catch (InvalidAmountException | InvalidTransferException | AccountNotFoundException e) {
+                results[i] = TransferBatchItemResult.failed(i, e.getMessage());
+                failed = true;
+            }
+        }
+        if (atomic && failed) {
+            return toBatchResponse(request.mode(), results);
+        }
+
+        List<Account> locked = new ArrayList<>(lockOrder.values());
+        long timestamp = Instant.now().toEpochMilli();
+        long lastSequence = 0;
+        long[] heldBalances = new long[locked.size()];
+        Map<UUID, long[]> balances = HashMap.newHashMap(locked.size());
+        boolean applied = false;
+        for (int i = 0; i < heldBalances.length; i++) {
+            hotAccounts.lock(locked.get(i));
+            heldBalances[i] = hold(locked.get(i));
+            balances.put(locked.get(i).getId(), new long[] {heldBalances[i]});
+        }
+        try {
+            int epoch = auditor.epoch();
+            for (int i = 0; i < heldBalances.length; i++) {
+                auditor.beforeUpdate(locked.get(i), epoch, heldBalances[i]);
+            }
+
+            long[] senderBalances = new long[size];
+            long[] recipientBalances = new long[size];
+            for (int i = 0; i < size; i++) {
+                if (prepared[i] == null) {
+                    continue;
+                }
+                long[] from = balances.get(prepared[i].from().getId());
+                long[] to = balances.get(prepared[i].to().getId());
+                if (from[0] < prepared[i].cents()) {
+                    results[i] = TransferBatchItemResult.failed(i, INSUFFICIENT_FUNDS_FOR_TRANSFER_MESSAGE);
+                    failed = true;
+                    if (atomic) {
+                        return toBatchResponse(request.mode(), results);
+                    }
+                    continue;
+                }
+                from[0] -= prepared[i].cents();
+                to[0] += prepared[i].cents();
+                senderBalances[i] = from[0];
+                recipientBalances[i] = to[0];
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                Account from = prepared[i].from();
+                Account to = prepared[i].to();
+                TransferRecord transferRecord = new TransferRecord(
+                    ids.next(),
+                    to.getId(),
+                    prepared[i].cents(),
+                    timestamp,
+                    senderBalances[i]
+                );
+                lastSequence = journal.logTransfer(from.getId(), transferRecord);
+
+                from.setJournalSequence(lastSequence);
+                to.setJournalSequence(lastSequence);
+                from.getOutgoing().append(transferRecord);
+                history.record(from.getId(), transferRecord);
+                results[i] = TransferBatchItemResult.completed(i, toTransferResponse(transferRecord, recipientBalances[i]));
+            }
+            applied = true;
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                Account account = locked.get(i);
+                release(account, applied ? balances.get(account.getId())[0] : heldBalances[i]);
+                account.getLock().unlock();
+            }
+        }
+
+        journal.awaitDurable(lastSequence);
+        for (int i = 0; i < size; i++) {
+            if (results[i].status() == BatchItemStatus.COMPLETED) {
+                stats.transferred(prepared[i].from().getCity(), prepared[i].to().getCity(), prepared[i].cents());
+            }
+        }
+        return toBatchResponse(request.mode(), results);
     }
 
     @Override
@@ -144,39 +462,188 @@ public class AccountServiceImpl implements AccountService {
         Account acc = accountRepository.findById(accountId)
             .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_MESSAGE + accountId));
         
-        acc.getLock().lock();
-        try {
-            var transfers = acc.getOutgoing().getRecentNewestFirst().stream()
-                .map(tr -> new TransferResponse(
-                    tr.transferId(),
-                    tr.toAccountId(),
-                    ACCOUNT_MAPPER.formatAmount(tr.amountInCents()),
-                    tr.timestampMillis(),
-                    ACCOUNT_MAPPER.formatAmount(tr.resultingBalanceInCents()),
-                    null  // Historical transfers don't store recipient balance
-                ))
-                .toList();
-            return new OutgoingTransfersResponse(transfers);
-        } finally {
-            acc.getLock().unlock();
+        // The ring buffer hands out a consistent copy without the account lock, so polling
+        // history never holds up transfers on the account
+        var transfers = acc.getOutgoing().getRecentNewestFirst().stream()
+            .map(tr -> new TransferResponse(
+                tr.transferId(),
+                tr.toAccountId(),
+                ACCOUNT_MAPPER.formatAmount(tr.amountInCents()),
+                tr.timestampMillis(),
+                ACCOUNT_MAPPER.formatAmount(tr.resultingBalanceInCents()),
+                null  // Historical transfers don't store recipient balance
+            ))
+            .toList();
+        return new OutgoingTransfersResponse(transfers);
+    }
+
+    @Override
+    public TransferHistoryResponse getTransferHistory(UUID accountId, TransferDirection direction, Long before, int limit) {
+        accountRepository.findById(accountId)
+            .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_MESSAGE + accountId));
+        return toHistoryResponse(history, accountId, direction, before, limit);
+    }
+
+    @Override
+    public AccountPageResponse getAccounts(UUID afterId, int limit) {
+        return toAccountPage(accountRepository, afterId, limit,
+                (after, pageSize) -> settled(accountRepository.findPage(after, pageSize)));
+    }
+
+    @Override
+    public List<CreateAccountResponse> findAccountsByEmail(String email) {
+        return toCreateAccountResponses(settled(accountRepository.findByEmail(email)));
+    }
+
+    @Override
+    public AccountPageResponse getAccountsByCity(String city, UUID afterId, int limit) {
+        return toAccountPage(accountRepository, afterId, limit,
+                (after, pageSize) -> settled(accountRepository.findPageByCity(city, after, pageSize)));
+    }
+
+    @Override
+    public AccountPageResponse getAccountsByAge(int minAge, int maxAge, UUID afterId, int limit) {
+        return toAccountPage(accountRepository, afterId, limit,
+                (after, pageSize) -> settled(accountRepository.findPageByAge(minAge, maxAge, after, pageSize)));
+    }
+
+    @Override
+    public void forEachAccount(Consumer<CreateAccountResponse> consumer) {
+        for (Account account : accountRepository.findAll()) {
+            settle(account);
+            consumer.accept(ACCOUNT_MAPPER.toCreateAccountResponse(account));
+        }
+    }
+
+    @Override
+    public void stripeCredits(UUID accountId) {
+        if (!stripedCredits) {
+            throw new StripedCreditsUnavailableException("Striped credits are not enabled");
         }
+        accountRepository.findById(accountId)
+            .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_MESSAGE + accountId));
+        pendingCredits.computeIfAbsent(accountId, id -> new LongAdder());
     }
 
+    /**
+     * Runs on the caller's thread; the accounts are visited on the common fork-join pool. Lock-free
+     * updates and striped credits change balances without the account lock, so neither can be
+     * audited.
+     */
     @Override
-    public List<CreateAccountResponse> getAllAccounts() {
-        return accountRepository.findAll().stream()
-                .map(ACCOUNT_MAPPER::toCreateAccountResponse)
-                .toList();
+    public BalanceAuditResponse auditBalances() {
+        if (lockFreeBalanceUpdates || stripedCredits) {
+            throw new AuditUnavailableException("Balance audits need every balance update to take the account lock");
+        }
+        return auditor.audit();
+    }
+
+    private LongAdder pendingCredits(Account account) {
+        return stripedCredits ? pendingCredits.get(account.getId()) : null;
+    }
+
+    private List<Account> settled(List<Account> accounts) {
+        if (stripedCredits && !pendingCredits.isEmpty()) {
+            accounts.forEach(this::settle);
+        }
+        return accounts;
     }
 
-    private static long parseAmount(String amount) {
+    /**
+     * Folds the pending credits of a striped account into its balance so it can be read.
+     */
+    private void settle(Account account) {
+        if (pendingCredits(account) == null) {
+            return;
+        }
+        account.getLock().lock();
         try {
-            return new BigDecimal(amount)
-                .setScale(2, RoundingMode.HALF_EVEN)
-                .movePointRight(2)
-                .longValueExact();
-        } catch (ArithmeticException | NumberFormatException e) {
-            throw new InvalidAmountException("Invalid amount format");
+            release(account, hold(account));
+        } finally {
+            account.getLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the balance of an account whose lock is held. In lock-free mode the balance is also
+     * marked as held until {@link #release}, which every caller must reach through a finally block.
+     * Pending striped credits are included and taken out of the stripes; {@code sumThenReset}
+     * swaps each cell to zero, so a credit racing with it lands either in this sum or in the next.
+     */
+    private long hold(Account account) {
+        long balance = lockFreeBalanceUpdates ? account.holdBalance() : account.getBalanceInCents();
+        LongAdder pending = pendingCredits(account);
+        return pending == null ? balance : balance + pending.sumThenReset();
+    }
+
+    private void release(Account account, long balanceInCents) {
+        if (lockFreeBalanceUpdates) {
+            account.releaseBalance(balanceInCents);
+        } else {
+            account.setBalanceInCents(balanceInCents);
+        }
+    }
+
+    static AccountPageResponse toAccountPage(AccountRepository accountRepository, UUID afterId, int limit,
+                                             BiFunction<UUID, Integer, List<Account>> pageQuery) {
+        if (afterId != null && accountRepository.findById(afterId).isEmpty()) {
+            throw new AccountNotFoundException(ACCOUNT_NOT_FOUND_MESSAGE + afterId);
+        }
+        List<Account> page = pageQuery.apply(afterId, limit);
+        List<CreateAccountResponse> accounts = toCreateAccountResponses(page);
+        UUID nextAfterId = page.size() == limit ? page.get(page.size() - 1).getId() : null;
+        return new AccountPageResponse(accounts, nextAfterId);
+    }
+
+    static TransferHistoryResponse toHistoryResponse(TransferHistory history, UUID accountId, TransferDirection direction,
+                                                     Long before, int limit) {
+        List<HistoryEntry> entries = history.read(accountId, direction, before == null ? Long.MAX_VALUE : before, limit);
+        List<HistoricalTransferResponse> transfers = new ArrayList<>(entries.size());
+        for (HistoryEntry entry : entries) {
+            transfers.add(new HistoricalTransferResponse(
+                entry.transferId(),
+                entry.fromAccountId(),
+                entry.toAccountId(),
+                ACCOUNT_MAPPER.formatAmount(entry.amountInCents()),
+                entry.timestampMillis(),
+                ACCOUNT_MAPPER.formatAmount(entry.senderBalanceInCents())
+            ));
+        }
+        Long nextBefore = entries.size() == limit ? entries.get(entries.size() - 1).position() : null;
+        return new TransferHistoryResponse(transfers, nextBefore);
+    }
+
+    static List<CreateAccountResponse> toCreateAccountResponses(List<Account> accounts) {
+        List<CreateAccountResponse> responses = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            responses.add(ACCOUNT_MAPPER.toCreateAccountResponse(account));
+        }
+        return responses;
+    }
+
+    static TransferResponse toTransferResponse(TransferRecord transferRecord, long recipientBalance) {
+        return new TransferResponse(
+            transferRecord.transferId(),
+            transferRecord.toAccountId(),
+            ACCOUNT_MAPPER.formatAmount(transferRecord.amountInCents()),
+            transferRecord.timestampMillis(),
+            ACCOUNT_MAPPER.formatAmount(transferRecord.resultingBalanceInCents()),
+            ACCOUNT_MAPPER.formatAmount(recipientBalance)
+        );
+    }
+
+    static TransferBatchResponse toBatchResponse(BatchMode mode, TransferBatchItemResult[] results) {
+        int completed = 0;
+        int failed = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = TransferBatchItemResult.skipped(i);
+            } else if (results[i].status() == BatchItemStatus.COMPLETED) {
+                completed++;
+            } else if (results[i].status() == BatchItemStatus.FAILED) {
+                failed++;
+            }
         }
+        return new TransferBatchResponse(mode, completed, failed, List.of(results));
     }
 }
@@ -0,0 +1,226 @@
+package revel8.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import revel8.dto.AccountPageResponse;
+import revel8.dto.AmountRequest;
+import revel8.dto.BalanceAuditResponse;
+import revel8.dto.BalanceResponse;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.CreateAccountResponse;
+import revel8.dto.OutgoingTransfersResponse;
+import revel8.dto.TransferBatchRequest;
+import revel8.dto.TransferBatchResponse;
+import revel8.dto.TransferDirection;
+import revel8.dto.TransferHistoryResponse;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+import revel8.exception.AccountNotFoundException;
+import revel8.exception.InsufficientFundsException;
+import revel8.service.AccountService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Records the latency of every banking operation in {@code bank.operation}, tagged by operation,
+ * as a histogram with fixed buckets so that recording is a bucket increment and percentiles are
+ * computed by the monitoring system. Failed operations are timed too; the ones rejected for
+ * insufficient funds or an unknown account are also counted in {@code bank.operation.rejections},
+ * tagged by operation and reason. Account queries are passed through unmeasured.
+ */
+public class MeteredAccountService implements AccountService, Closeable {
+    private final AccountService delegate;
+    private final Operation create;
+    private final Operation deposit;
+    private final Operation withdraw;
+    private final Operation transfer;
+    private final Operation transferBatch;
+    private final Operation history;
+    private final Operation historyPage;
+
+    public MeteredAccountService(AccountService delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.create = new Operation("create", registry);
+        this.deposit = new Operation("deposit", registry);
+        this.withdraw = new Operation("withdraw", registry);
+        this.transfer = new Operation("transfer", registry);
+        this.transferBatch = new Operation("transfer_batch", registry);
+        this.history = new Operation("history", registry);
+        this.historyPage = new Operation("history_page", registry);
+    }
+
+    /**
+     * Closes the delegate if it has to be closed, since the container only sees this wrapper.
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public CreateAccountResponse createAccount(CreateAccountRequest request) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createAccount(request);
+        } catch (RuntimeException e) {
+            throw create.failed(e);
+        } finally {
+            create.stop(start);
+        }
+    }
+
+    @Override
+    public BalanceResponse deposit(UUID accountId, AmountRequest request) {
+        long start = System.nanoTime();
+        try {
+            return delegate.deposit(accountId, request);
+        } catch (RuntimeException e) {
+            throw deposit.failed(e);
+        } finally {
+            deposit.stop(start);
+        }
+    }
+
+    @Override
+    public BalanceResponse withdraw(UUID accountId, AmountRequest request) {
+        long start = System.nanoTime();
+        try {
+            return delegate.withdraw(accountId, request);
+        } catch (RuntimeException e) {
+            throw withdraw.failed(e);
+        } finally {
+            withdraw.stop(start);
+        }
+    }
+
+    @Override
+    public TransferResponse transfer(TransferRequest request) {
+        long start = System.nanoTime();
+        try {
+            return delegate.transfer(request);
+        } catch (RuntimeException e) {
+            throw transfer.failed(e);
+        } finally {
+            transfer.stop(start);
+        }
+    }
+
+    @Override
+    public TransferBatchResponse transferBatch(TransferBatchRequest request) {
+        long start = System.nanoTime();
+        try {
+            return delegate.transferBatch(request);
+        } catch (RuntimeException e) {
+            throw transferBatch.failed(e);
+        } finally {
+            transferBatch.stop(start);
+        }
+    }
+
+    @Override
+    public OutgoingTransfersResponse getOutgoingTransfers(UUID accountId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOutgoingTransfers(accountId);
+        } catch (RuntimeException e) {
+            throw history.failed(e);
+        } finally {
+            history.stop(start);
+        }
+    }
+
+    @Override
+    public TransferHistoryResponse getTransferHistory(UUID accountId, TransferDirection direction, Long before, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getTransferHistory(accountId, direction, before, limit);
+        } catch (RuntimeException e) {
+            throw historyPage.failed(e);
+        } finally {
+            historyPage.stop(start);
+        }
+    }
+
+    @Override
+    public AccountPageResponse getAccounts(UUID afterId, int limit) {
+        return delegate.getAccounts(afterId, limit);
+    }
+
+    @Override
+    public List<CreateAccountResponse> findAccountsByEmail(String email) {
+        return delegate.findAccountsByEmail(email);
+    }
+
+    @Override
+    public AccountPageResponse getAccountsByCity(String city, UUID afterId, int limit) {
+        return delegate.getAccountsByCity(city, afterId, limit);
+    }
+
+    @Override
+    public AccountPageResponse getAccountsByAge(int minAge, int maxAge, UUID afterId, int limit) {
+        return delegate.getAccountsByAge(minAge, maxAge, afterId, limit);
+    }
+
+    @Override
+    public void forEachAccount(Consumer<CreateAccountResponse> consumer) {
+        delegate.forEachAccount(consumer);
+    }
+
+    @Override
+    public void stripeCredits(UUID accountId) {
+        delegate.stripeCredits(accountId);
+    }
+
+    @Override
+    public BalanceAuditResponse auditBalances() {
+        return delegate.auditBalances();
+    }
+
+    private static final class Operation {
+        private final Timer latency;
+        private final Counter insufficientFunds;
+        private final Counter notFound;
+
+        Operation(String name, MeterRegistry registry) {
+            this.latency = Timer.builder("bank.operation")
+                    .tag("operation", name)
+                    .description("Latency of banking operations")
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(500))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(registry);
+            this.insufficientFunds = rejections(name, "insufficient_funds", registry);
+            this.notFound = rejections(name, "not_found", registry);
+        }
+
+        RuntimeException failed(RuntimeException e) {
+            if (e instanceof InsufficientFundsException) {
+                insufficientFunds.increment();
+            } else if (e instanceof AccountNotFoundException) {
+                notFound.increment();
+            }
+            return e;
+        }
+
+        void stop(long startNanos) {
+            latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private static Counter rejections(String operation, String reason, MeterRegistry registry) {
+            return Counter.builder("bank.operation.rejections")
+                    .tag("operation", operation)
+                    .tag("reason", reason)
+                    .description("Banking operations rejected for insufficient funds or an unknown account")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package revel8.service.impl;
+
+import revel8.dto.TransferRequest;
+import revel8.exception.AccountNotFoundException;
+import revel8.exception.InvalidAmountException;
+import revel8.exception.InvalidTransferException;
+import revel8.model.Account;
+import revel8.money.MoneyCodec;
+import revel8.repository.AccountRepository;
+
+import static revel8.service.impl.AccountServiceImpl.ACCOUNT_NOT_FOUND_MESSAGE;
+
+record PreparedTransfer(Account from, Account to, long cents) {
+
+    /**
+     * Runs every check that does not need the accounts locked.
+     */
+    static PreparedTransfer of(AccountRepository accountRepository, TransferRequest request) {
+        long cents = MoneyCodec.parseCents(request.amount());
+        if (cents <= 0) {
+            throw new InvalidAmountException("Transfer amount must be positive");
+        }
+        if (request.fromAccountId().equals(request.toAccountId())) {
+            throw new InvalidTransferException("Cannot transfer to the same account");
+        }
+
+        Account from = accountRepository.findById(request.fromAccountId())
+            .orElseThrow(() -> new AccountNotFoundException("Source " + ACCOUNT_NOT_FOUND_MESSAGE.toLowerCase() + request.fromAccountId()));
+        Account to = accountRepository.findById(request.toAccountId())
+            .orElseThrow(() -> new AccountNotFoundException("Destination " + ACCOUNT_NOT_FOUND_MESSAGE.toLowerCase() + request.toAccountId()));
+        return new PreparedTransfer(from, to, cents);
+    }
+}
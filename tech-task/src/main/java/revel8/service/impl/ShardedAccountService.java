@@ -0,0 +1,408 @@
+package revel8.service.impl;
+
+import revel8.dto.*;
+import revel8.engine.LedgerShard;
+import revel8.exception.AccountNotFoundException;
+import revel8.exception.AuditUnavailableException;
+import revel8.exception.InsufficientFundsException;
+import revel8.exception.InvalidAmountException;
+import revel8.exception.InvalidTransferException;
+import revel8.exception.StripedCreditsUnavailableException;
+import revel8.history.TransferHistory;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+import revel8.money.MoneyCodec;
+import revel8.repository.AccountRepository;
+import revel8.service.AccountService;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import static revel8.mapper.AccountMapper.ACCOUNT_MAPPER;
+import static revel8.service.impl.AccountServiceImpl.ACCOUNT_NOT_FOUND_MESSAGE;
+import static revel8.service.impl.AccountServiceImpl.INSUFFICIENT_FUNDS_FOR_TRANSFER_MESSAGE;
+
+/**
+ * Single-writer engine: accounts are hashed onto shards and every balance mutation runs on the
+ * thread of the shard that owns the account, so request threads never wait on each other for an
+ * account lock. Shard threads still take the (now uncontended) account lock while mutating so
+ * that snapshots and history reads see consistent accounts.
+ * <p>
+ * A transfer between accounts on different shards is split in two: the source shard checks funds,
+ * debits and journals a {@code TRANSFER_DEBIT}, then hands the credit to the destination shard,
+ * which journals the matching {@code TRANSFER_CREDIT}. The caller is answered once the credit is
+ * applied and durable; in between, the amount is briefly on neither account.
+ */
+public class ShardedAccountService implements AccountService, Closeable {
+    private final AccountRepository accountRepository;
+    private final AccountJournal journal;
+    private final TransferHistory history;
+    private final LedgerShard[] shards;
+    private final IdGenerator ids;
+
+    public ShardedAccountService(AccountRepository accountRepository, AccountJournal journal, int shardCount) {
+        this(accountRepository, journal, shardCount, TransferHistory.NONE);
+    }
+
+    public ShardedAccountService(AccountRepository accountRepository, AccountJournal journal, int shardCount,
+                                 TransferHistory history) {
+        this(accountRepository, journal, shardCount, history, IdGenerator.RANDOM);
+    }
+
+    public ShardedAccountService(AccountRepository accountRepository, AccountJournal journal, int shardCount,
+                                 TransferHistory history, IdGenerator ids) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.accountRepository = accountRepository;
+        this.journal = journal;
+        this.history = history;
+        this.ids = ids;
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard("ledger-shard-" + i);
+        }
+    }
+
+    @Override
+    public CreateAccountResponse createAccount(CreateAccountRequest request) {
+        long cents = MoneyCodec.parseCents(request.initialDeposit());
+        if (cents < 0) {
+            throw new InvalidAmountException("Initial deposit cannot be negative");
+        }
+
+        // Journaled before it is published, so a failed write leaves nothing behind, and locked until
+        // its journal sequence is set, so no shard mutation can be overwritten by it
+        UUID accountId = accountRepository.newId();
+        long sequence = journal.logCreate(accountId, request.name(), request.email(), request.age(), request.city(), cents);
+        Account account = accountRepository.createLocked(accountId, request.name(), request.email(), request.age(),
+            request.city(), cents);
+        try {
+            account.setJournalSequence(sequence);
+        } finally {
+            account.getLock().unlock();
+        }
+        journal.awaitDurable(sequence);
+        return ACCOUNT_MAPPER.toCreateAccountResponse(account);
+    }
+
+    @Override
+    public BalanceResponse deposit(UUID accountId, AmountRequest request) {
+        long cents = MoneyCodec.parseCents(request.amount());
+        if (cents <= 0) {
+            throw new InvalidAmountException("Deposit amount must be positive");
+        }
+
+        Account acc = findAccount(accountId);
+        Applied applied = await(shardOf(accountId).submit(() -> {
+            acc.getLock().lock();
+            try {
+                long newBal = acc.getBalanceInCents() + cents;
+                long sequence = journal.logDeposit(accountId, cents);
+                acc.setBalanceInCents(newBal);
+                acc.setJournalSequence(sequence);
+                return new Applied(newBal, sequence);
+            } finally {
+                acc.getLock().unlock();
+            }
+        }));
+
+        journal.awaitDurable(applied.sequence());
+        return ACCOUNT_MAPPER.toBalanceResponse(ACCOUNT_MAPPER.formatAmount(applied.balanceInCents()));
+    }
+
+    @Override
+    public BalanceResponse withdraw(UUID accountId, AmountRequest request) {
+        long cents = MoneyCodec.parseCents(request.amount());
+        if (cents <= 0) {
+            throw new InvalidAmountException("Withdrawal amount must be positive");
+        }
+
+        Account acc = findAccount(accountId);
+        Applied applied = await(shardOf(accountId).submit(() -> {
+            acc.getLock().lock();
+            try {
+                long curr = acc.getBalanceInCents();
+                if (curr < cents) {
+                    throw new InsufficientFundsException("Insufficient funds for withdrawal");
+                }
+                long newBal = curr - cents;
+                long sequence = journal.logWithdraw(accountId, cents);
+                acc.setBalanceInCents(newBal);
+                acc.setJournalSequence(sequence);
+                return new Applied(newBal, sequence);
+            } finally {
+                acc.getLock().unlock();
+            }
+        }));
+
+        journal.awaitDurable(applied.sequence());
+        return ACCOUNT_MAPPER.toBalanceResponse(ACCOUNT_MAPPER.formatAmount(applied.balanceInCents()));
+    }
+
+    @Override
+    public TransferResponse transfer(TransferRequest request) {
+        AppliedTransfer applied = await(submitTransfer(PreparedTransfer.of(accountRepository, request)));
+        journal.awaitDurable(applied.sequence());
+        return applied.response();
+    }
+
+    /**
+     * Submits every valid item without waiting for the previous one, so items that touch different
+     * shards run in parallel; items sharing a source account are still applied in request order.
+     * Atomic batches would need every involved shard to stop at once and are rejected.
+     */
+    @Override
+    public TransferBatchResponse transferBatch(TransferBatchRequest request) {
+        if (request.mode() == BatchMode.ATOMIC) {
+            throw new InvalidTransferException("Atomic batches are not supported by the sharded engine");
+        }
+
+        List<TransferRequest> items = request.transfers();
+        int size = items.size();
+        TransferBatchItemResult[] results = new TransferBatchItemResult[size];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<AppliedTransfer>[] pending = new CompletableFuture[size];
+        for (int i = 0; i < size; i++) {
+            try {
+                pending[i] = submitTransfer(PreparedTransfer.of(accountRepository, items.get(i)));
+            } catch (InvalidAmountException | InvalidTransferException | AccountNotFoundException e) {
+                results[i] = TransferBatchItemResult.failed(i, e.getMessage());
+            }
+        }
+
+        long lastSequence = 0;
+        for (int i = 0; i < size; i++) {
+            if (pending[i] == null) {
+                continue;
+            }
+            try {
+                AppliedTransfer applied = await(pending[i]);
+                lastSequence = Math.max(lastSequence, applied.sequence());
+                results[i] = TransferBatchItemResult.completed(i, applied.response());
+            } catch (InsufficientFundsException e) {
+                results[i] = TransferBatchItemResult.failed(i, e.getMessage());
+            }
+        }
+
+        journal.awaitDurable(lastSequence);
+        return AccountServiceImpl.toBatchResponse(request.mode(), results);
+    }
+
+    @Override
+    public OutgoingTransfersResponse getOutgoingTransfers(UUID accountId) {
+        Account acc = findAccount(accountId);
+
+        var transfers = acc.getOutgoing().getRecentNewestFirst().stream()
+            .map(tr -> new TransferResponse(
+                tr.transferId(),
+                tr.toAccountId(),
+                ACCOUNT_MAPPER.formatAmount(tr.amountInCents()),
+                tr.timestampMillis(),
+                ACCOUNT_MAPPER.formatAmount(tr.resultingBalanceInCents()),
+                null  // Historical transfers don't store recipient balance
+            ))
+            .toList();
+        return new OutgoingTransfersResponse(transfers);
+    }
+
+    @Override
+    public TransferHistoryResponse getTransferHistory(UUID accountId, TransferDirection direction, Long before, int limit) {
+        findAccount(accountId);
+        return AccountServiceImpl.toHistoryResponse(history, accountId, direction, before, limit);
+    }
+
+    @Override
+    public AccountPageResponse getAccounts(UUID afterId, int limit) {
+        return AccountServiceImpl.toAccountPage(accountRepository, afterId, limit, accountRepository::findPage);
+    }
+
+    @Override
+    public List<CreateAccountResponse> findAccountsByEmail(String email) {
+        return AccountServiceImpl.toCreateAccountResponses(accountRepository.findByEmail(email));
+    }
+
+    @Override
+    public AccountPageResponse getAccountsByCity(String city, UUID afterId, int limit) {
+        return AccountServiceImpl.toAccountPage(accountRepository, afterId, limit,
+                (after, pageSize) -> accountRepository.findPageByCity(city, after, pageSize));
+    }
+
+    @Override
+    public AccountPageResponse getAccountsByAge(int minAge, int maxAge, UUID afterId, int limit) {
+        return AccountServiceImpl.toAccountPage(accountRepository, afterId, limit,
+                (after, pageSize) -> accountRepository.findPageByAge(minAge, maxAge, after, pageSize));
+    }
+
+    @Override
+    public void forEachAccount(Consumer<CreateAccountResponse> consumer) {
+        for (Account account : accountRepository.findAll()) {
+            consumer.accept(ACCOUNT_MAPPER.toCreateAccountResponse(account));
+        }
+    }
+
+    @Override
+    public void stripeCredits(UUID accountId) {
+        throw new StripedCreditsUnavailableException("Striped credits are not supported by the sharded engine");
+    }
+
+    @Override
+    public BalanceAuditResponse auditBalances() {
+        throw new AuditUnavailableException("Balance audits are not supported by the sharded engine");
+    }
+
+    @Override
+    public void close() {
+        // Every shard stops taking requests and runs the ones it has before any shard closes, so
+        // that the credits of cross-shard transfers already debited still find their shard open
+        for (LedgerShard shard : shards) {
+            shard.shutdown();
+        }
+        for (LedgerShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    private CompletableFuture<AppliedTransfer> submitTransfer(PreparedTransfer prepared) {
+        Account from = prepared.from();
+        Account to = prepared.to();
+        LedgerShard source = shardOf(from.getId());
+        LedgerShard destination = shardOf(to.getId());
+        if (source == destination) {
+            return source.submit(() -> transferWithinShard(from, to, prepared.cents()));
+        }
+
+        CompletableFuture<AppliedTransfer> result = new CompletableFuture<>();
+        source.execute(() -> {
+            TransferRecord transferRecord;
+            try {
+                transferRecord = debit(from, to.getId(), prepared.cents());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                destination.handOff(() -> {
+                    try {
+                        result.complete(credit(transferRecord, to));
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down; journal replay applies the credit on the next start
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private AppliedTransfer transferWithinShard(Account from, Account to, long cents) {
+        Account first = (from.getId().compareTo(to.getId()) < 0) ? from : to;
+        Account second = (first == from) ? to : from;
+        first.getLock().lock();
+        second.getLock().lock();
+        try {
+            long srcBalance = from.getBalanceInCents();
+            if (srcBalance < cents) {
+                throw new InsufficientFundsException(INSUFFICIENT_FUNDS_FOR_TRANSFER_MESSAGE);
+            }
+
+            long senderNewBalance = srcBalance - cents;
+            long recipientNewBalance = to.getBalanceInCents() + cents;
+            TransferRecord transferRecord = newTransferRecord(to.getId(), cents, senderNewBalance);
+            long sequence = journal.logTransfer(from.getId(), transferRecord);
+
+            from.setBalanceInCents(senderNewBalance);
+            to.setBalanceInCents(recipientNewBalance);
+            from.setJournalSequence(sequence);
+            to.setJournalSequence(sequence);
+            from.getOutgoing().append(transferRecord);
+            history.record(from.getId(), transferRecord);
+            return new AppliedTransfer(AccountServiceImpl.toTransferResponse(transferRecord, recipientNewBalance), sequence);
+        } finally {
+            second.getLock().unlock();
+            first.getLock().unlock();
+        }
+    }
+
+    private TransferRecord debit(Account from, UUID toAccountId, long cents) {
+        from.getLock().lock();
+        try {
+            long srcBalance = from.getBalanceInCents();
+            if (srcBalance < cents) {
+                throw new InsufficientFundsException(INSUFFICIENT_FUNDS_FOR_TRANSFER_MESSAGE);
+            }
+
+            long senderNewBalance = srcBalance - cents;
+            TransferRecord transferRecord = newTransferRecord(toAccountId, cents, senderNewBalance);
+            long sequence = journal.logTransferDebit(from.getId(), transferRecord);
+
+            from.setBalanceInCents(senderNewBalance);
+            from.setJournalSequence(sequence);
+            from.getOutgoing().append(transferRecord);
+            history.record(from.getId(), transferRecord);
+            return transferRecord;
+        } finally {
+            from.getLock().unlock();
+        }
+    }
+
+    private AppliedTransfer credit(TransferRecord transferRecord, Account to) {
+        to.getLock().lock();
+        try {
+            long recipientNewBalance = to.getBalanceInCents() + transferRecord.amountInCents();
+            long sequence = journal.logTransferCredit(transferRecord.transferId(), to.getId(), transferRecord.amountInCents());
+
+            to.setBalanceInCents(recipientNewBalance);
+            to.setJournalSequence(sequence);
+            return new AppliedTransfer(AccountServiceImpl.toTransferResponse(transferRecord, recipientNewBalance), sequence);
+        } finally {
+            to.getLock().unlock();
+        }
+    }
+
+    private TransferRecord newTransferRecord(UUID toAccountId, long cents, long senderNewBalance) {
+        return new TransferRecord(
+            ids.next(),
+            toAccountId,
+            cents,
+            Instant.now().toEpochMilli(),
+            senderNewBalance
+        );
+    }
+
+    private Account findAccount(UUID accountId) {
+        return accountRepository.findById(accountId)
+            .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_MESSAGE + accountId));
+    }
+
+    private LedgerShard shardOf(UUID accountId) {
+        return shards[Math.floorMod(accountId.hashCode(), shards.length)];
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Applied(long balanceInCents, long sequence) {
+    }
+
+    private record AppliedTransfer(TransferResponse response, long sequence) {
+    }
+}
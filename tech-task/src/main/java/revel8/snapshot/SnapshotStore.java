@@ -0,0 +1,294 @@
+package revel8.snapshot;
+
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+import revel8.repository.AccountRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary dumps of every account, taken without stopping writers. Each account is copied under its
+ * own lock together with the journal sequence it reflects, so a snapshot labelled with sequence
+ * {@code S} contains at least every entry up to {@code S} and the journal can be truncated there.
+ * <p>
+ * A snapshot is a directory of partition files that are written round-robin and loaded in parallel.
+ * It only becomes visible once the directory is renamed from its temporary name.
+ */
+public class SnapshotStore {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String PART_SUFFIX = ".snap";
+    private static final int MAGIC = 0x534E4150;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final int partitions;
+
+    public SnapshotStore(Path directory, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be positive");
+        }
+        this.directory = directory;
+        this.partitions = partitions;
+    }
+
+    public record LoadResult(long sequence, long accounts) {
+    }
+
+    public void write(Collection<Account> accounts, long sequence) throws IOException {
+        write(accounts, sequence, () -> {
+        });
+    }
+
+    /**
+     * Writes a snapshot and runs {@code beforePublish} once every partition is on disk but before
+     * the snapshot becomes visible to {@link #loadLatest}.
+     */
+    public void write(Collection<Account> accounts, long sequence, Runnable beforePublish) throws IOException {
+        Files.createDirectories(directory);
+        Path tmp = directory.resolve(SNAPSHOT_PREFIX + sequence + TMP_SUFFIX);
+        deleteRecursively(tmp);
+        Files.createDirectories(tmp);
+
+        List<PartWriter> writers = new ArrayList<>(partitions);
+        try {
+            for (int i = 0; i < partitions; i++) {
+                writers.add(new PartWriter(tmp.resolve("part-" + i + PART_SUFFIX)));
+            }
+            int next = 0;
+            for (Account account : accounts) {
+                writers.get(next).write(account);
+                next = (next + 1) % partitions;
+            }
+            for (PartWriter writer : writers) {
+                writer.finish();
+            }
+        } finally {
+            for (PartWriter writer : writers) {
+                writer.close();
+            }
+        }
+
+        beforePublish.run();
+        Files.move(tmp, directory.resolve(SNAPSHOT_PREFIX + sequence), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the newest complete snapshot into {@code accountRepository}, one partition per task.
+     */
+    public LoadResult loadLatest(AccountRepository accountRepository) throws IOException {
+        Optional<Path> latest = listSnapshots().stream().max(Comparator.comparingLong(SnapshotStore::sequenceOf));
+        if (latest.isEmpty()) {
+            return new LoadResult(0, 0);
+        }
+
+        List<Path> parts;
+        try (Stream<Path> files = Files.list(latest.get())) {
+            parts = files.filter(p -> p.getFileName().toString().endsWith(PART_SUFFIX)).toList();
+        }
+
+        LongAdder loaded = new LongAdder();
+        try {
+            parts.parallelStream().forEach(part -> loaded.add(loadPart(part, accountRepository)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new LoadResult(sequenceOf(latest.get()), loaded.sum());
+    }
+
+    /**
+     * Removes every snapshot, complete or not, older than {@code sequence}.
+     */
+    public void deleteOlderThan(long sequence) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(p -> p.getFileName().toString().startsWith(SNAPSHOT_PREFIX)).toList()) {
+                if (sequenceOf(path) < sequence) {
+                    deleteRecursively(path);
+                }
+            }
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && !name.endsWith(TMP_SUFFIX);
+            }).toList();
+        }
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        int end = name.endsWith(TMP_SUFFIX) ? name.length() - TMP_SUFFIX.length() : name.length();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), end));
+    }
+
+    private static long loadPart(Path part, AccountRepository accountRepository) {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(part), BUFFER_SIZE)) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32C());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + part);
+            }
+
+            long loaded = 0;
+            while (in.readBoolean()) {
+                accountRepository.save(readAccount(in));
+                loaded++;
+            }
+
+            int expected = (int) checked.getChecksum().getValue();
+            if (new DataInputStream(raw).readInt() != expected) {
+                throw new IOException("Snapshot checksum mismatch in " + part);
+            }
+            return loaded;
+        } catch (EOFException e) {
+            throw new UncheckedIOException(new IOException("Truncated snapshot file: " + part, e));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Account readAccount(DataInputStream in) throws IOException {
+        Account account = Account.builder()
+                .id(new UUID(in.readLong(), in.readLong()))
+                .journalSequence(in.readLong())
+                .balanceInCents(in.readLong())
+                .age(in.readInt())
+                .name(readString(in))
+                .email(readString(in))
+                .city(readString(in))
+                .build();
+
+        TransferRecord[] newestFirst = new TransferRecord[in.readInt()];
+        for (int i = 0; i < newestFirst.length; i++) {
+            newestFirst[i] = new TransferRecord(
+                    new UUID(in.readLong(), in.readLong()),
+                    new UUID(in.readLong(), in.readLong()),
+                    in.readLong(),
+                    in.readLong(),
+                    in.readLong()
+            );
+        }
+        for (int i = newestFirst.length - 1; i >= 0; i--) {
+            account.getOutgoing().append(newestFirst[i]);
+        }
+        return account;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static final class PartWriter implements Closeable {
+        private final FileOutputStream file;
+        private final BufferedOutputStream buffered;
+        private final CheckedOutputStream checked;
+        private final DataOutputStream out;
+
+        PartWriter(Path path) throws IOException {
+            this.file = new FileOutputStream(path.toFile());
+            this.buffered = new BufferedOutputStream(file, BUFFER_SIZE);
+            this.checked = new CheckedOutputStream(buffered, new CRC32C());
+            this.out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+        }
+
+        void write(Account account) throws IOException {
+            long balanceInCents;
+            long journalSequence;
+            List<TransferRecord> outgoing;
+            account.getLock().lock();
+            try {
+                balanceInCents = account.getBalanceInCents();
+                journalSequence = account.getJournalSequence();
+                outgoing = account.getOutgoing().getRecentNewestFirst();
+            } finally {
+                account.getLock().unlock();
+            }
+
+            out.writeBoolean(true);
+            out.writeLong(account.getId().getMostSignificantBits());
+            out.writeLong(account.getId().getLeastSignificantBits());
+            out.writeLong(journalSequence);
+            out.writeLong(balanceInCents);
+            out.writeInt(account.getAge());
+            writeString(account.getName());
+            writeString(account.getEmail());
+            writeString(account.getCity());
+            out.writeInt(outgoing.size());
+            for (TransferRecord transfer : outgoing) {
+                out.writeLong(transfer.transferId().getMostSignificantBits());
+                out.writeLong(transfer.transferId().getLeastSignificantBits());
+                out.writeLong(transfer.toAccountId().getMostSignificantBits());
+                out.writeLong(transfer.toAccountId().getLeastSignificantBits());
+                out.writeLong(transfer.amountInCents());
+                out.writeLong(transfer.timestampMillis());
+                out.writeLong(transfer.resultingBalanceInCents());
+            }
+        }
+
+        void finish() throws IOException {
+            out.writeBoolean(false);
+            out.flush();
+            new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+            file.getChannel().force(true);
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package revel8.stats;
+
+import revel8.dto.CityBalanceResponse;
+import revel8.dto.StatsResponse;
+import revel8.dto.StatsWindowResponse;
+import revel8.exception.StatsUnavailableException;
+import revel8.model.Account;
+import revel8.money.MoneyCodec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Aggregates kept up to date by every completed mutation, so reports never scan the accounts.
+ * Totals, per-city balances and the volumes of a ring of tumbling windows are all
+ * {@link LongAdder}s, which spread concurrent additions over several cells, so writers neither
+ * lock nor retry a contended CAS. Reading sums the cells; the result is not a consistent
+ * snapshot, since a transfer between cities may be counted on one side only, but every update is
+ * reflected once it has completed.
+ * <p>
+ * Each window covers {@code windowLength} and its slot in the ring is reused {@code windows}
+ * windows later; the first writer of a new window swaps a fresh one into the slot.
+ */
+public class LedgerStats {
+    public static final LedgerStats DISABLED = new LedgerStats();
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<Window> windows;
+    private final ConcurrentHashMap<String, City> cities = new ConcurrentHashMap<>();
+    private final Volume deposits = new Volume();
+    private final Volume withdrawals = new Volume();
+    private final Volume transfers = new Volume();
+
+    public LedgerStats(Duration windowLength, int windows) {
+        this(windowLength, windows, System::currentTimeMillis);
+    }
+
+    LedgerStats(Duration windowLength, int windows, LongSupplier clock) {
+        if (windowLength.toMillis() <= 0 || windows <= 0) {
+            throw new IllegalArgumentException("Window length and window count must be positive");
+        }
+        this.enabled = true;
+        this.windowMillis = windowLength.toMillis();
+        this.clock = clock;
+        this.windows = new AtomicReferenceArray<>(windows);
+    }
+
+    private LedgerStats() {
+        this.enabled = false;
+        this.windowMillis = 0;
+        this.clock = null;
+        this.windows = null;
+    }
+
+    /**
+     * Counts accounts that exist before any mutation is recorded, such as those restored from
+     * the journal.
+     */
+    public void addExisting(Iterable<? extends Account> accounts) {
+        if (!enabled) {
+            return;
+        }
+        for (Account account : accounts) {
+            city(account.getCity()).add(1, account.getBalanceInCents());
+        }
+    }
+
+    /**
+     * A new account; its initial deposit counts as a deposit.
+     */
+    public void created(String city, long initialCents) {
+        if (!enabled) {
+            return;
+        }
+        city(city).add(1, initialCents);
+        if (initialCents > 0) {
+            deposits.add(initialCents);
+            Window window = window();
+            if (window != null) {
+                window.deposits.add(initialCents);
+            }
+        }
+    }
+
+    public void deposited(String city, long cents) {
+        if (!enabled) {
+            return;
+        }
+        city(city).add(0, cents);
+        deposits.add(cents);
+        Window window = window();
+        if (window != null) {
+            window.deposits.add(cents);
+        }
+    }
+
+    public void withdrew(String city, long cents) {
+        if (!enabled) {
+            return;
+        }
+        city(city).add(0, -cents);
+        withdrawals.add(cents);
+        Window window = window();
+        if (window != null) {
+            window.withdrawals.add(cents);
+        }
+    }
+
+    public void transferred(String fromCity, String toCity, long cents) {
+        if (!enabled) {
+            return;
+        }
+        if (!Objects.equals(fromCity, toCity)) {
+            city(fromCity).add(0, -cents);
+            city(toCity).add(0, cents);
+        }
+        transfers.add(cents);
+        Window window = window();
+        if (window != null) {
+            window.transfers.add(cents);
+        }
+    }
+
+    /**
+     * Reads the totals, every city and every window in the ring; none of it depends on the
+     * number of accounts.
+     */
+    public StatsResponse read() {
+        if (!enabled) {
+            throw new StatsUnavailableException("Ledger statistics are not enabled");
+        }
+        long accounts = 0;
+        long balance = 0;
+        List<CityBalanceResponse> perCity = new ArrayList<>(cities.size());
+        for (var entry : cities.entrySet()) {
+            long cityAccounts = entry.getValue().accounts.sum();
+            long cityBalance = entry.getValue().balance.sum();
+            accounts += cityAccounts;
+            balance += cityBalance;
+            perCity.add(new CityBalanceResponse(entry.getKey(), cityAccounts, MoneyCodec.format(cityBalance)));
+        }
+        perCity.sort(Comparator.comparing(CityBalanceResponse::city));
+
+        long current = clock.getAsLong() / windowMillis;
+        List<StatsWindowResponse> recent = new ArrayList<>(windows.length());
+        for (long index = current; index > current - windows.length(); index--) {
+            Window window = windows.get(slot(index));
+            recent.add(window != null && window.index == index ? window.toResponse(windowMillis) : Window.empty(index, windowMillis));
+        }
+        return new StatsResponse(
+                accounts,
+                MoneyCodec.format(balance),
+                deposits.count.sum(),
+                MoneyCodec.format(deposits.cents.sum()),
+                withdrawals.count.sum(),
+                MoneyCodec.format(withdrawals.cents.sum()),
+                transfers.count.sum(),
+                MoneyCodec.format(transfers.cents.sum()),
+                perCity,
+                windowMillis,
+                recent
+        );
+    }
+
+    private City city(String name) {
+        String key = Objects.requireNonNullElse(name, "");
+        City city = cities.get(key);
+        return city != null ? city : cities.computeIfAbsent(key, c -> new City());
+    }
+
+    /**
+     * The window the current time falls in, or null for a writer whose clock reading is already
+     * older than the window in its slot.
+     */
+    private Window window() {
+        long index = clock.getAsLong() / windowMillis;
+        int slot = slot(index);
+        while (true) {
+            Window window = windows.get(slot);
+            if (window != null && window.index >= index) {
+                return window.index == index ? window : null;
+            }
+            Window fresh = new Window(index);
+            if (windows.compareAndSet(slot, window, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int slot(long index) {
+        return (int) Math.floorMod(index, windows.length());
+    }
+
+    private static final class City {
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder balance = new LongAdder();
+
+        void add(long accountDelta, long cents) {
+            if (accountDelta != 0) {
+                accounts.add(accountDelta);
+            }
+            balance.add(cents);
+        }
+    }
+
+    private static final class Volume {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder cents = new LongAdder();
+
+        void add(long amount) {
+            count.increment();
+            cents.add(amount);
+        }
+    }
+
+    private static final class Window {
+        private final long index;
+        private final Volume deposits = new Volume();
+        private final Volume withdrawals = new Volume();
+        private final Volume transfers = new Volume();
+
+        Window(long index) {
+            this.index = index;
+        }
+
+        StatsWindowResponse toResponse(long windowMillis) {
+            return new StatsWindowResponse(
+                    index * windowMillis,
+                    transfers.count.sum(),
+                    MoneyCodec.format(transfers.cents.sum()),
+                    deposits.count.sum(),
+                    MoneyCodec.format(deposits.cents.sum()),
+                    withdrawals.count.sum(),
+                    MoneyCodec.format(withdrawals.cents.sum())
+            );
+        }
+
+        static StatsWindowResponse empty(long index, long windowMillis) {
+            return new StatsWindowResponse(index * windowMillis, 0, MoneyCodec.format(0), 0, MoneyCodec.format(0), 0,
+                    MoneyCodec.format(0));
+        }
+    }
+}
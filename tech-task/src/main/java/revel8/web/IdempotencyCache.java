@@ -0,0 +1,189 @@
+package revel8.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import revel8.exception.IdempotencyKeyReuseException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response of every request sent with an {@code Idempotency-Key} header so that a
+ * retried request is answered with the original response instead of being applied again.
+ * <p>
+ * The first request with a given key runs the operation; duplicates that arrive while it is still
+ * running wait for its result. A failed operation is not remembered, so waiting duplicates see the
+ * same exception but a later retry runs again. Entries are dropped oldest first once there are more
+ * than {@code maxEntries} of them or once they are older than {@code ttl}, but never while their
+ * operation is still running, so that a duplicate cannot run it a second time.
+ */
+public class IdempotencyCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<KeyedEntry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    public IdempotencyCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this(maxEntries, ttl, meterRegistry, System::nanoTime);
+    }
+
+    IdempotencyCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+
+        this.hits = Counter.builder("bank.idempotency.requests")
+                .tag("result", "hit")
+                .description("Requests answered from the idempotency cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("bank.idempotency.requests")
+                .tag("result", "miss")
+                .description("Requests with an idempotency key that had to be executed")
+                .register(meterRegistry);
+        this.sizeEvictions = Counter.builder("bank.idempotency.evictions")
+                .tag("cause", "size")
+                .description("Idempotency cache entries dropped to stay within the size limit")
+                .register(meterRegistry);
+        this.expiredEvictions = Counter.builder("bank.idempotency.evictions")
+                .tag("cause", "expired")
+                .description("Idempotency cache entries dropped because they outlived the TTL")
+                .register(meterRegistry);
+        Gauge.builder("bank.idempotency.size", size, AtomicInteger::get)
+                .description("Entries currently held in the idempotency cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code operation} unless a request with the same key has already run, in which case its
+     * response is returned. {@code request} identifies what the key was used for; reusing a key for
+     * a different request is rejected.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> operation) {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            Entry created = new Entry(request, now);
+            Entry existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                misses.increment();
+                size.incrementAndGet();
+                insertionOrder.add(new KeyedEntry(key, created));
+                evict(now);
+                return (T) run(key, created, operation);
+            }
+            if (isExpired(existing, now) && existing.response.isDone()) {
+                if (remove(key, existing)) {
+                    expiredEvictions.increment();
+                }
+                continue;
+            }
+            if (!existing.request.equals(request)) {
+                throw new IdempotencyKeyReuseException(
+                        "Idempotency key " + key + " was already used for a different request");
+            }
+            hits.increment();
+            return (T) await(existing.response);
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private Object run(String key, Entry entry, Supplier<?> operation) {
+        Object response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException | Error e) {
+            remove(key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        entry.response.complete(response);
+        return response;
+    }
+
+    private static Object await(CompletableFuture<Object> response) {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Entries are queued in the order they were created, which is also the order in which they
+     * expire, so both limits are enforced by trimming the head of the queue. Trimming stops at an
+     * entry that is still running and resumes once it has finished.
+     */
+    private void evict(long now) {
+        KeyedEntry oldest;
+        while ((oldest = insertionOrder.peek()) != null) {
+            boolean expired = isExpired(oldest.entry, now);
+            if ((!expired && size.get() <= maxEntries) || !oldest.entry.response.isDone()) {
+                return;
+            }
+            if (!insertionOrder.remove(oldest)) {
+                continue;
+            }
+            if (remove(oldest.key, oldest.entry)) {
+                (expired ? expiredEvictions : sizeEvictions).increment();
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdNanos >= ttlNanos;
+    }
+
+    private boolean remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private static final class Entry {
+        final Object request;
+        final long createdNanos;
+        final CompletableFuture<Object> response = new CompletableFuture<>();
+
+        Entry(Object request, long createdNanos) {
+            this.request = request;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    private record KeyedEntry(String key, Entry entry) {
+    }
+}
@@ -0,0 +1,54 @@
+package revel8.web;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Counts requests that are currently being handled, which is capped by the Tomcat thread pool in
+ * platform-thread mode and by the connection limit in virtual-thread mode.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class InFlightRequestFilter extends OncePerRequestFilter {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAccumulator maxInFlight = new LongAccumulator(Math::max, 0);
+
+    public InFlightRequestFilter(MeterRegistry meterRegistry) {
+        Gauge.builder("bank.http.requests.inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently being handled")
+                .register(meterRegistry);
+        Gauge.builder("bank.http.requests.inflight.max", maxInFlight, LongAccumulator::get)
+                .description("Highest number of requests handled at the same time since startup")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        maxInFlight.accumulate(inFlight.incrementAndGet());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getMaxInFlight() {
+        return maxInFlight.get();
+    }
+}
@@ -0,0 +1,184 @@
+package revel8.async;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import revel8.dto.AsyncTransferResponse;
+import revel8.dto.AsyncTransferStatus;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.TransferRequest;
+import revel8.exception.TicketNotFoundException;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncTransferProcessorTest {
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    @Test
+    void testCompletedAndFailedTransfers() throws Exception {
+        AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        UUID alice = create(service, "alice@test.com", "10.00");
+        UUID bob = create(service, "bob@test.com", "0.00");
+        try (AsyncTransferProcessor processor = processor(service, 2, 1024, 64, new SimpleMeterRegistry())) {
+            AsyncTransferResponse submitted = processor.submit(new TransferRequest(alice, bob, "4.00"));
+            AsyncTransferResponse rejected = processor.submit(new TransferRequest(bob, alice, "5.00"));
+            assertEquals(AsyncTransferStatus.PENDING, submitted.status());
+
+            AsyncTransferResponse completed = processor.await(submitted.ticketId(), WAIT).get();
+            assertEquals(AsyncTransferStatus.COMPLETED, completed.status());
+            assertEquals("6.00", completed.transfer().resultingBalance());
+            assertEquals(completed, processor.poll(submitted.ticketId()));
+
+            AsyncTransferResponse failed = processor.await(rejected.ticketId(), WAIT).get();
+            assertEquals(AsyncTransferStatus.FAILED, failed.status());
+            assertEquals("Insufficient funds for transfer", failed.error());
+        }
+    }
+
+    @Test
+    void testPayrollIsBatchedInSubmissionOrder() throws Exception {
+        AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        UUID employer = create(service, "employer@test.com", "1000.00");
+        List<UUID> employees = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            employees.add(create(service, "employee" + i + "@test.com", "0.00"));
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<UUID> tickets = new ArrayList<>();
+        try (AsyncTransferProcessor processor = processor(service, 4, 4096, 64, registry)) {
+            for (int i = 0; i < 1_000; i++) {
+                tickets.add(processor.submit(new TransferRequest(employer, employees.get(i % 100), "1.00")).ticketId());
+            }
+            for (int i = 0; i < tickets.size(); i++) {
+                AsyncTransferResponse result = processor.await(tickets.get(i), WAIT).get();
+                assertEquals(AsyncTransferStatus.COMPLETED, result.status());
+                assertEquals((999 - i) + ".00", result.transfer().resultingBalance());
+            }
+        }
+
+        DistributionSummary batchSizes = registry.get("bank.async.batch.size").summary();
+        assertEquals(1_000, batchSizes.totalAmount());
+        assertTrue(batchSizes.count() <= 1_000);
+        assertEquals("10.00", service.findAccountsByEmail("employee0@test.com").get(0).balance());
+    }
+
+    @Test
+    void testFullQueueRejectsSubmissions() throws Exception {
+        AccountService service = mock(AccountService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(service.transferBatch(any())).thenAnswer(invocation -> {
+            release.await();
+            throw new IllegalStateException("Stopped");
+        });
+        try (AsyncTransferProcessor processor = processor(service, 1, 2, 1, new SimpleMeterRegistry())) {
+            TransferRequest request = new TransferRequest(UUID.randomUUID(), UUID.randomUUID(), "1.00");
+            UUID first = processor.submit(request).ticketId();
+            while (processor.queueDepth() > 0) {
+                Thread.onSpinWait();
+            }
+            processor.submit(request);
+            processor.submit(request);
+
+            assertEquals(2, processor.queueDepth());
+            assertThrows(RejectedExecutionException.class, () -> processor.submit(request));
+            assertEquals(AsyncTransferStatus.PENDING, processor.await(first, Duration.ofMillis(10)).get().status());
+            release.countDown();
+            assertEquals(AsyncTransferStatus.FAILED, processor.await(first, WAIT).get(10, TimeUnit.SECONDS).status());
+        }
+    }
+
+    @Test
+    void testErrorFailsItsBatchAndTheWorkerCarriesOn() throws Exception {
+        AccountService service = mock(AccountService.class);
+        when(service.transferBatch(any()))
+            .thenThrow(new Error("Worker error"))
+            .thenThrow(new IllegalStateException("Stopped"));
+        try (AsyncTransferProcessor processor = processor(service, 1, 16, 1, new SimpleMeterRegistry())) {
+            TransferRequest request = new TransferRequest(UUID.randomUUID(), UUID.randomUUID(), "1.00");
+            UUID first = processor.submit(request).ticketId();
+            UUID second = processor.submit(request).ticketId();
+
+            assertEquals("Worker error", processor.await(first, WAIT).get(10, TimeUnit.SECONDS).error());
+            assertEquals("Stopped", processor.await(second, WAIT).get(10, TimeUnit.SECONDS).error());
+        }
+    }
+
+    @Test
+    void testEveryTicketAcceptedBeforeCloseIsFinished() throws Exception {
+        AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        UUID alice = create(service, "alice@test.com", "1000000.00");
+        UUID bob = create(service, "bob@test.com", "0.00");
+        for (int round = 0; round < 20; round++) {
+            AsyncTransferProcessor processor = processor(service, 2, 1024, 16, new SimpleMeterRegistry());
+            List<UUID> accepted = Collections.synchronizedList(new ArrayList<>());
+            List<Thread> submitters = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                submitters.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        while (true) {
+                            accepted.add(processor.submit(new TransferRequest(alice, bob, "0.01")).ticketId());
+                        }
+                    } catch (RejectedExecutionException e) {
+                        // Closed, or the ring is full
+                    }
+                }));
+            }
+            Thread.sleep(2);
+            processor.close();
+            for (Thread submitter : submitters) {
+                submitter.join();
+            }
+
+            for (UUID ticket : accepted) {
+                assertNotEquals(AsyncTransferStatus.PENDING, processor.poll(ticket).status());
+            }
+        }
+    }
+
+    @Test
+    void testFinishedTicketsExpire() throws Exception {
+        AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        UUID alice = create(service, "alice@test.com", "10.00");
+        UUID bob = create(service, "bob@test.com", "0.00");
+        AtomicLong now = new AtomicLong();
+        try (AsyncTransferProcessor processor = new AsyncTransferProcessor(service, IdGenerator.RANDOM, 1, 16, 16,
+                Duration.ofSeconds(1), 100, new SimpleMeterRegistry(), now::get)) {
+            UUID old = processor.submit(new TransferRequest(alice, bob, "1.00")).ticketId();
+            processor.await(old, WAIT).get();
+
+            now.set(Duration.ofSeconds(2).toNanos());
+            UUID recent = processor.submit(new TransferRequest(alice, bob, "1.00")).ticketId();
+
+            assertThrows(TicketNotFoundException.class, () -> processor.poll(old));
+            assertEquals(AsyncTransferStatus.COMPLETED, processor.await(recent, WAIT).get().status());
+        }
+    }
+
+    private static AsyncTransferProcessor processor(AccountService service, int workers, int capacity, int batchSize,
+                                                    SimpleMeterRegistry registry) {
+        return new AsyncTransferProcessor(service, IdGenerator.RANDOM, workers, capacity, batchSize, Duration.ofMinutes(5),
+            1_000_000, registry);
+    }
+
+    private static UUID create(AccountService service, String email, String initialDeposit) {
+        return service.createAccount(new CreateAccountRequest("Test", email, 30, "City", initialDeposit)).accountId();
+    }
+}
@@ -0,0 +1,197 @@
+package revel8.audit;
+
+import org.junit.jupiter.api.Test;
+import revel8.dto.AmountRequest;
+import revel8.dto.BalanceAuditResponse;
+import revel8.dto.CityBalanceResponse;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.TransferRequest;
+import revel8.exception.AuditUnavailableException;
+import revel8.exception.InsufficientFundsException;
+import revel8.journal.AccountJournal;
+import revel8.model.TransferRecord;
+import revel8.repository.AccountRepository;
+import revel8.repository.ColumnarAccountRepository;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceAuditorTest {
+    private static final int ACCOUNTS = 10_000;
+    private static final int WORKERS = 4;
+
+    @Test
+    void testAuditTotalsPerCity() {
+        AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        UUID alice = create(service, "Riga", "10.00");
+        create(service, "Riga", "5.50");
+        create(service, "Tallinn", "1.00");
+
+        BalanceAuditResponse first = service.auditBalances();
+
+        assertEquals(1, first.epoch());
+        assertEquals(3, first.accounts());
+        assertEquals("16.50", first.totalBalance());
+        assertNull(first.netInflowSincePreviousAudit());
+        assertNull(first.discrepancy());
+        assertEquals(List.of(new CityBalanceResponse("Riga", 2, "15.50"), new CityBalanceResponse("Tallinn", 1, "1.00")),
+            first.cities());
+
+        service.deposit(alice, new AmountRequest("2.00"));
+        service.withdraw(alice, new AmountRequest("0.25"));
+        create(service, "Vilnius", "3.00");
+        BalanceAuditResponse second = service.auditBalances();
+
+        assertEquals(2, second.epoch());
+        assertEquals(4, second.accounts());
+        assertEquals("21.25", second.totalBalance());
+        assertEquals("4.75", second.netInflowSincePreviousAudit());
+        assertEquals("0.00", second.discrepancy());
+    }
+
+    @Test
+    void testFailedJournalWritesAddNoInflow() {
+        FailingJournal journal = new FailingJournal();
+        AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), journal);
+        UUID alice = create(service, "Riga", "10.00");
+        service.auditBalances();
+
+        journal.failing = true;
+        assertThrows(IllegalStateException.class, () -> service.deposit(alice, new AmountRequest("2.00")));
+        assertThrows(IllegalStateException.class, () -> service.withdraw(alice, new AmountRequest("1.00")));
+        BalanceAuditResponse audit = service.auditBalances();
+
+        assertEquals("10.00", audit.totalBalance());
+        assertEquals("0.00", audit.netInflowSincePreviousAudit());
+        assertEquals("0.00", audit.discrepancy());
+    }
+
+    @Test
+    void testAuditsDuringConcurrentUpdatesBalance() throws Exception {
+        auditDuringUpdates(new InMemoryAccountRepository());
+    }
+
+    @Test
+    void testAuditsDuringConcurrentUpdatesBalanceOnColumnarStore() throws Exception {
+        auditDuringUpdates(new ColumnarAccountRepository(64));
+    }
+
+    @Test
+    void testAuditUnavailableWithLockFreeUpdates() {
+        AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP, true);
+
+        assertThrows(AuditUnavailableException.class, service::auditBalances);
+    }
+
+    private static void auditDuringUpdates(AccountRepository repository) throws Exception {
+        AccountService service = new AccountServiceImpl(repository, AccountJournal.NO_OP);
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(create(service, "City " + i % 7, "100.00"));
+        }
+        assertEquals(ACCOUNTS + "00.00", service.auditBalances().totalBalance());
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < WORKERS; w++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (running.get()) {
+                        UUID from = accounts.get(random.nextInt(ACCOUNTS));
+                        UUID to = accounts.get(random.nextInt(ACCOUNTS));
+                        try {
+                            switch (random.nextInt(10)) {
+                                case 0 -> service.deposit(from, new AmountRequest("1.01"));
+                                case 1 -> service.withdraw(from, new AmountRequest("2.02"));
+                                case 2 -> create(service, "City new", "0.50");
+                                default -> {
+                                    if (!from.equals(to)) {
+                                        service.transfer(new TransferRequest(from, to, "3.03"));
+                                    }
+                                }
+                            }
+                        } catch (InsufficientFundsException e) {
+                            // Balances drift to zero now and then
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < 20; i++) {
+                BalanceAuditResponse audit = service.auditBalances();
+                assertEquals("0.00", audit.discrepancy(), () -> "Audit " + audit.epoch() + " is off");
+            }
+        } finally {
+            running.set(false);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        assertTrue(failures.isEmpty(), () -> "Worker failed: " + failures);
+        assertEquals("0.00", service.auditBalances().discrepancy());
+    }
+
+    private static UUID create(AccountService service, String city, String initialDeposit) {
+        return service.createAccount(new CreateAccountRequest("Test", "test@test.com", 30, city, initialDeposit)).accountId();
+    }
+
+    private static final class FailingJournal implements AccountJournal {
+        private volatile boolean failing;
+
+        @Override
+        public long logCreate(UUID accountId, String name, String email, int age, String city, long initialCents) {
+            return append();
+        }
+
+        @Override
+        public long logDeposit(UUID accountId, long amountInCents) {
+            return append();
+        }
+
+        @Override
+        public long logWithdraw(UUID accountId, long amountInCents) {
+            return append();
+        }
+
+        @Override
+        public long logTransfer(UUID fromAccountId, TransferRecord transfer) {
+            return append();
+        }
+
+        @Override
+        public long logTransferDebit(UUID fromAccountId, TransferRecord transfer) {
+            return append();
+        }
+
+        @Override
+        public long logTransferCredit(UUID transferId, UUID toAccountId, long amountInCents) {
+            return append();
+        }
+
+        @Override
+        public void awaitDurable(long sequence) {
+        }
+
+        private long append() {
+            if (failing) {
+                throw new IllegalStateException("Journal is full");
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package revel8.contention;
+
+import org.junit.jupiter.api.Test;
+import revel8.dto.HotAccountResponse;
+import revel8.model.Account;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotAccountTrackerTest {
+
+    @Test
+    void testKeepsHeavyHittersWithinErrorBounds() {
+        HotAccountTracker tracker = new HotAccountTracker(4, 1);
+        UUID merchant = UUID.randomUUID();
+        UUID payroll = UUID.randomUUID();
+        List<UUID> stream = new ArrayList<>();
+        Collections.addAll(stream, repeat(merchant, 300));
+        Collections.addAll(stream, repeat(payroll, 150));
+        for (int i = 0; i < 400; i++) {
+            stream.add(UUID.randomUUID());
+        }
+        Collections.shuffle(stream, new Random(42));
+
+        Map<UUID, Integer> actual = new HashMap<>();
+        ReentrantLock lock = new ReentrantLock();
+        for (UUID id : stream) {
+            tracker.recordContention(id, lock, 1_000, 1);
+            actual.merge(id, 1, Integer::sum);
+        }
+
+        List<HotAccountResponse> hottest = tracker.hottest(10);
+        assertEquals(4, hottest.size());
+        assertEquals(merchant, hottest.get(0).accountId());
+        assertEquals(payroll, hottest.get(1).accountId());
+        for (HotAccountResponse account : hottest) {
+            long trueCount = actual.get(account.accountId());
+            assertTrue(account.contendedAcquisitions() >= trueCount);
+            assertTrue(account.contendedAcquisitions() - account.contendedAcquisitionsError() <= trueCount);
+        }
+    }
+
+    @Test
+    void testReportsWaitPercentilesAndRate() {
+        AtomicLong clock = new AtomicLong(1_000_000_000L);
+        HotAccountTracker tracker = new HotAccountTracker(8, 4, clock::get);
+        UUID account = UUID.randomUUID();
+        ReentrantLock lock = new ReentrantLock();
+        for (int i = 0; i < 99; i++) {
+            tracker.recordContention(account, lock, 10_000, 3);
+        }
+        tracker.recordContention(account, lock, 2_000_000, 7);
+        clock.addAndGet(2_000_000_000L);
+
+        HotAccountResponse hot = tracker.hottest(1).get(0);
+        assertEquals(400, hot.contendedAcquisitions());
+        assertEquals(0, hot.contendedAcquisitionsError());
+        assertEquals(200.0, hot.acquisitionsPerSecond(), 0.001);
+        assertEquals(7, hot.maxQueueLength());
+        assertEquals(0, hot.queueLength());
+        assertTrue(hot.waitP50Micros() >= 10 && hot.waitP50Micros() <= 12.5, "p50 " + hot.waitP50Micros());
+        assertTrue(hot.waitP99Micros() >= 10 && hot.waitP99Micros() <= 12.5, "p99 " + hot.waitP99Micros());
+        assertEquals(2000.0, hot.waitMaxMicros(), 0.001);
+
+        tracker.reset();
+        assertTrue(tracker.hottest(1).isEmpty());
+    }
+
+    @Test
+    void testBucketsBoundWaitsWithinAQuarter() {
+        for (long nanos : new long[]{0, 1, 3, 4, 5, 7, 8, 1_000, 1_023, 1_024, 123_456_789, Long.MAX_VALUE}) {
+            long upper = HotAccountTracker.bucketUpperBound(HotAccountTracker.bucket(nanos));
+            assertTrue(upper >= nanos, nanos + " -> " + upper);
+            assertTrue(upper - nanos <= nanos / 4, nanos + " -> " + upper);
+        }
+    }
+
+    @Test
+    void testLockRecordsContendedAcquisition() throws Exception {
+        HotAccountTracker tracker = new HotAccountTracker(8, 1);
+        Account account = Account.builder().id(UUID.randomUUID()).build();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            tracker.lock(account);
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                account.getLock().unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+        Thread waiter = new Thread(() -> {
+            tracker.lock(account);
+            account.getLock().unlock();
+        });
+        waiter.start();
+        while (!account.getLock().hasQueuedThreads()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        holder.join();
+        waiter.join();
+
+        List<HotAccountResponse> hottest = tracker.hottest(10);
+        assertEquals(1, hottest.size());
+        assertEquals(account.getId(), hottest.get(0).accountId());
+        assertEquals(1, hottest.get(0).contendedAcquisitions());
+        assertTrue(HotAccountTracker.DISABLED.hottest(10).isEmpty());
+    }
+
+    private static UUID[] repeat(UUID id, int times) {
+        UUID[] ids = new UUID[times];
+        Arrays.fill(ids, id);
+        return ids;
+    }
+}
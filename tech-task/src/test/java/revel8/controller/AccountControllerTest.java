@@ -6,18 +6,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import revel8.dto.AccountPageResponse;
 import revel8.dto.AmountRequest;
 import revel8.dto.CreateAccountRequest;
 import revel8.dto.CreateAccountResponse;
+import revel8.dto.ScheduledTransferRequest;
+import revel8.dto.BatchMode;
+import revel8.dto.TransferBatchRequest;
 import revel8.dto.TransferRequest;
+import revel8.protocol.BinaryProtocol;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -200,5 +213,373 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.transfers[0].amount").value("20.00"));
     }
 
-}
+    @Test
+    void testTransferBatch() throws Exception {
+        CreateAccountRequest createReq1 = new CreateAccountRequest("Test User", "test@example.com", 30, "Test City", "100.00");
+        MvcResult result1 = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createReq1)))
+                .andReturn();
+        CreateAccountResponse acc1 = objectMapper.readValue(
+            result1.getResponse().getContentAsString(),
+            CreateAccountResponse.class
+        );
+        
+        CreateAccountRequest createReq2 = new CreateAccountRequest("Test User 2", "test2@example.com", 25, "Test City 2", "50.00");
+        MvcResult result2 = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createReq2)))
+                .andReturn();
+        CreateAccountResponse acc2 = objectMapper.readValue(
+            result2.getResponse().getContentAsString(),
+            CreateAccountResponse.class
+        );
+
+        TransferBatchRequest batchReq = new TransferBatchRequest(List.of(
+            new TransferRequest(acc1.accountId(), acc2.accountId(), "30.00"),
+            new TransferRequest(acc2.accountId(), acc1.accountId(), "500.00")
+        ), BatchMode.BEST_EFFORT);
 
+        mockMvc.perform(post("/api/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchReq)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$.results[0].transfer.resultingBalance").value("70.00"))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"));
+    }
+
+    @Test
+    void testTransferBatchRejectsInvalidItems() throws Exception {
+        TransferBatchRequest batchReq = new TransferBatchRequest(List.of(
+            new TransferRequest(UUID.randomUUID(), null, "30.00")
+        ), BatchMode.ATOMIC);
+
+        mockMvc.perform(post("/api/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchReq)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testRetriedTransferWithIdempotencyKeyIsAppliedOnce() throws Exception {
+        CreateAccountRequest createReq1 = new CreateAccountRequest("Test User", "test@example.com", 30, "Test City", "100.00");
+        MvcResult result1 = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createReq1)))
+                .andReturn();
+        CreateAccountResponse acc1 = objectMapper.readValue(
+            result1.getResponse().getContentAsString(),
+            CreateAccountResponse.class
+        );
+
+        CreateAccountRequest createReq2 = new CreateAccountRequest("Test User 2", "test2@example.com", 25, "Test City 2", "50.00");
+        MvcResult result2 = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createReq2)))
+                .andReturn();
+        CreateAccountResponse acc2 = objectMapper.readValue(
+            result2.getResponse().getContentAsString(),
+            CreateAccountResponse.class
+        );
+
+        String key = UUID.randomUUID().toString();
+        TransferRequest transferReq = new TransferRequest(acc1.accountId(), acc2.accountId(), "30.00");
+        String first = mockMvc.perform(post("/api/transfers")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transferReq)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resultingBalance").value("70.00"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/api/transfers")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transferReq)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(first, JsonCompareMode.STRICT));
+
+        mockMvc.perform(get("/api/accounts/" + acc1.accountId() + "/outgoing-transfers"))
+                .andExpect(jsonPath("$.transfers", hasSize(1)));
+
+        TransferRequest otherReq = new TransferRequest(acc1.accountId(), acc2.accountId(), "10.00");
+        mockMvc.perform(post("/api/transfers")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(otherReq)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testGetAccountsPagesWithCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            CreateAccountRequest request = new CreateAccountRequest("Page User " + i, "page" + i + "@example.com", 30, "Test City", "10.00");
+            mockMvc.perform(post("/api/accounts")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult firstResult = mockMvc.perform(get("/api/accounts").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts", hasSize(2)))
+                .andExpect(jsonPath("$.nextAfterId").exists())
+                .andReturn();
+        AccountPageResponse first = objectMapper.readValue(
+            firstResult.getResponse().getContentAsString(),
+            AccountPageResponse.class
+        );
+
+        mockMvc.perform(get("/api/accounts")
+                .param("limit", "2")
+                .param("afterId", first.nextAfterId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts[0].accountId").value(not(first.accounts().get(0).accountId().toString())))
+                .andExpect(jsonPath("$.accounts[0].accountId").value(not(first.accounts().get(1).accountId().toString())));
+
+        mockMvc.perform(get("/api/accounts").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/accounts").param("afterId", UUID.randomUUID().toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testStreamAccountsAsNdjson() throws Exception {
+        CreateAccountRequest request = new CreateAccountRequest("Stream User", "stream@example.com", 30, "Test City", "12.34");
+        MvcResult createResult = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        CreateAccountResponse account = objectMapper.readValue(
+            createResult.getResponse().getContentAsString(),
+            CreateAccountResponse.class
+        );
+
+        MvcResult streamResult = mockMvc.perform(get("/api/accounts/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(streamResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<CreateAccountResponse> lines = body.lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, CreateAccountResponse.class);
+                    } catch (Exception e) {
+                        throw new AssertionError(line, e);
+                    }
+                })
+                .toList();
+        assertTrue(body.endsWith("\n"));
+        assertTrue(lines.contains(account));
+    }
+
+    @Test
+    void testFindAccountsByEmailAndCity() throws Exception {
+        String city = "Index City " + UUID.randomUUID();
+        String email = "indexed-" + UUID.randomUUID() + "@example.com";
+        CreateAccountRequest request = new CreateAccountRequest("Indexed User", email, 44, city, "10.00");
+        mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/accounts").param("email", email.toUpperCase()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].email").value(email));
+
+        mockMvc.perform(get("/api/accounts").param("city", city))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts", hasSize(1)))
+                .andExpect(jsonPath("$.accounts[0].city").value(city))
+                .andExpect(jsonPath("$.nextAfterId").doesNotExist());
+
+        mockMvc.perform(get("/api/accounts").param("minAge", "44").param("maxAge", "44"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts[*].email", hasItem(email)));
+    }
+
+    @Test
+    void testTransferHistoryRequiresHistoryStore() throws Exception {
+        CreateAccountRequest request = new CreateAccountRequest("History User", "history@example.com", 30, "Test City", "10.00");
+        MvcResult createResult = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        CreateAccountResponse account = objectMapper.readValue(
+            createResult.getResponse().getContentAsString(),
+            CreateAccountResponse.class
+        );
+
+        mockMvc.perform(get("/api/accounts/" + account.accountId() + "/transfers").param("direction", "INCOMING"))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(get("/api/accounts/" + UUID.randomUUID() + "/transfers"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testOperationLatencyIsExposedAsMetric() throws Exception {
+        CreateAccountRequest request = new CreateAccountRequest("Metrics User", "metrics@example.com", 30, "Test City", "10.00");
+        mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/actuator/metrics/bank.operation").param("tag", "operation:create"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value", hasItem(greaterThanOrEqualTo(1.0))));
+        mockMvc.perform(get("/actuator/metrics/bank.accounts"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testHotAccountsEndpoint() throws Exception {
+        mockMvc.perform(get("/api/admin/hot-accounts").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sampleRate").isNumber())
+                .andExpect(jsonPath("$.accounts").isArray());
+        mockMvc.perform(get("/api/admin/hot-accounts").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/admin/hot-accounts"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testBinaryIngress() throws Exception {
+        CreateAccountRequest createReq = new CreateAccountRequest("Test User", "test@example.com", 30, "Test City", "100.00");
+        MvcResult createResult = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createReq)))
+                .andReturn();
+        UUID accountId = objectMapper.readValue(
+            createResult.getResponse().getContentAsString(),
+            CreateAccountResponse.class
+        ).accountId();
+        ByteBuffer frames = ByteBuffer.allocate(2 * (Integer.BYTES + BinaryProtocol.ACCOUNT_COMMAND_LENGTH));
+        BinaryProtocol.putDeposit(frames, accountId, 250);
+        BinaryProtocol.putWithdraw(frames, accountId, 50);
+
+        byte[] response = mockMvc.perform(post("/api/binary")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .accept(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(frames.array()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        ByteBuffer results = ByteBuffer.wrap(response);
+        assertEquals(10_250, results.getLong(Integer.BYTES + 1));
+        assertEquals(10_200, results.getLong(2 * Integer.BYTES + 1 + Long.BYTES + 1));
+
+        mockMvc.perform(post("/api/binary")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .accept(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOf(frames.array(), 10)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStripedAccountsEndpointWhenStripingIsOff() throws Exception {
+        mockMvc.perform(put("/api/admin/striped-accounts/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotImplemented());
+    }
+
+    @Test
+    void testBalanceAudit() throws Exception {
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/admin/balance-audit"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn()))
+                .andExpect(status().isOk());
+        CreateAccountRequest request = new CreateAccountRequest("Audit User", "audit@example.com", 30, "Audit City", "7.25");
+        mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        MvcResult audit = mockMvc.perform(post("/api/admin/balance-audit"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(audit))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.discrepancy").value("0.00"))
+                .andExpect(jsonPath("$.cities[?(@.city == 'Audit City')].totalBalance").value(hasItem("7.25")));
+    }
+
+    @Test
+    void testStats() throws Exception {
+        CreateAccountRequest request = new CreateAccountRequest("Stats User", "stats@example.com", 30, "Stats City", "3.00");
+        mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cities[?(@.city == 'Stats City')].totalBalance").value(hasItem("3.00")))
+                .andExpect(jsonPath("$.windowMillis").value(60000))
+                .andExpect(jsonPath("$.windows", hasSize(60)));
+    }
+
+    @Test
+    void testAsyncTransfer() throws Exception {
+        UUID from = createAccount("Async Sender", "async-sender@example.com", "20.00");
+        UUID to = createAccount("Async Recipient", "async-recipient@example.com", "0.00");
+
+        MvcResult submitted = mockMvc.perform(post("/api/transfers/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransferRequest(from, to, "7.50"))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn();
+        String ticketId = objectMapper.readTree(submitted.getResponse().getContentAsString()).get("ticketId").asText();
+
+        MvcResult poll = mockMvc.perform(get("/api/transfers/async/{ticketId}", ticketId).param("waitMillis", "10000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(poll))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.transfer.resultingBalance").value("12.50"));
+        mockMvc.perform(get("/api/transfers/async/{ticketId}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testScheduledTransfer() throws Exception {
+        UUID from = createAccount("Tenant", "tenant@example.com", "500.00");
+        UUID to = createAccount("Landlord", "landlord@example.com", "0.00");
+        ScheduledTransferRequest request = new ScheduledTransferRequest(from, to, "450.00",
+            Instant.now().plus(Duration.ofHours(1)), Duration.ofDays(30));
+
+        MvcResult scheduled = mockMvc.perform(post("/api/transfers/scheduled")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.amount").value("450.00"))
+                .andExpect(jsonPath("$.repeatEvery").value("PT720H"))
+                .andReturn();
+        String scheduleId = objectMapper.readTree(scheduled.getResponse().getContentAsString()).get("scheduleId").asText();
+
+        mockMvc.perform(get("/api/transfers/scheduled/{id}", scheduleId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completedRuns").value(0));
+        mockMvc.perform(delete("/api/transfers/scheduled/{id}", scheduleId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/transfers/scheduled/{id}", scheduleId))
+                .andExpect(status().isNotFound());
+    }
+
+    private UUID createAccount(String name, String email, String initialDeposit) throws Exception {
+        CreateAccountRequest request = new CreateAccountRequest(name, email, 30, "Test City", initialDeposit);
+        MvcResult result = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), CreateAccountResponse.class).accountId();
+    }
+}
@@ -0,0 +1,118 @@
+package revel8.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import revel8.dto.AmountRequest;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.CreateAccountResponse;
+import revel8.dto.TransferRequest;
+import revel8.dto.TransferResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+class ReactiveAccountControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void testDepositWithdrawAndTransfer() {
+        UUID from = create("reactive-from@example.com", "100.00");
+        UUID to = create("reactive-to@example.com", "0.00");
+
+        webTestClient.post().uri("/api/accounts/{id}/deposit", from)
+                .bodyValue(new AmountRequest("25.00"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.balance").isEqualTo("125.00");
+        webTestClient.post().uri("/api/accounts/{id}/withdraw", from)
+                .bodyValue(new AmountRequest("500.00"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        webTestClient.post().uri("/api/transfers")
+                .bodyValue(new TransferRequest(from, to, "5.00"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.resultingBalance").isEqualTo("120.00")
+                .jsonPath("$.recipientBalance").isEqualTo("5.00");
+    }
+
+    @Test
+    void testOutgoingTransfersAsJsonAndAsStream() {
+        UUID from = create("reactive-out@example.com", "100.00");
+        UUID to = create("reactive-in@example.com", "0.00");
+        for (int i = 1; i <= 3; i++) {
+            webTestClient.post().uri("/api/transfers")
+                    .bodyValue(new TransferRequest(from, to, i + ".00"))
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        webTestClient.get().uri("/api/accounts/{id}/outgoing-transfers", from)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.transfers.length()").isEqualTo(3);
+        List<TransferResponse> streamed = webTestClient.get().uri("/api/accounts/{id}/outgoing-transfers", from)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(TransferResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(List.of("3.00", "2.00", "1.00"), streamed.stream().map(TransferResponse::amount).toList());
+    }
+
+    @Test
+    void testStreamAccountsReadsEveryPage() {
+        UUID created = create("reactive-stream@example.com", "1.00");
+
+        List<CreateAccountResponse> streamed = webTestClient.get().uri("/api/accounts/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CreateAccountResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertTrue(streamed.stream().anyMatch(account -> account.accountId().equals(created)));
+        assertEquals(streamed.size(), streamed.stream().map(CreateAccountResponse::accountId).distinct().count());
+    }
+
+    @Test
+    void testValidationAndNotFound() {
+        webTestClient.post().uri("/api/accounts")
+                .bodyValue(new CreateAccountRequest("", "not-an-email", 30, "City", "1.00"))
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.post().uri("/api/accounts/{id}/deposit", UUID.randomUUID())
+                .bodyValue(new AmountRequest("1.00"))
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get().uri("/api/accounts?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private UUID create(String email, String initialDeposit) {
+        return webTestClient.post().uri("/api/accounts")
+                .bodyValue(new CreateAccountRequest("Reactive", email, 30, "City", initialDeposit))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CreateAccountResponse.class)
+                .returnResult()
+                .getResponseBody()
+                .accountId();
+    }
+}
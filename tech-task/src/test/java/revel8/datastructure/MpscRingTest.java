@@ -0,0 +1,86 @@
+package revel8.datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingTest {
+
+    @Test
+    void testFifoOrderAndCapacity() {
+        MpscRing<Integer> ring = new MpscRing<>(4);
+        assertTrue(ring.isEmpty());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, ring.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        assertTrue(ring.offer(4));
+        assertTrue(ring.offer(5));
+        assertTrue(ring.offer(6));
+        assertFalse(ring.offer(7));
+
+        drained.clear();
+        assertEquals(4, ring.drainTo(drained, 10));
+        assertEquals(List.of(3, 4, 5, 6), drained);
+        assertTrue(ring.isEmpty());
+        assertEquals(0, ring.drainTo(drained, 10));
+    }
+
+    @Test
+    void testCapacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new MpscRing<>(6));
+        assertThrows(IllegalArgumentException.class, () -> new MpscRing<>(0));
+    }
+
+    @Test
+    void testConcurrentProducersKeepPerProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRing<long[]> ring = new MpscRing<>(1024);
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(new long[] {producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        List<long[]> batch = new ArrayList<>();
+        while (received < producers * perProducer) {
+            batch.clear();
+            if (ring.drainTo(batch, 64) == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            for (long[] element : batch) {
+                assertEquals(nextExpected[(int) element[0]]++, element[1]);
+            }
+            received += batch.size();
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(ring.isEmpty());
+    }
+}
@@ -0,0 +1,72 @@
+package revel8.datastructure;
+
+import org.junit.jupiter.api.Test;
+import revel8.model.TransferRecord;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedRingBufferTest {
+
+    @Test
+    void testRecordsRoundTrip() {
+        PackedRingBuffer buffer = new PackedRingBuffer(5);
+        TransferRecord tr1 = new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), 1000, 1L, 9000);
+        TransferRecord tr2 = new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), 2000, 2L, 7000);
+
+        buffer.append(tr1);
+        buffer.append(tr2);
+
+        assertEquals(List.of(tr2, tr1), buffer.getRecentNewestFirst());
+    }
+
+    @Test
+    void testOverwriteWhenFull() {
+        PackedRingBuffer buffer = new PackedRingBuffer(3);
+        TransferRecord[] records = new TransferRecord[7];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), i, i, 100 - i);
+            buffer.append(records[i]);
+        }
+
+        assertEquals(List.of(records[6], records[5], records[4]), buffer.getRecentNewestFirst());
+        assertTrue(new PackedRingBuffer(3).getRecentNewestFirst().isEmpty());
+    }
+
+    @Test
+    void testReadersNeverSeeTornSnapshots() throws Exception {
+        PackedRingBuffer buffer = new PackedRingBuffer(8);
+        int appends = 200_000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get() && failure.get() == null) {
+                List<TransferRecord> snapshot = buffer.getRecentNewestFirst();
+                for (int i = 0; i < snapshot.size(); i++) {
+                    TransferRecord record = snapshot.get(i);
+                    // Every field of a record is derived from its timestamp, so a half-written slot shows
+                    if (record.amountInCents() != record.timestampMillis()
+                            || record.resultingBalanceInCents() != -record.timestampMillis()
+                            || record.toAccountId().getLeastSignificantBits() != record.timestampMillis()
+                            || (i > 0 && record.timestampMillis() != snapshot.get(i - 1).timestampMillis() - 1)) {
+                        failure.set("Torn snapshot: " + snapshot);
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < appends; i++) {
+            buffer.append(new TransferRecord(UUID.randomUUID(), new UUID(i, i), i, i, -i));
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(appends - 1, buffer.getRecentNewestFirst().get(0).timestampMillis());
+    }
+}
@@ -5,6 +5,8 @@ import revel8.model.TransferRecord;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -72,5 +74,32 @@ class RingBufferTest {
         assertEquals(tr3.transferId(), transfers.get(1).transferId());
         assertEquals(tr2.transferId(), transfers.get(2).transferId());
     }
-}
 
+    @Test
+    void testReadersNeverSeeTornSnapshots() throws Exception {
+        RingBuffer buffer = new RingBuffer(8);
+        int appends = 200_000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get() && failure.get() == null) {
+                List<TransferRecord> snapshot = buffer.getRecentNewestFirst();
+                for (int i = 1; i < snapshot.size(); i++) {
+                    if (snapshot.get(i).timestampMillis() != snapshot.get(i - 1).timestampMillis() - 1) {
+                        failure.set("Not consecutive: " + snapshot);
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < appends; i++) {
+            buffer.append(new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), 1, i, 0));
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(appends - 1, buffer.getRecentNewestFirst().get(0).timestampMillis());
+    }
+}
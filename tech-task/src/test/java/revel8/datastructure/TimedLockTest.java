@@ -0,0 +1,76 @@
+package revel8.datastructure;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedLockTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        TimedLock.bindTo(registry);
+    }
+
+    @Test
+    void testRecordsOnlyContendedWaits() throws Exception {
+        TimedLock lock = new TimedLock();
+        lock.lock();
+        lock.unlock();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+        Thread waiter = new Thread(() -> {
+            lock.lock();
+            lock.unlock();
+        });
+        waiter.start();
+        while (!lock.hasQueuedThreads()) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(20);
+        release.countDown();
+        holder.join();
+        waiter.join();
+
+        Timer wait = registry.get("bank.account.lock.wait").timer();
+        assertEquals(1, wait.count());
+        assertTrue(wait.max(TimeUnit.MILLISECONDS) >= 20);
+    }
+
+    @Test
+    void testSamplesHoldTimes() {
+        TimedLock lock = new TimedLock();
+        for (int i = 0; i < 2 * TimedLock.HOLD_SAMPLE_RATE; i++) {
+            lock.lock();
+            lock.lock();
+            lock.unlock();
+            lock.unlock();
+        }
+
+        assertEquals(2, registry.get("bank.account.lock.hold").timer().count());
+        assertEquals(0, registry.get("bank.account.lock.wait").timer().count());
+        assertFalse(lock.isLocked());
+    }
+}
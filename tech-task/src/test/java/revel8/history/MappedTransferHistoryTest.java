@@ -0,0 +1,112 @@
+package revel8.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.TransferDirection;
+import revel8.dto.TransferHistoryResponse;
+import revel8.dto.TransferRequest;
+import revel8.journal.AccountJournal;
+import revel8.model.TransferRecord;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTransferHistoryTest {
+
+    // Room for 10 records per segment
+    private static final int SEGMENT_SIZE = Long.BYTES + 10 * MappedTransferHistory.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPagesThroughBothDirectionsAcrossSegments() throws Exception {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        try (MappedTransferHistory history = MappedTransferHistory.open(directory, SEGMENT_SIZE, false)) {
+            for (int i = 1; i <= 25; i++) {
+                history.record(alice, transfer(bob, i));
+                history.record(carol, transfer(bob, 1000 + i));
+            }
+
+            List<Long> amounts = new ArrayList<>();
+            long before = Long.MAX_VALUE;
+            List<HistoryEntry> page;
+            do {
+                page = history.read(alice, TransferDirection.OUTGOING, before, 7);
+                page.forEach(entry -> amounts.add(entry.amountInCents()));
+                before = page.isEmpty() ? 0 : page.get(page.size() - 1).position();
+            } while (page.size() == 7);
+
+            assertEquals(25, amounts.size());
+            for (int i = 0; i < 25; i++) {
+                assertEquals(25 - i, amounts.get(i));
+            }
+
+            List<HistoryEntry> incoming = history.read(bob, TransferDirection.INCOMING, Long.MAX_VALUE, 100);
+            assertEquals(50, incoming.size());
+            assertEquals(carol, incoming.get(0).fromAccountId());
+            assertEquals(1025, incoming.get(0).amountInCents());
+            assertTrue(history.read(bob, TransferDirection.OUTGOING, Long.MAX_VALUE, 100).isEmpty());
+        }
+    }
+
+    @Test
+    void testReopenRebuildsIndex() throws Exception {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        try (MappedTransferHistory history = MappedTransferHistory.open(directory, SEGMENT_SIZE, false)) {
+            for (int i = 1; i <= 15; i++) {
+                history.record(alice, transfer(bob, i));
+            }
+        }
+
+        try (MappedTransferHistory history = MappedTransferHistory.open(directory, SEGMENT_SIZE, false)) {
+            assertEquals(15, history.size());
+            history.record(alice, transfer(bob, 16));
+            List<HistoryEntry> newest = history.read(alice, TransferDirection.OUTGOING, Long.MAX_VALUE, 3);
+            assertEquals(List.of(16L, 15L, 14L), newest.stream().map(HistoryEntry::amountInCents).toList());
+            assertEquals(16, history.read(bob, TransferDirection.INCOMING, Long.MAX_VALUE, 100).size());
+        }
+
+        try (MappedTransferHistory history = MappedTransferHistory.open(directory, SEGMENT_SIZE, true)) {
+            assertEquals(0, history.size());
+            assertTrue(history.read(alice, TransferDirection.OUTGOING, Long.MAX_VALUE, 100).isEmpty());
+        }
+    }
+
+    @Test
+    void testServiceKeepsHistoryBeyondInMemoryLimit() throws Exception {
+        try (MappedTransferHistory history = MappedTransferHistory.open(directory, SEGMENT_SIZE, false)) {
+            AccountServiceImpl service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP, false, history);
+            UUID alice = service.createAccount(new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "1000.00")).accountId();
+            UUID bob = service.createAccount(new CreateAccountRequest("Bob", "bob@test.com", 30, "Town", "0.00")).accountId();
+            for (int i = 0; i < 60; i++) {
+                service.transfer(new TransferRequest(alice, bob, "1.00"));
+            }
+
+            assertEquals(50, service.getOutgoingTransfers(alice).transfers().size());
+            TransferHistoryResponse first = service.getTransferHistory(alice, TransferDirection.OUTGOING, null, 40);
+            assertEquals(40, first.transfers().size());
+            assertEquals("940.00", first.transfers().get(0).senderBalance());
+            assertEquals("979.00", first.transfers().get(39).senderBalance());
+            TransferHistoryResponse second = service.getTransferHistory(alice, TransferDirection.OUTGOING, first.nextBefore(), 40);
+            assertEquals(20, second.transfers().size());
+            assertNull(second.nextBefore());
+            assertEquals("999.00", second.transfers().get(19).senderBalance());
+            assertEquals(60, service.getTransferHistory(bob, TransferDirection.INCOMING, null, 100).transfers().size());
+        }
+    }
+
+    private static TransferRecord transfer(UUID to, long cents) {
+        return new TransferRecord(UUID.randomUUID(), to, cents, System.currentTimeMillis(), 0);
+    }
+}
@@ -0,0 +1,194 @@
+package revel8.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import revel8.dto.AmountRequest;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.TransferRequest;
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+import revel8.repository.AccountRepository;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+import revel8.service.impl.ShardedAccountService;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplayRestoresBalancesAndHistory() throws Exception {
+        UUID aliceId;
+        UUID bobId;
+        try (MappedFileJournal journal = open(new InMemoryAccountRepository())) {
+            AccountServiceImpl service = new AccountServiceImpl(new InMemoryAccountRepository(), journal);
+            aliceId = service.createAccount(new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "100.00")).accountId();
+            bobId = service.createAccount(new CreateAccountRequest("Bob", "bob@test.com", 30, "Town", "50.00")).accountId();
+            service.deposit(aliceId, new AmountRequest("10.00"));
+            service.withdraw(bobId, new AmountRequest("5.00"));
+            service.transfer(new TransferRequest(aliceId, bobId, "30.00"));
+        }
+
+        InMemoryAccountRepository recovered = new InMemoryAccountRepository();
+        try (MappedFileJournal ignored = open(recovered)) {
+            Account alice = recovered.findById(aliceId).orElseThrow();
+            Account bob = recovered.findById(bobId).orElseThrow();
+
+            assertEquals(8000, alice.getBalanceInCents());
+            assertEquals(7500, bob.getBalanceInCents());
+            assertEquals("Town", bob.getCity());
+            assertEquals(1, alice.getOutgoing().getRecentNewestFirst().size());
+            assertEquals(8000, alice.getOutgoing().getRecentNewestFirst().get(0).resultingBalanceInCents());
+        }
+    }
+
+    @Test
+    void testReplayAcrossSegmentsAfterConcurrentWrites() throws Exception {
+        UUID accountId;
+        int threads = 8;
+        int depositsPerThread = 200;
+        try (MappedFileJournal journal = open(new InMemoryAccountRepository())) {
+            AccountServiceImpl service = new AccountServiceImpl(new InMemoryAccountRepository(), journal);
+            accountId = service.createAccount(new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "0.00")).accountId();
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        service.deposit(accountId, new AmountRequest("0.01"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+        }
+
+        assertTrue(MappedFileJournal.listSegments(directory).size() > 1);
+
+        InMemoryAccountRepository recovered = new InMemoryAccountRepository();
+        try (MappedFileJournal ignored = open(recovered)) {
+            assertEquals((long) threads * depositsPerThread, recovered.findById(accountId).orElseThrow().getBalanceInCents());
+        }
+    }
+
+    @Test
+    void testAppendContinuesAfterReopen() throws Exception {
+        UUID accountId;
+        try (MappedFileJournal journal = open(new InMemoryAccountRepository())) {
+            AccountServiceImpl service = new AccountServiceImpl(new InMemoryAccountRepository(), journal);
+            accountId = service.createAccount(new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "1.00")).accountId();
+        }
+
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        try (MappedFileJournal journal = open(repository)) {
+            new AccountServiceImpl(repository, journal).deposit(accountId, new AmountRequest("2.00"));
+        }
+
+        InMemoryAccountRepository recovered = new InMemoryAccountRepository();
+        try (MappedFileJournal journal = open(recovered)) {
+            assertEquals(300, recovered.findById(accountId).orElseThrow().getBalanceInCents());
+            assertEquals(2, journal.getDurableSequence());
+        }
+    }
+
+    @Test
+    void testReplayCompletesDebitWithoutCredit() throws Exception {
+        UUID aliceId;
+        UUID bobId;
+        try (MappedFileJournal journal = open(new InMemoryAccountRepository())) {
+            AccountServiceImpl service = new AccountServiceImpl(new InMemoryAccountRepository(), journal);
+            aliceId = service.createAccount(new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "100.00")).accountId();
+            bobId = service.createAccount(new CreateAccountRequest("Bob", "bob@test.com", 30, "Town", "0.00")).accountId();
+            journal.awaitDurable(journal.logTransferDebit(aliceId, new TransferRecord(UUID.randomUUID(), bobId, 4000, 1L, 6000)));
+        }
+
+        InMemoryAccountRepository recovered = new InMemoryAccountRepository();
+        JournalReplayer replayer = new JournalReplayer(recovered);
+        try (MappedFileJournal journal = MappedFileJournal.open(directory, SEGMENT_SIZE, Duration.ofMillis(1), replayer)) {
+            assertEquals(1, replayer.completePendingCredits(journal));
+            assertEquals(6000, recovered.findById(aliceId).orElseThrow().getBalanceInCents());
+            assertEquals(4000, recovered.findById(bobId).orElseThrow().getBalanceInCents());
+        }
+
+        InMemoryAccountRepository reopened = new InMemoryAccountRepository();
+        replayer = new JournalReplayer(reopened);
+        try (MappedFileJournal journal = MappedFileJournal.open(directory, SEGMENT_SIZE, Duration.ofMillis(1), replayer)) {
+            assertEquals(0, replayer.completePendingCredits(journal));
+            assertEquals(4000, reopened.findById(bobId).orElseThrow().getBalanceInCents());
+        }
+    }
+
+    @Test
+    void testReplayAfterDepositRacingCreation() throws Exception {
+        assertReplayAfterDepositRacingCreation(AccountServiceImpl::new);
+    }
+
+    @Test
+    void testReplayAfterDepositRacingCreationOnShardedEngine() throws Exception {
+        assertReplayAfterDepositRacingCreation((repository, journal) -> new ShardedAccountService(repository, journal, 2));
+    }
+
+    private void assertReplayAfterDepositRacingCreation(
+            BiFunction<AccountRepository, AccountJournal, AccountService> engine) throws Exception {
+        UUID accountId;
+        try (MappedFileJournal journal = open(new InMemoryAccountRepository())) {
+            RacingRepository repository = new RacingRepository();
+            AccountService service = engine.apply(repository, journal);
+            repository.service = service;
+            accountId = service.createAccount(new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "1.00")).accountId();
+            repository.depositor.join();
+            assertEquals("3.00", service.findAccountsByEmail("alice@test.com").get(0).balance());
+            if (service instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+
+        InMemoryAccountRepository recovered = new InMemoryAccountRepository();
+        try (MappedFileJournal ignored = open(recovered)) {
+            assertEquals(300, recovered.findById(accountId).orElseThrow().getBalanceInCents());
+        }
+    }
+
+    /**
+     * Deposits into every account as soon as it is published, and lets the creator carry on only
+     * once the deposit has completed or is waiting for the account's lock.
+     */
+    private static final class RacingRepository extends InMemoryAccountRepository {
+        private volatile AccountService service;
+        private volatile Thread depositor;
+
+        @Override
+        public Account createLocked(UUID id, String name, String email, Integer age, String city, long initialCents) {
+            Account account = super.createLocked(id, name, email, age, city, initialCents);
+            depositor = Thread.ofPlatform().start(() -> service.deposit(account.getId(), new AmountRequest("2.00")));
+            while (depositor.isAlive() && !account.getLock().hasQueuedThreads()) {
+                Thread.onSpinWait();
+            }
+            return account;
+        }
+    }
+
+    private MappedFileJournal open(InMemoryAccountRepository repository) throws Exception {
+        return MappedFileJournal.open(directory, SEGMENT_SIZE, Duration.ofMillis(1), new JournalReplayer(repository));
+    }
+}
@@ -0,0 +1,127 @@
+package revel8.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import revel8.Application;
+import revel8.web.InFlightRequestFilter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the real HTTP stack with many concurrent clients, once with Tomcat on platform threads and
+ * once on virtual threads. The journal is enabled so every request blocks on a group commit, which
+ * is where a bounded worker pool starts queueing. Run with {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+class RequestExecutionLoadTest {
+    private static final int TOMCAT_THREADS = 32;
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int ACCOUNTS = 100;
+    private static final Pattern ACCOUNT_ID = Pattern.compile("\"accountId\":\"([0-9a-f-]+)\"");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testVirtualThreadsRaiseConcurrency() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        System.out.printf("%-9s %10s %10s %12s%n", "mode", "p50 (ms)", "p99 (ms)", "max inflight");
+        System.out.println(platform.format("platform"));
+        System.out.println(virtual.format("virtual"));
+
+        assertTrue(platform.maxInFlight() <= TOMCAT_THREADS);
+        assertTrue(virtual.maxInFlight() > TOMCAT_THREADS);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (var context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(Application.class)
+                .run(
+                        "--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--bank.journal.enabled=true",
+                        "--bank.journal.commit-window=20ms",
+                        "--bank.journal.directory=" + directory.resolve(mode).resolve("journal"),
+                        "--bank.snapshot.directory=" + directory.resolve(mode).resolve("snapshots"));
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort() + "/api/accounts";
+
+            List<UUID> accounts = new ArrayList<>();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                String body = post(client, baseUrl,
+                        "{\"name\":\"Load\",\"email\":\"load@test.com\",\"age\":30,\"city\":\"City\",\"initialDeposit\":\"0.00\"}", 201);
+                Matcher matcher = ACCOUNT_ID.matcher(body);
+                assertTrue(matcher.find());
+                accounts.add(UUID.fromString(matcher.group(1)));
+            }
+
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientIndex = c;
+                futures.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        UUID accountId = accounts.get((clientIndex + i) % ACCOUNTS);
+                        long start = System.nanoTime();
+                        post(client, baseUrl + "/" + accountId + "/deposit", "{\"amount\":\"0.01\"}", 200);
+                        latencies[clientIndex * REQUESTS_PER_CLIENT + i] = System.nanoTime() - start;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            Arrays.sort(latencies);
+            return new LoadResult(
+                    percentile(latencies, 0.50),
+                    percentile(latencies, 0.99),
+                    context.getBean(InFlightRequestFilter.class).getMaxInFlight()
+            );
+        }
+    }
+
+    private static String post(HttpClient client, String url, String json, int expectedStatus) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(expectedStatus, response.statusCode(), response.body());
+        return response.body();
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private record LoadResult(long p50Nanos, long p99Nanos, long maxInFlight) {
+
+        String format(String mode) {
+            return String.format("%-9s %10.2f %10.2f %12d", mode, p50Nanos / 1e6, p99Nanos / 1e6, maxInFlight);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package revel8.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import revel8.Application;
+import revel8.dto.CreateAccountRequest;
+import revel8.service.AccountService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fans out concurrent balance checks, as a gateway would, against the servlet stack and against
+ * the reactive stack, and prints throughput and latency for both. Every request must succeed.
+ * Run with {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+class WebStackLoadTest {
+    private static final int TOMCAT_THREADS = 32;
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int ACCOUNTS = 100;
+
+    @Test
+    void testReactiveStackServesConcurrentBalanceChecks() throws Exception {
+        LoadResult servlet = run("servlet");
+        LoadResult reactive = run("reactive");
+
+        System.out.printf("%-9s %10s %10s %10s%n", "stack", "req/s", "p50 (ms)", "p99 (ms)");
+        System.out.println(servlet.format("servlet"));
+        System.out.println(reactive.format("reactive"));
+    }
+
+    private LoadResult run(String stack) throws Exception {
+        try (var context = new SpringApplicationBuilder(Application.class)
+                .run(
+                        "--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.main.web-application-type=" + stack,
+                        "--logging.level.root=WARN");
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            AccountService accountService = context.getBean(AccountService.class);
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accountService.createAccount(new CreateAccountRequest("Load", "load" + i + "@test.com", 30, "City", "10.00"));
+            }
+
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientIndex = c;
+                futures.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        URI uri = URI.create("http://localhost:" + port + "/api/accounts?email=load"
+                                + (clientIndex + i) % ACCOUNTS + "@test.com");
+                        long requestStart = System.nanoTime();
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                                HttpResponse.BodyHandlers.ofString());
+                        latencies[clientIndex * REQUESTS_PER_CLIENT + i] = System.nanoTime() - requestStart;
+                        assertEquals(200, response.statusCode(), response.body());
+                        assertTrue(response.body().contains("\"balance\":\"10.00\""), response.body());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            return new LoadResult(latencies.length * 1e9 / elapsed, percentile(latencies, 0.50), percentile(latencies, 0.99));
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private record LoadResult(double requestsPerSecond, long p50Nanos, long p99Nanos) {
+
+        String format(String stack) {
+            return String.format("%-9s %10.0f %10.2f %10.2f", stack, requestsPerSecond, p50Nanos / 1e6, p99Nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package revel8.money;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.CharRange;
+import net.jqwik.api.constraints.Chars;
+import net.jqwik.api.constraints.StringLength;
+import revel8.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyCodecTest {
+
+    @Property(tries = 5000)
+    void testParsesPlainDecimalsLikeBigDecimal(@ForAll("plainDecimals") String amount) {
+        assertSameAsReference(amount);
+    }
+
+    @Property(tries = 5000)
+    void testParsesExponentsLikeBigDecimal(@ForAll("exponentDecimals") String amount) {
+        assertSameAsReference(amount);
+    }
+
+    @Property(tries = 5000)
+    void testRejectsMalformedInputLikeBigDecimal(
+            @ForAll @CharRange(from = '0', to = '9') @Chars({'.', '-', '+', ' ', 'x'}) @StringLength(max = 24) String amount) {
+        assertSameAsReference(amount);
+    }
+
+    @Property(tries = 5000)
+    void testFormatsLikeStringFormat(@ForAll long cents) {
+        String expected = String.format("%d.%02d", cents / 100, Math.abs(cents % 100));
+
+        assertEquals(expected, MoneyCodec.format(cents));
+
+        byte[] buffer = new byte[32];
+        int start = MoneyCodec.formatTo(cents, buffer, buffer.length);
+        assertEquals(expected, new String(buffer, start, buffer.length - start, StandardCharsets.US_ASCII));
+    }
+
+    @Example
+    void testRoundsHalfEven() {
+        assertEquals(0, MoneyCodec.parseCents("0.005"));
+        assertEquals(2, MoneyCodec.parseCents("0.015"));
+        assertEquals(1, MoneyCodec.parseCents("0.0051"));
+        assertEquals(-2, MoneyCodec.parseCents("-0.025"));
+        assertEquals(10, MoneyCodec.parseCents(".1"));
+        assertEquals(100, MoneyCodec.parseCents("1."));
+    }
+
+    @Example
+    void testRejectsOverflow() {
+        assertEquals(Long.MAX_VALUE, MoneyCodec.parseCents("92233720368547758.07"));
+        assertThrows(InvalidAmountException.class, () -> MoneyCodec.parseCents("92233720368547758.08"));
+        assertThrows(InvalidAmountException.class, () -> MoneyCodec.parseCents("1e999999999"));
+        assertEquals(0, MoneyCodec.parseCents("1e-999999999"));
+    }
+
+    @Example
+    void testRejectsMissingDigits() {
+        assertThrows(InvalidAmountException.class, () -> MoneyCodec.parseCents(""));
+        assertThrows(InvalidAmountException.class, () -> MoneyCodec.parseCents("."));
+        assertThrows(InvalidAmountException.class, () -> MoneyCodec.parseCents("-"));
+        assertThrows(InvalidAmountException.class, () -> MoneyCodec.parseCents(null));
+    }
+
+    @Provide
+    Arbitrary<String> plainDecimals() {
+        return Arbitraries.integers().between(0, 6).flatMap(scale -> Arbitraries.bigDecimals()
+                .between(new BigDecimal("-1e18"), new BigDecimal("1e18"))
+                .ofScale(scale)
+                .map(BigDecimal::toPlainString));
+    }
+
+    @Provide
+    Arbitrary<String> exponentDecimals() {
+        return Combinators.combine(
+                Arbitraries.bigDecimals().between(new BigDecimal("-1e6"), new BigDecimal("1e6")).ofScale(4),
+                Arbitraries.of("e", "E", "e+", "e-"),
+                Arbitraries.integers().between(0, 30)
+        ).as((mantissa, marker, exponent) -> mantissa.toPlainString() + marker + exponent);
+    }
+
+    private static void assertSameAsReference(String amount) {
+        Long expected;
+        try {
+            expected = new BigDecimal(amount)
+                    .setScale(2, RoundingMode.HALF_EVEN)
+                    .movePointRight(2)
+                    .longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            expected = null;
+        }
+
+        if (expected == null) {
+            assertThrows(InvalidAmountException.class, () -> MoneyCodec.parseCents(amount), amount);
+        } else {
+            assertEquals(expected, MoneyCodec.parseCents(amount), amount);
+        }
+    }
+}
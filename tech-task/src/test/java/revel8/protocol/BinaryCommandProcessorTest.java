@@ -0,0 +1,140 @@
+package revel8.protocol;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import revel8.dto.CreateAccountRequest;
+import revel8.exception.InvalidFrameException;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static revel8.protocol.BinaryProtocol.*;
+
+class BinaryCommandProcessorTest {
+
+    private AccountService accountService;
+    private BinaryCommandProcessor processor;
+    private UUID alice;
+    private UUID bob;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        processor = new BinaryCommandProcessor(accountService);
+        alice = create("alice@test.com", "100.00");
+        bob = create("bob@test.com", "0.00");
+    }
+
+    @Test
+    void testPipelinedCommandsAnswerInOrder() {
+        ByteBuffer request = ByteBuffer.allocate(256);
+        putDeposit(request, alice, 50);
+        putWithdraw(request, alice, 1_000);
+        putTransfer(request, alice, bob, 2_525);
+
+        ByteBuffer response = ByteBuffer.wrap(processor.process(Arrays.copyOf(request.array(), request.position())));
+
+        assertEquals(1 + Long.BYTES, response.getInt());
+        assertEquals(OK, response.get());
+        assertEquals(10_050, response.getLong());
+
+        assertEquals(1 + Long.BYTES, response.getInt());
+        assertEquals(OK, response.get());
+        assertEquals(9_050, response.getLong());
+
+        assertEquals(1 + 4 * Long.BYTES, response.getInt());
+        assertEquals(OK, response.get());
+        UUID transferId = new UUID(response.getLong(), response.getLong());
+        assertEquals(6_525, response.getLong());
+        assertEquals(2_525, response.getLong());
+        assertFalse(response.hasRemaining());
+        assertEquals(transferId, accountService.getOutgoingTransfers(alice).transfers().get(0).transferId());
+    }
+
+    @Test
+    void testFailedCommandDoesNotStopTheRest() {
+        ByteBuffer request = ByteBuffer.allocate(256);
+        putWithdraw(request, bob, 1);
+        putDeposit(request, UUID.randomUUID(), 1);
+        putTransfer(request, alice, alice, 1);
+        request.putInt(1).put((byte) 42);
+        putDeposit(request, bob, 0);
+        putDeposit(request, bob, 7);
+
+        ByteBuffer response = ByteBuffer.wrap(processor.process(Arrays.copyOf(request.array(), request.position())));
+
+        assertEquals(INSUFFICIENT_FUNDS, error(response).status());
+        assertEquals(ACCOUNT_NOT_FOUND, error(response).status());
+        assertEquals(INVALID_TRANSFER, error(response).status());
+        assertEquals(new Error(UNKNOWN_COMMAND, "Unknown command 42"), error(response));
+        assertEquals(INVALID_AMOUNT, error(response).status());
+        assertEquals(1 + Long.BYTES, response.getInt());
+        assertEquals(OK, response.get());
+        assertEquals(7, response.getLong());
+    }
+
+    @Test
+    void testUnexpectedFailureOnlyFailsItsFrame() {
+        AccountService failing = spy(accountService);
+        doThrow(new RejectedExecutionException("Shard queue is full")).when(failing).deposit(eq(bob), any());
+        ByteBuffer request = ByteBuffer.allocate(256);
+        putDeposit(request, alice, 100);
+        putDeposit(request, bob, 100);
+        putDeposit(request, alice, 100);
+
+        byte[] body = new BinaryCommandProcessor(failing).process(Arrays.copyOf(request.array(), request.position()));
+        ByteBuffer response = ByteBuffer.wrap(body);
+
+        assertEquals(1 + Long.BYTES, response.getInt());
+        assertEquals(OK, response.get());
+        assertEquals(10_100, response.getLong());
+        assertEquals(new Error(FAILED, "Shard queue is full"), error(response));
+        assertEquals(1 + Long.BYTES, response.getInt());
+        assertEquals(OK, response.get());
+        assertEquals(10_200, response.getLong());
+        assertFalse(response.hasRemaining());
+    }
+
+    @Test
+    void testTruncatedBodyIsRejectedBeforeAnyCommandRuns() {
+        ByteBuffer request = ByteBuffer.allocate(256);
+        putDeposit(request, alice, 100);
+        putDeposit(request, alice, 100);
+        byte[] truncated = Arrays.copyOf(request.array(), request.position() - 1);
+
+        assertThrows(InvalidFrameException.class, () -> processor.process(truncated));
+        assertEquals("100.00", accountService.findAccountsByEmail("alice@test.com").get(0).balance());
+    }
+
+    @Test
+    void testEmptyBodyGivesEmptyResponse() {
+        assertEquals(0, processor.process(new byte[0]).length);
+    }
+
+    private UUID create(String email, String initialDeposit) {
+        return accountService.createAccount(new CreateAccountRequest("Test", email, 30, "City", initialDeposit)).accountId();
+    }
+
+    private static Error error(ByteBuffer response) {
+        int length = response.getInt();
+        byte status = response.get();
+        byte[] message = new byte[length - 1];
+        response.get(message);
+        return new Error(status, new String(message, StandardCharsets.UTF_8));
+    }
+
+    private record Error(byte status, String message) {
+    }
+}
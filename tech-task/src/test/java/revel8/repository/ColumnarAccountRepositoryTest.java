@@ -0,0 +1,224 @@
+package revel8.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import revel8.dto.BatchMode;
+import revel8.dto.TransferBatchRequest;
+import revel8.dto.TransferRequest;
+import revel8.exception.InsufficientFundsException;
+import revel8.journal.AccountJournal;
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarAccountRepositoryTest {
+
+    private ColumnarAccountRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ColumnarAccountRepository(16);
+    }
+
+    @Test
+    void testCreateAndFindById() {
+        Account account = repository.create("Zoë", "zoe@example.com", 30, "Zürich", 10000);
+
+        Account found = repository.findById(account.getId()).orElseThrow();
+        assertEquals(account.getId(), found.getId());
+        assertEquals("Zoë", found.getName());
+        assertEquals("zoe@example.com", found.getEmail());
+        assertEquals(30, found.getAge());
+        assertEquals("Zürich", found.getCity());
+        assertEquals(10000, found.getBalanceInCents());
+        assertTrue(repository.findById(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void testViewsShareState() {
+        Account account = repository.create("Test", "test@example.com", 30, "City", 0);
+        Account other = repository.findById(account.getId()).orElseThrow();
+
+        account.setBalanceInCents(500);
+        account.setJournalSequence(7);
+        account.getOutgoing().append(new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), 100, 1L, 400));
+
+        assertEquals(500, other.getBalanceInCents());
+        assertEquals(7, other.getJournalSequence());
+        assertEquals(1, other.getOutgoing().getRecentNewestFirst().size());
+        assertSame(account.getLock(), other.getLock());
+    }
+
+    @Test
+    void testSaveReplacesExistingAccount() {
+        Account created = repository.create("Old", "old@example.com", 30, "City", 100);
+        Account replacement = Account.builder()
+                .id(created.getId())
+                .name("New")
+                .email("new@example.com")
+                .age(40)
+                .city("Town")
+                .balanceInCents(900)
+                .journalSequence(3)
+                .build();
+        replacement.getOutgoing().append(new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), 1, 1L, 1));
+        replacement.getOutgoing().append(new TransferRecord(UUID.randomUUID(), UUID.randomUUID(), 2, 2L, 2));
+
+        repository.save(replacement);
+
+        Account found = repository.findById(created.getId()).orElseThrow();
+        assertEquals("New", found.getName());
+        assertEquals("Town", found.getCity());
+        assertEquals(900, found.getBalanceInCents());
+        assertEquals(3, found.getJournalSequence());
+        assertEquals(2, found.getOutgoing().getRecentNewestFirst().get(0).amountInCents());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    void testManyAccountsAcrossPages() {
+        int count = 150_000;
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(repository.create("Name " + i, "user" + i + "@example.com", 20 + i % 50, "City " + i % 10, i).getId());
+        }
+
+        for (int i = 0; i < count; i += 997) {
+            Account account = repository.findById(ids.get(i)).orElseThrow();
+            assertEquals(i, account.getBalanceInCents());
+            assertEquals("user" + i + "@example.com", account.getEmail());
+            assertEquals("City " + i % 10, account.getCity());
+        }
+
+        Set<UUID> seen = new HashSet<>();
+        for (Account account : repository.findAll()) {
+            seen.add(account.getId());
+        }
+        assertEquals(count, seen.size());
+    }
+
+    @Test
+    void testFindPageFollowsCreationOrder() {
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            created.add(repository.create("User " + i, "user" + i + "@example.com", 30, "City", i).getId());
+        }
+
+        List<Account> first = repository.findPage(null, 10);
+        assertEquals(created.subList(0, 10), first.stream().map(Account::getId).toList());
+        List<Account> last = repository.findPage(created.get(19), 10);
+        assertEquals(created.subList(20, 25), last.stream().map(Account::getId).toList());
+        assertTrue(repository.findPage(created.get(24), 10).isEmpty());
+        assertTrue(repository.findPage(UUID.randomUUID(), 10).isEmpty());
+    }
+
+    @Test
+    void testQueriesScanColumns() {
+        UUID alice = repository.create("Alice", "Alice@Example.com", 30, "Riga", 100).getId();
+        UUID bob = repository.create("Bob", "bob@example.com", 42, "Riga", 100).getId();
+        UUID carol = repository.create("Carol", "carol@example.com", 35, "Tallinn", 100).getId();
+
+        assertEquals(List.of(alice), repository.findByEmail("alice@example.com").stream().map(Account::getId).toList());
+        assertTrue(repository.findByEmail("alice@example.co").isEmpty());
+        assertEquals(List.of(alice, bob), repository.findPageByCity("Riga", null, 10).stream().map(Account::getId).toList());
+        assertEquals(List.of(bob), repository.findPageByCity("Riga", alice, 10).stream().map(Account::getId).toList());
+        assertTrue(repository.findPageByCity("Vilnius", null, 10).isEmpty());
+        assertEquals(List.of(alice, carol), repository.findPageByAge(30, 40, null, 10).stream().map(Account::getId).toList());
+    }
+
+    @Test
+    void testEmailLookupFoldsCaseLikeInMemoryRepository() {
+        UUID emile = repository.create("Emile", "ÉMILE@Example.com", 30, "Riga", 100).getId();
+        UUID kate = repository.create("Kate", "\u212Aate@example.com", 30, "Riga", 100).getId();
+
+        assertEquals(List.of(emile), repository.findByEmail("émile@EXAMPLE.com").stream().map(Account::getId).toList());
+        assertEquals(List.of(kate), repository.findByEmail("kate@example.com").stream().map(Account::getId).toList());
+        assertEquals("ÉMILE@Example.com", repository.findById(emile).orElseThrow().getEmail());
+    }
+
+    @Test
+    void testLookupsDoNotWaitForCreationBlockedOnStripe() throws Exception {
+        Account busy = repository.create("Busy", "busy@example.com", 30, "City", 100);
+        UUID sameStripe = new UUID(busy.getId().getMostSignificantBits(), ~busy.getId().getLeastSignificantBits());
+        busy.getLock().lock();
+        try {
+            Thread creator = Thread.ofPlatform().start(() ->
+                repository.createLocked(sameStripe, "New", "new@example.com", 30, "City", 0).getLock().unlock());
+            while (!busy.getLock().hasQueuedThreads()) {
+                Thread.onSpinWait();
+            }
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertTrue(repository.findById(busy.getId()).isPresent());
+                assertEquals(1, repository.findAll().size());
+            });
+            busy.getLock().unlock();
+            creator.join();
+        } finally {
+            if (busy.getLock().isHeldByCurrentThread()) {
+                busy.getLock().unlock();
+            }
+        }
+        assertEquals(0, repository.findById(sameStripe).orElseThrow().getBalanceInCents());
+    }
+
+    @Test
+    void testConcurrentTransfersWithStripedLocks() throws Exception {
+        AccountServiceImpl service = new AccountServiceImpl(repository, AccountJournal.NO_OP);
+        int accounts = 64;
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            ids.add(repository.create("Test", "test@example.com", 30, "City", 10000).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2000; i++) {
+                    UUID from = ids.get(random.nextInt(accounts));
+                    UUID to = ids.get(random.nextInt(accounts));
+                    if (from.equals(to)) {
+                        continue;
+                    }
+                    try {
+                        if (i % 10 == 0) {
+                            service.transferBatch(new TransferBatchRequest(List.of(
+                                new TransferRequest(from, to, "3.00"),
+                                new TransferRequest(to, from, "1.00")
+                            ), BatchMode.BEST_EFFORT));
+                        } else {
+                            service.transfer(new TransferRequest(from, to, "7.00"));
+                        }
+                    } catch (InsufficientFundsException ignored) {
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (Account account : repository.findAll()) {
+            assertTrue(account.getBalanceInCents() >= 0);
+            total += account.getBalanceInCents();
+        }
+        assertEquals(accounts * 10000L, total);
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import revel8.model.Account;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -47,5 +49,75 @@ class InMemoryAccountRepositoryTest {
         
         assertTrue(found.isEmpty());
     }
-}
 
+    @Test
+    void testFindPageVisitsEveryAccountInIdOrder() {
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            created.add(repository.create("User " + i, "user" + i + "@example.com", 30, "City", i).getId());
+        }
+
+        List<UUID> paged = new ArrayList<>();
+        UUID afterId = null;
+        List<Account> page;
+        do {
+            page = repository.findPage(afterId, 10);
+            page.forEach(account -> paged.add(account.getId()));
+            afterId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == 10);
+
+        created.sort(null);
+        assertEquals(created, paged);
+        assertTrue(repository.findPage(UUID.randomUUID(), 10).isEmpty());
+    }
+
+    @Test
+    void testSecondaryIndexLookups() {
+        Account alice = repository.create("Alice", "Alice@Example.com", 30, "Riga", 100);
+        Account bob = repository.create("Bob", "bob@example.com", 42, "Riga", 100);
+        Account carol = repository.create("Carol", "carol@example.com", 35, "Tallinn", 100);
+
+        assertEquals(List.of(alice), repository.findByEmail("alice@example.com"));
+        assertTrue(repository.findByEmail("nobody@example.com").isEmpty());
+
+        List<Account> inRiga = repository.findPageByCity("Riga", null, 10);
+        assertEquals(2, inRiga.size());
+        assertTrue(inRiga.containsAll(List.of(alice, bob)));
+        assertEquals(1, repository.findPageByCity("Riga", null, 1).size());
+        assertTrue(repository.findPageByCity("Vilnius", null, 10).isEmpty());
+
+        assertEquals(List.of(alice, carol), repository.findPageByAge(30, 40, null, 10));
+        assertEquals(List.of(carol), repository.findPageByAge(30, 40, alice.getId(), 10));
+        assertEquals(List.of(bob), repository.findPageByAge(40, 150, null, 10));
+    }
+
+    @Test
+    void testEmailLookupFoldsNonAsciiCase() {
+        Account emile = repository.create("Emile", "ÉMILE@Example.com", 30, "Riga", 100);
+        Account kate = repository.create("Kate", "\u212Aate@example.com", 30, "Riga", 100);
+
+        assertEquals(List.of(emile), repository.findByEmail("émile@EXAMPLE.com"));
+        assertEquals(List.of(kate), repository.findByEmail("kate@example.com"));
+    }
+
+    @Test
+    void testSaveMovesAccountBetweenIndexEntries() {
+        Account account = repository.create("Alice", "alice@example.com", 30, "Riga", 100);
+
+        repository.save(Account.builder()
+                .id(account.getId())
+                .name("Alice")
+                .email("alice@new.example.com")
+                .age(31)
+                .city("Tallinn")
+                .balanceInCents(100)
+                .build());
+
+        assertTrue(repository.findByEmail("alice@example.com").isEmpty());
+        assertEquals(1, repository.findByEmail("alice@new.example.com").size());
+        assertTrue(repository.findPageByCity("Riga", null, 10).isEmpty());
+        assertEquals(1, repository.findPageByCity("Tallinn", null, 10).size());
+        assertTrue(repository.findPageByAge(30, 30, null, 10).isEmpty());
+        assertEquals(1, repository.findPageByAge(31, 31, null, 10).size());
+    }
+}
@@ -0,0 +1,80 @@
+package revel8.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void testEntriesExpireExactlyAtTheirDeadline() {
+        long start = 123_457;
+        TimingWheel wheel = new TimingWheel(start);
+        Random random = new Random(42);
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            Entry entry = new Entry();
+            long horizon = i % 10 == 0 ? 2_000_000 : 5_000;
+            wheel.schedule(entry, start + 1 + random.nextLong(horizon));
+            entries.add(entry);
+        }
+        assertEquals(entries.size(), wheel.size());
+
+        List<Entry> expired = new ArrayList<>();
+        long tick = start;
+        while (tick < start + 2_000_001) {
+            tick += 1 + random.nextInt(700);
+            wheel.advance(tick, entry -> {
+                assertEquals(wheel.getCurrentTick(), entry.getDeadlineTick());
+                expired.add((Entry) entry);
+            });
+        }
+
+        assertEquals(entries.size(), expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCancelledEntriesNeverExpire() {
+        TimingWheel wheel = new TimingWheel(0);
+        Entry kept = new Entry();
+        Entry cancelled = new Entry();
+        Entry later = new Entry();
+        wheel.schedule(kept, 100);
+        wheel.schedule(cancelled, 100);
+        wheel.schedule(later, 100_000);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertTrue(wheel.cancel(later));
+        assertEquals(1, wheel.size());
+
+        List<TimerEntry> expired = new ArrayList<>();
+        wheel.advance(200_000, expired::add);
+        assertEquals(List.of(kept), expired);
+        assertFalse(kept.isScheduled());
+        assertFalse(wheel.cancel(kept));
+    }
+
+    @Test
+    void testPastDeadlineExpiresOnNextTick() {
+        TimingWheel wheel = new TimingWheel(63);
+        Entry entry = new Entry();
+        wheel.schedule(entry, 10);
+
+        List<TimerEntry> expired = new ArrayList<>();
+        wheel.advance(64, expired::add);
+        assertEquals(List.of(entry), expired);
+        assertThrows(IllegalStateException.class, () -> {
+            wheel.schedule(entry, 100);
+            wheel.schedule(entry, 100);
+        });
+    }
+
+    private static final class Entry extends TimerEntry {
+    }
+}
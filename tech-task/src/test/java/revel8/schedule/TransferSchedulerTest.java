@@ -0,0 +1,143 @@
+package revel8.schedule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.ScheduledTransferRequest;
+import revel8.dto.ScheduledTransferResponse;
+import revel8.exception.InvalidTransferException;
+import revel8.exception.ScheduleNotFoundException;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferSchedulerTest {
+    private static final long START = 1_700_000_000_000L;
+
+    private final AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+    private final AtomicLong now = new AtomicLong(START);
+    private final TransferScheduler scheduler = new TransferScheduler(service, IdGenerator.RANDOM, Duration.ofMillis(10), 2,
+        Duration.ofMinutes(5), now::get, Runnable::run, false, new SimpleMeterRegistry());
+
+    @Test
+    void testOneOffTransferRunsWhenDue() {
+        UUID alice = create("alice@test.com", "10.00");
+        UUID bob = create("bob@test.com", "0.00");
+        ScheduledTransferResponse scheduled = scheduler.schedule(
+            new ScheduledTransferRequest(alice, bob, "2.50", Instant.ofEpochMilli(START + 1_005), null));
+
+        now.set(START + 1_004);
+        assertEquals(0, scheduler.runDue());
+        now.set(START + 1_010);
+        assertEquals(1, scheduler.runDue());
+
+        assertEquals("2.50", balance("bob@test.com"));
+        assertEquals(1, scheduler.get(scheduled.scheduleId()).completedRuns());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void testFailedOneOffTransferStaysReadableUntilRetentionEnds() {
+        UUID alice = create("alice@test.com", "1.00");
+        UUID bob = create("bob@test.com", "0.00");
+        UUID order = scheduler.schedule(
+            new ScheduledTransferRequest(alice, bob, "2.50", Instant.ofEpochMilli(START + 1_000), null)).scheduleId();
+
+        now.set(START + 1_000);
+        assertEquals(1, scheduler.runDue());
+        now.set(START + 1_000 + Duration.ofMinutes(5).toMillis() - 10);
+        assertEquals(0, scheduler.runDue());
+
+        ScheduledTransferResponse status = scheduler.get(order);
+        assertEquals(0, status.completedRuns());
+        assertEquals(1, status.failedRuns());
+        assertEquals("Insufficient funds for transfer", status.lastError());
+        assertEquals(0, scheduler.pending());
+
+        now.set(START + 1_000 + Duration.ofMinutes(5).toMillis());
+        assertEquals(0, scheduler.runDue());
+        assertThrows(ScheduleNotFoundException.class, () -> scheduler.get(order));
+    }
+
+    @Test
+    void testRecurringTransferKeepsItsCadenceUntilCancelled() {
+        UUID tenant = create("tenant@test.com", "25.00");
+        UUID landlord = create("landlord@test.com", "0.00");
+        UUID rent = scheduler.schedule(new ScheduledTransferRequest(tenant, landlord, "10.00",
+            Instant.ofEpochMilli(START + 60_000), Duration.ofMinutes(1))).scheduleId();
+
+        for (int minute = 1; minute <= 3; minute++) {
+            now.set(START + minute * 60_000L + 7);
+            assertEquals(1, scheduler.runDue());
+        }
+
+        ScheduledTransferResponse status = scheduler.get(rent);
+        assertEquals(2, status.completedRuns());
+        assertEquals(1, status.failedRuns());
+        assertEquals("Insufficient funds for transfer", status.lastError());
+        assertEquals(Instant.ofEpochMilli(START + 240_000), status.nextRunAt());
+        assertEquals("20.00", balance("landlord@test.com"));
+
+        scheduler.cancel(rent);
+        now.set(START + 600_000);
+        assertEquals(0, scheduler.runDue());
+        assertThrows(ScheduleNotFoundException.class, () -> scheduler.cancel(rent));
+    }
+
+    @Test
+    void testDueOrdersAreHandedOverInBatches() {
+        UUID payer = create("payer@test.com", "100.00");
+        UUID payee = create("payee@test.com", "0.00");
+        for (int i = 0; i < 5; i++) {
+            scheduler.schedule(new ScheduledTransferRequest(payer, payee, "1.00", Instant.ofEpochMilli(START + 50), null));
+        }
+
+        now.set(START + 50);
+        assertEquals(5, scheduler.runDue());
+        assertEquals("5.00", balance("payee@test.com"));
+    }
+
+    @Test
+    void testRejectsInvalidOrders() {
+        UUID account = UUID.randomUUID();
+        Instant runAt = Instant.ofEpochMilli(START);
+
+        assertThrows(InvalidTransferException.class, () -> scheduler.schedule(
+            new ScheduledTransferRequest(account, account, "1.00", runAt, null)));
+        assertThrows(InvalidTransferException.class, () -> scheduler.schedule(
+            new ScheduledTransferRequest(account, UUID.randomUUID(), "1.00", runAt, Duration.ofMillis(1))));
+    }
+
+    @Test
+    void testTickerRunsDueTransfers() throws Exception {
+        UUID alice = create("alice@test.com", "10.00");
+        UUID bob = create("bob@test.com", "0.00");
+        try (TransferScheduler live = new TransferScheduler(service, IdGenerator.RANDOM, Duration.ofMillis(5), 16, 1,
+                Duration.ofMinutes(5), new SimpleMeterRegistry())) {
+            live.schedule(new ScheduledTransferRequest(alice, bob, "1.00", Instant.now().plusMillis(20), null));
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (live.pending() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+        assertEquals("1.00", balance("bob@test.com"));
+    }
+
+    private UUID create(String email, String initialDeposit) {
+        return service.createAccount(new CreateAccountRequest("Test", email, 30, "City", initialDeposit)).accountId();
+    }
+
+    private String balance(String email) {
+        return service.findAccountsByEmail(email).get(0).balance();
+    }
+}
@@ -7,9 +7,14 @@ import revel8.exception.AccountNotFoundException;
 import revel8.exception.InsufficientFundsException;
 import revel8.exception.InvalidAmountException;
 import revel8.exception.InvalidTransferException;
+import revel8.journal.AccountJournal;
+import revel8.model.TransferRecord;
 import revel8.repository.InMemoryAccountRepository;
 import revel8.service.impl.AccountServiceImpl;
+import revel8.service.impl.ShardedAccountService;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,7 +26,7 @@ class AccountServiceTest {
     @BeforeEach
     void setUp() {
         InMemoryAccountRepository repository = new InMemoryAccountRepository();
-        accountService = new AccountServiceImpl(repository);
+        accountService = new AccountServiceImpl(repository, AccountJournal.NO_OP);
     }
     
     @Test
@@ -227,4 +232,118 @@ class AccountServiceTest {
         assertEquals("20.00", response.transfers().get(1).amount());
         assertEquals("10.00", response.transfers().get(2).amount());
     }
+    
+    @Test
+    void testTransferBatchBestEffort() {
+        var acc1 = accountService.createAccount(
+            new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "100.00")
+        );
+        var acc2 = accountService.createAccount(
+            new CreateAccountRequest("Bob", "bob@test.com", 30, "City", "50.00")
+        );
+        
+        var response = accountService.transferBatch(new TransferBatchRequest(List.of(
+            new TransferRequest(acc1.accountId(), acc2.accountId(), "80.00"),
+            new TransferRequest(acc1.accountId(), acc2.accountId(), "30.00"),
+            new TransferRequest(acc2.accountId(), UUID.randomUUID(), "1.00"),
+            new TransferRequest(acc2.accountId(), acc1.accountId(), "130.00")
+        ), BatchMode.BEST_EFFORT));
+        
+        assertEquals(2, response.completed());
+        assertEquals(2, response.failed());
+        assertEquals(BatchItemStatus.COMPLETED, response.results().get(0).status());
+        assertEquals("20.00", response.results().get(0).transfer().resultingBalance());
+        assertEquals(BatchItemStatus.FAILED, response.results().get(1).status());
+        assertEquals("Insufficient funds for transfer", response.results().get(1).error());
+        assertEquals(BatchItemStatus.FAILED, response.results().get(2).status());
+        assertEquals("130.00", response.results().get(3).transfer().amount());
+        assertEquals("0.00", response.results().get(3).transfer().resultingBalance());
+        assertEquals("150.00", response.results().get(3).transfer().recipientBalance());
+        assertEquals("150.00", balanceOf(acc1.accountId()));
+        assertEquals(1, accountService.getOutgoingTransfers(acc1.accountId()).transfers().size());
+    }
+    
+    @Test
+    void testTransferBatchAtomicRollsBackOnInsufficientFunds() {
+        var acc1 = accountService.createAccount(
+            new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "100.00")
+        );
+        var acc2 = accountService.createAccount(
+            new CreateAccountRequest("Bob", "bob@test.com", 30, "City", "50.00")
+        );
+        
+        var response = accountService.transferBatch(new TransferBatchRequest(List.of(
+            new TransferRequest(acc1.accountId(), acc2.accountId(), "60.00"),
+            new TransferRequest(acc1.accountId(), acc2.accountId(), "60.00"),
+            new TransferRequest(acc2.accountId(), acc1.accountId(), "10.00")
+        ), BatchMode.ATOMIC));
+        
+        assertEquals(0, response.completed());
+        assertEquals(1, response.failed());
+        assertEquals(BatchItemStatus.SKIPPED, response.results().get(0).status());
+        assertEquals(BatchItemStatus.FAILED, response.results().get(1).status());
+        assertEquals(BatchItemStatus.SKIPPED, response.results().get(2).status());
+        assertEquals("100.00", balanceOf(acc1.accountId()));
+        assertEquals("50.00", balanceOf(acc2.accountId()));
+        assertTrue(accountService.getOutgoingTransfers(acc2.accountId()).transfers().isEmpty());
+    }
+    
+    @Test
+    void testFailedCreateJournalWriteLeavesNoAccount() throws Exception {
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        try (ShardedAccountService sharded = new ShardedAccountService(repository, new FailingCreateJournal(), 2)) {
+            for (AccountService service : List.of(new AccountServiceImpl(repository, new FailingCreateJournal()), sharded)) {
+                assertThrows(IllegalStateException.class, () -> service.createAccount(
+                    new CreateAccountRequest("Test", "test@test.com", 25, "City", "100.00")));
+                assertTrue(repository.findAll().isEmpty());
+                assertTrue(repository.findByEmail("test@test.com").isEmpty());
+            }
+        }
+    }
+
+    private static final class FailingCreateJournal implements AccountJournal {
+        @Override
+        public long logCreate(UUID accountId, String name, String email, int age, String city, long initialCents) {
+            throw new IllegalStateException("Journal is full");
+        }
+
+        @Override
+        public long logDeposit(UUID accountId, long amountInCents) {
+            return 0;
+        }
+
+        @Override
+        public long logWithdraw(UUID accountId, long amountInCents) {
+            return 0;
+        }
+
+        @Override
+        public long logTransfer(UUID fromAccountId, TransferRecord transfer) {
+            return 0;
+        }
+
+        @Override
+        public long logTransferDebit(UUID fromAccountId, TransferRecord transfer) {
+            return 0;
+        }
+
+        @Override
+        public long logTransferCredit(UUID transferId, UUID toAccountId, long amountInCents) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long sequence) {
+        }
+    }
+
+    private String balanceOf(UUID accountId) {
+        List<CreateAccountResponse> accounts = new ArrayList<>();
+        accountService.forEachAccount(accounts::add);
+        return accounts.stream()
+            .filter(account -> account.accountId().equals(accountId))
+            .findFirst()
+            .orElseThrow()
+            .balance();
+    }
 }
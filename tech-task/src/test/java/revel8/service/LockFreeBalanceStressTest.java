@@ -0,0 +1,134 @@
+package revel8.service;
+
+import org.junit.jupiter.api.Test;
+import revel8.dto.AmountRequest;
+import revel8.dto.BatchMode;
+import revel8.dto.TransferBatchRequest;
+import revel8.dto.TransferRequest;
+import revel8.exception.InsufficientFundsException;
+import revel8.journal.AccountJournal;
+import revel8.model.Account;
+import revel8.repository.AccountRepository;
+import revel8.repository.ColumnarAccountRepository;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.BiPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * jcstress-style check of lock-free deposits and withdrawals racing a locked transfer. Every round
+ * starts three actors on a fresh pair of accounts: source 10.00, destination 0.00. The actors
+ * deposit 5.00 to the source lock-free, withdraw 7.00 from it lock-free, and move 10.00 out of
+ * it under the locks. Each observed outcome must match one of the serial orders of the three
+ * operations; a lost update or an overdraft shows up as any other outcome.
+ */
+class LockFreeBalanceStressTest {
+    private static final int ROUNDS = 20_000;
+    private static final Set<String> ACCEPTABLE = Set.of(
+        "source=500 destination=1000 transfer=ok withdraw=failed",
+        "source=800 destination=0 transfer=failed withdraw=ok"
+    );
+
+    @Test
+    void testRacingTransferOnHeapAccounts() throws Exception {
+        assertOnlyAcceptableOutcomes(new InMemoryAccountRepository(), (service, round) ->
+            succeeds(() -> service.transfer(new TransferRequest(round[0].getId(), round[1].getId(), "10.00"))));
+    }
+
+    @Test
+    void testRacingTransferOnColumnarAccounts() throws Exception {
+        assertOnlyAcceptableOutcomes(new ColumnarAccountRepository(16), (service, round) ->
+            succeeds(() -> service.transfer(new TransferRequest(round[0].getId(), round[1].getId(), "10.00"))));
+    }
+
+    @Test
+    void testRacingAtomicBatch() throws Exception {
+        assertOnlyAcceptableOutcomes(new InMemoryAccountRepository(), (service, round) ->
+            service.transferBatch(new TransferBatchRequest(List.of(
+                new TransferRequest(round[0].getId(), round[1].getId(), "6.00"),
+                new TransferRequest(round[0].getId(), round[1].getId(), "4.00")
+            ), BatchMode.ATOMIC)).failed() == 0);
+    }
+
+    @Test
+    void testLockFreeModeRejectsJournal() {
+        AccountJournal journal = mock(AccountJournal.class);
+
+        assertThrows(IllegalStateException.class,
+            () -> new AccountServiceImpl(new InMemoryAccountRepository(), journal, true));
+    }
+
+    private static void assertOnlyAcceptableOutcomes(AccountRepository repository,
+                                                     BiPredicate<AccountService, Account[]> transferActor) throws Exception {
+        AccountService service = new AccountServiceImpl(repository, AccountJournal.NO_OP, true);
+        Account[][] rounds = new Account[ROUNDS][];
+        for (int i = 0; i < ROUNDS; i++) {
+            rounds[i] = new Account[] {
+                repository.create("Source", "source@test.com", 30, "City", 1000),
+                repository.create("Destination", "destination@test.com", 30, "City", 0)
+            };
+        }
+
+        boolean[] transferred = new boolean[ROUNDS];
+        boolean[] withdrawn = new boolean[ROUNDS];
+        CyclicBarrier start = new CyclicBarrier(3);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Thread depositor = actor(start, failures, i ->
+            service.deposit(rounds[i][0].getId(), new AmountRequest("5.00")));
+        Thread withdrawer = actor(start, failures, i ->
+            withdrawn[i] = succeeds(() -> service.withdraw(rounds[i][0].getId(), new AmountRequest("7.00"))));
+        Thread transferrer = actor(start, failures, i ->
+            transferred[i] = transferActor.test(service, rounds[i]));
+        depositor.join();
+        withdrawer.join();
+        transferrer.join();
+        assertTrue(failures.isEmpty(), () -> "Actor failed: " + failures);
+
+        Map<String, Integer> outcomes = new TreeMap<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            String outcome = "source=" + rounds[i][0].getBalanceInCents()
+                + " destination=" + rounds[i][1].getBalanceInCents()
+                + " transfer=" + (transferred[i] ? "ok" : "failed")
+                + " withdraw=" + (withdrawn[i] ? "ok" : "failed");
+            outcomes.merge(outcome, 1, Integer::sum);
+        }
+        assertTrue(ACCEPTABLE.containsAll(outcomes.keySet()), "Unexpected outcomes: " + outcomes);
+    }
+
+    private static Thread actor(CyclicBarrier start, Queue<Throwable> failures, RoundAction action) {
+        return Thread.ofPlatform().start(() -> {
+            try {
+                for (int i = 0; i < ROUNDS; i++) {
+                    start.await();
+                    action.run(i);
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+                start.reset();
+            }
+        });
+    }
+
+    private static boolean succeeds(Runnable operation) {
+        try {
+            operation.run();
+            return true;
+        } catch (InsufficientFundsException e) {
+            return false;
+        }
+    }
+
+    private interface RoundAction {
+        void run(int round) throws Exception;
+    }
+}
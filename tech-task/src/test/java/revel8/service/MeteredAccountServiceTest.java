@@ -0,0 +1,71 @@
+package revel8.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import revel8.dto.AmountRequest;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.TransferRequest;
+import revel8.exception.AccountNotFoundException;
+import revel8.exception.InsufficientFundsException;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.impl.AccountServiceImpl;
+import revel8.service.impl.MeteredAccountService;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredAccountServiceTest {
+
+    private SimpleMeterRegistry registry;
+    private InMemoryAccountRepository repository;
+    private MeteredAccountService accountService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        repository = new InMemoryAccountRepository();
+        repository.bindTo(registry);
+        accountService = new MeteredAccountService(new AccountServiceImpl(repository, AccountJournal.NO_OP), registry);
+    }
+
+    @Test
+    void testTimesOperationsAndCountsRejections() {
+        UUID alice = create("100.00");
+        UUID bob = create("0.00");
+
+        accountService.deposit(alice, new AmountRequest("10.00"));
+        accountService.transfer(new TransferRequest(alice, bob, "50.00"));
+        assertThrows(InsufficientFundsException.class,
+            () -> accountService.transfer(new TransferRequest(bob, alice, "50.01")));
+        assertThrows(AccountNotFoundException.class,
+            () -> accountService.withdraw(UUID.randomUUID(), new AmountRequest("1.00")));
+        accountService.getOutgoingTransfers(alice);
+
+        assertEquals(2, operationCount("create"));
+        assertEquals(1, operationCount("deposit"));
+        assertEquals(2, operationCount("transfer"));
+        assertEquals(1, operationCount("withdraw"));
+        assertEquals(1, operationCount("history"));
+        assertEquals(1, rejections("transfer", "insufficient_funds"));
+        assertEquals(0, rejections("transfer", "not_found"));
+        assertEquals(1, rejections("withdraw", "not_found"));
+        assertEquals(2, registry.get("bank.accounts").gauge().value());
+    }
+
+    private UUID create(String balance) {
+        return accountService.createAccount(
+            new CreateAccountRequest("Metered User", "metered@test.com", 30, "City", balance)).accountId();
+    }
+
+    private long operationCount(String operation) {
+        return registry.get("bank.operation").tag("operation", operation).timer().count();
+    }
+
+    private double rejections(String operation, String reason) {
+        return registry.get("bank.operation.rejections").tag("operation", operation).tag("reason", reason)
+            .counter().count();
+    }
+}
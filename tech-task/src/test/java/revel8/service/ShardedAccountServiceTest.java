@@ -0,0 +1,212 @@
+package revel8.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import revel8.dto.*;
+import revel8.exception.InsufficientFundsException;
+import revel8.exception.InvalidTransferException;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.impl.ShardedAccountService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedAccountServiceTest {
+
+    private InMemoryAccountRepository repository;
+    private ShardedAccountService accountService;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryAccountRepository();
+        accountService = new ShardedAccountService(repository, AccountJournal.NO_OP, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountService.close();
+    }
+
+    @Test
+    void testDepositAndWithdraw() {
+        UUID accountId = create("100.00");
+
+        assertEquals("150.00", accountService.deposit(accountId, new AmountRequest("50.00")).balance());
+        assertEquals("120.00", accountService.withdraw(accountId, new AmountRequest("30.00")).balance());
+        assertThrows(InsufficientFundsException.class,
+            () -> accountService.withdraw(accountId, new AmountRequest("120.01")));
+    }
+
+    @Test
+    void testCommandsAfterCloseAreRejected() {
+        UUID from = create("100.00");
+        UUID to = create("0.00");
+        accountService.close();
+
+        assertThrows(RejectedExecutionException.class, () -> accountService.deposit(from, new AmountRequest("1.00")));
+        assertThrows(RejectedExecutionException.class, () -> accountService.transfer(new TransferRequest(from, to, "1.00")));
+    }
+
+    @Test
+    void testCloseDuringTransfersConservesMoney() throws Exception {
+        int accounts = 16;
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            ids.add(create("1000.00"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch started = new CountDownLatch(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                started.countDown();
+                while (true) {
+                    UUID from = ids.get(random.nextInt(accounts));
+                    UUID to = ids.get(random.nextInt(accounts));
+                    if (from.equals(to)) {
+                        continue;
+                    }
+                    try {
+                        accountService.transfer(new TransferRequest(from, to, "0.01"));
+                    } catch (RejectedExecutionException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        started.await();
+        Thread.sleep(50);
+        accountService.close();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (UUID id : ids) {
+            total += repository.findById(id).orElseThrow().getBalanceInCents();
+        }
+        assertEquals(accounts * 100000L, total);
+    }
+
+    @Test
+    void testTransfersBetweenEveryShardPair() {
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(create("100.00"));
+        }
+
+        for (UUID from : accounts) {
+            for (UUID to : accounts) {
+                if (!from.equals(to)) {
+                    accountService.transfer(new TransferRequest(from, to, "1.00"));
+                }
+            }
+        }
+
+        for (UUID accountId : accounts) {
+            assertEquals(10000, repository.findById(accountId).orElseThrow().getBalanceInCents());
+            assertEquals(15, accountService.getOutgoingTransfers(accountId).transfers().size());
+        }
+    }
+
+    @Test
+    void testTransferInsufficientFundsLeavesBalancesUntouched() {
+        UUID from = create("10.00");
+        UUID to = create("0.00");
+
+        assertThrows(InsufficientFundsException.class,
+            () -> accountService.transfer(new TransferRequest(from, to, "10.01")));
+
+        assertEquals(1000, repository.findById(from).orElseThrow().getBalanceInCents());
+        assertEquals(0, repository.findById(to).orElseThrow().getBalanceInCents());
+        assertTrue(accountService.getOutgoingTransfers(from).transfers().isEmpty());
+    }
+
+    @Test
+    void testConcurrentTransfersConserveMoney() throws Exception {
+        int accounts = 8;
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            ids.add(create("100.00"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2000; i++) {
+                    UUID from = ids.get(random.nextInt(accounts));
+                    UUID to = ids.get(random.nextInt(accounts));
+                    if (from.equals(to)) {
+                        continue;
+                    }
+                    try {
+                        accountService.transfer(new TransferRequest(from, to, "7.00"));
+                    } catch (InsufficientFundsException ignored) {
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (UUID id : ids) {
+            long balance = repository.findById(id).orElseThrow().getBalanceInCents();
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        assertEquals(accounts * 10000L, total);
+    }
+
+    @Test
+    void testTransferBatchBestEffort() {
+        UUID acc1 = create("100.00");
+        UUID acc2 = create("50.00");
+
+        var response = accountService.transferBatch(new TransferBatchRequest(List.of(
+            new TransferRequest(acc1, acc2, "80.00"),
+            new TransferRequest(acc1, acc2, "30.00"),
+            new TransferRequest(acc2, UUID.randomUUID(), "1.00")
+        ), BatchMode.BEST_EFFORT));
+
+        assertEquals(1, response.completed());
+        assertEquals(2, response.failed());
+        assertEquals("20.00", response.results().get(0).transfer().resultingBalance());
+        assertEquals("Insufficient funds for transfer", response.results().get(1).error());
+        assertEquals(BatchItemStatus.FAILED, response.results().get(2).status());
+        assertEquals(13000, repository.findById(acc2).orElseThrow().getBalanceInCents());
+    }
+
+    @Test
+    void testTransferBatchAtomicIsRejected() {
+        UUID acc1 = create("100.00");
+        UUID acc2 = create("50.00");
+
+        assertThrows(InvalidTransferException.class, () -> accountService.transferBatch(new TransferBatchRequest(
+            List.of(new TransferRequest(acc1, acc2, "1.00")), BatchMode.ATOMIC)));
+    }
+
+    private UUID create(String initialDeposit) {
+        return accountService.createAccount(
+            new CreateAccountRequest("Test", "test@test.com", 25, "City", initialDeposit)
+        ).accountId();
+    }
+}
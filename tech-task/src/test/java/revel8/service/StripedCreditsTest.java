@@ -0,0 +1,146 @@
+package revel8.service;
+
+import org.junit.jupiter.api.Test;
+import revel8.contention.HotAccountTracker;
+import revel8.dto.AmountRequest;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.TransferRequest;
+import revel8.exception.InsufficientFundsException;
+import revel8.exception.StripedCreditsUnavailableException;
+import revel8.history.TransferHistory;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StripedCreditsTest {
+    private static final int SENDERS = 8;
+    private static final int TRANSFERS_PER_SENDER = 2_000;
+
+    @Test
+    void testTransferToStripedAccountIsFoldedOnRead() {
+        AccountService service = stripedService(false);
+        UUID sender = create(service, "sender@test.com", "10.00");
+        UUID hot = create(service, "hot@test.com", "1.00");
+        service.stripeCredits(hot);
+
+        var response = service.transfer(new TransferRequest(sender, hot, "2.50"));
+
+        assertEquals("7.50", response.resultingBalance());
+        assertNull(response.recipientBalance());
+        assertEquals("3.50", service.findAccountsByEmail("hot@test.com").get(0).balance());
+    }
+
+    @Test
+    void testWithdrawSeesPendingCredits() {
+        AccountService service = stripedService(false);
+        UUID sender = create(service, "sender@test.com", "10.00");
+        UUID hot = create(service, "hot@test.com", "0.00");
+        service.stripeCredits(hot);
+        service.transfer(new TransferRequest(sender, hot, "4.00"));
+
+        assertEquals("1.00", service.withdraw(hot, new AmountRequest("3.00")).balance());
+        assertThrows(InsufficientFundsException.class, () -> service.withdraw(hot, new AmountRequest("1.01")));
+        assertEquals("0.00", service.withdraw(hot, new AmountRequest("1.00")).balance());
+    }
+
+    @Test
+    void testLockFreeWithdrawFallsBackToFoldPendingCredits() {
+        AccountService service = stripedService(true);
+        UUID sender = create(service, "sender@test.com", "10.00");
+        UUID hot = create(service, "hot@test.com", "0.00");
+        service.stripeCredits(hot);
+        service.transfer(new TransferRequest(sender, hot, "4.00"));
+
+        assertEquals("0.00", service.withdraw(hot, new AmountRequest("4.00")).balance());
+    }
+
+    @Test
+    void testConcurrentFanInWithWithdrawalsLosesNoCredits() throws Exception {
+        AccountService service = stripedService(false);
+        UUID hot = create(service, "hot@test.com", "0.00");
+        service.stripeCredits(hot);
+        List<UUID> senders = new ArrayList<>();
+        for (int i = 0; i < SENDERS; i++) {
+            senders.add(create(service, "sender" + i + "@test.com", "1000000.00"));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (UUID sender : senders) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < TRANSFERS_PER_SENDER; i++) {
+                        service.transfer(new TransferRequest(sender, hot, "1.00"));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        long[] withdrawn = new long[1];
+        Thread withdrawer = Thread.ofPlatform().start(() -> {
+            try {
+                start.await();
+                for (int i = 0; i < SENDERS * TRANSFERS_PER_SENDER; i++) {
+                    try {
+                        service.withdraw(hot, new AmountRequest("1.00"));
+                        withdrawn[0]++;
+                    } catch (InsufficientFundsException e) {
+                        // Credits have not caught up yet
+                    }
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        withdrawer.join();
+
+        assertTrue(failures.isEmpty(), () -> "Worker failed: " + failures);
+        long expected = SENDERS * TRANSFERS_PER_SENDER - withdrawn[0];
+        assertEquals(expected + ".00", service.findAccountsByEmail("hot@test.com").get(0).balance());
+        assertEquals((1000000 - TRANSFERS_PER_SENDER) + ".00",
+            service.findAccountsByEmail("sender0@test.com").get(0).balance());
+    }
+
+    @Test
+    void testStripeCreditsRequiresStripedMode() {
+        AccountService service = new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP);
+        UUID account = create(service, "hot@test.com", "0.00");
+
+        assertThrows(StripedCreditsUnavailableException.class, () -> service.stripeCredits(account));
+    }
+
+    @Test
+    void testStripedModeRejectsJournal() {
+        AccountJournal journal = mock(AccountJournal.class);
+
+        assertThrows(IllegalStateException.class, () -> new AccountServiceImpl(new InMemoryAccountRepository(), journal,
+            false, TransferHistory.NONE, HotAccountTracker.DISABLED, true, IdGenerator.RANDOM));
+    }
+
+    private static AccountService stripedService(boolean lockFreeBalanceUpdates) {
+        return new AccountServiceImpl(new InMemoryAccountRepository(), AccountJournal.NO_OP, lockFreeBalanceUpdates,
+            TransferHistory.NONE, HotAccountTracker.DISABLED, true, IdGenerator.RANDOM);
+    }
+
+    private static UUID create(AccountService service, String email, String initialDeposit) {
+        return service.createAccount(new CreateAccountRequest("Test", email, 30, "City", initialDeposit)).accountId();
+    }
+}
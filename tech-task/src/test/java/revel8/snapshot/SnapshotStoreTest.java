@@ -0,0 +1,99 @@
+package revel8.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import revel8.dto.AmountRequest;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.TransferRequest;
+import revel8.journal.JournalReplayer;
+import revel8.journal.MappedFileJournal;
+import revel8.model.Account;
+import revel8.model.TransferRecord;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSnapshotRoundTrip() throws Exception {
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        Account alice = repository.create("Alice", "alice@test.com", 25, "City", 10000);
+        Account bob = repository.create("Bob", "bob@test.com", 30, "Town", 500);
+        alice.getOutgoing().append(new TransferRecord(UUID.randomUUID(), bob.getId(), 100, 1L, 9900));
+        alice.getOutgoing().append(new TransferRecord(UUID.randomUUID(), bob.getId(), 200, 2L, 9700));
+
+        SnapshotStore store = new SnapshotStore(directory.resolve("snapshots"), 3);
+        store.write(repository.findAll(), 42);
+
+        InMemoryAccountRepository loaded = new InMemoryAccountRepository();
+        SnapshotStore.LoadResult result = store.loadLatest(loaded);
+
+        assertEquals(42, result.sequence());
+        assertEquals(2, result.accounts());
+        Account restored = loaded.findById(alice.getId()).orElseThrow();
+        assertEquals(10000, restored.getBalanceInCents());
+        assertEquals("alice@test.com", restored.getEmail());
+        List<TransferRecord> history = restored.getOutgoing().getRecentNewestFirst();
+        assertEquals(2, history.size());
+        assertEquals(200, history.get(0).amountInCents());
+        assertEquals(100, history.get(1).amountInCents());
+    }
+
+    @Test
+    void testRecoveryFromSnapshotAndJournalTail() throws Exception {
+        SnapshotStore store = new SnapshotStore(directory.resolve("snapshots"), 2);
+        UUID aliceId;
+        UUID bobId;
+        UUID carolId;
+
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        try (MappedFileJournal journal = openJournal(repository)) {
+            AccountServiceImpl service = new AccountServiceImpl(repository, journal);
+            aliceId = service.createAccount(new CreateAccountRequest("Alice", "alice@test.com", 25, "City", "100.00")).accountId();
+            bobId = service.createAccount(new CreateAccountRequest("Bob", "bob@test.com", 30, "Town", "50.00")).accountId();
+            for (int i = 0; i < 40; i++) {
+                service.deposit(aliceId, new AmountRequest("1.00"));
+            }
+            service.transfer(new TransferRequest(aliceId, bobId, "10.00"));
+
+            try (SnapshotScheduler scheduler = new SnapshotScheduler(store, journal, repository, Duration.ofHours(1))) {
+                scheduler.snapshot();
+            }
+            try (Stream<Path> segments = Files.list(directory.resolve("journal"))) {
+                assertEquals(1, segments.count());
+            }
+
+            service.withdraw(aliceId, new AmountRequest("5.00"));
+            service.transfer(new TransferRequest(bobId, aliceId, "20.00"));
+            carolId = service.createAccount(new CreateAccountRequest("Carol", "carol@test.com", 40, "Village", "7.00")).accountId();
+        }
+
+        InMemoryAccountRepository recovered = new InMemoryAccountRepository();
+        assertEquals(2, store.loadLatest(recovered).accounts());
+        try (MappedFileJournal ignored = openJournal(recovered)) {
+            assertEquals(14500, recovered.findById(aliceId).orElseThrow().getBalanceInCents());
+            assertEquals(4000, recovered.findById(bobId).orElseThrow().getBalanceInCents());
+            assertEquals(700, recovered.findById(carolId).orElseThrow().getBalanceInCents());
+            assertEquals(1, recovered.findById(aliceId).orElseThrow().getOutgoing().getRecentNewestFirst().size());
+            assertEquals(1, recovered.findById(bobId).orElseThrow().getOutgoing().getRecentNewestFirst().size());
+        }
+    }
+
+    private MappedFileJournal openJournal(InMemoryAccountRepository repository) throws Exception {
+        return MappedFileJournal.open(directory.resolve("journal"), SEGMENT_SIZE, Duration.ZERO, new JournalReplayer(repository));
+    }
+}
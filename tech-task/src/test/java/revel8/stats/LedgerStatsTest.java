@@ -0,0 +1,150 @@
+package revel8.stats;
+
+import org.junit.jupiter.api.Test;
+import revel8.contention.HotAccountTracker;
+import revel8.dto.AmountRequest;
+import revel8.dto.CityBalanceResponse;
+import revel8.dto.CreateAccountRequest;
+import revel8.dto.StatsResponse;
+import revel8.dto.StatsWindowResponse;
+import revel8.dto.TransferRequest;
+import revel8.exception.InsufficientFundsException;
+import revel8.exception.StatsUnavailableException;
+import revel8.history.TransferHistory;
+import revel8.id.IdGenerator;
+import revel8.journal.AccountJournal;
+import revel8.money.MoneyCodec;
+import revel8.repository.InMemoryAccountRepository;
+import revel8.service.AccountService;
+import revel8.service.impl.AccountServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerStatsTest {
+
+    @Test
+    void testTotalsAndCityBalances() {
+        LedgerStats stats = new LedgerStats(Duration.ofMinutes(1), 4, () -> 0);
+        stats.created("Riga", 1000);
+        stats.created("Tallinn", 0);
+        stats.deposited("Tallinn", 500);
+        stats.withdrew("Riga", 200);
+        stats.transferred("Riga", "Tallinn", 300);
+        stats.transferred("Riga", "Riga", 100);
+
+        StatsResponse response = stats.read();
+
+        assertEquals(2, response.accounts());
+        assertEquals("13.00", response.totalBalance());
+        assertEquals(2, response.deposits());
+        assertEquals("15.00", response.depositVolume());
+        assertEquals(1, response.withdrawals());
+        assertEquals("2.00", response.withdrawalVolume());
+        assertEquals(2, response.transfers());
+        assertEquals("4.00", response.transferVolume());
+        assertEquals(List.of(new CityBalanceResponse("Riga", 1, "5.00"), new CityBalanceResponse("Tallinn", 1, "8.00")),
+            response.cities());
+    }
+
+    @Test
+    void testWindowsTumbleAndSlotsAreReused() {
+        AtomicLong now = new AtomicLong(10_000);
+        LedgerStats stats = new LedgerStats(Duration.ofSeconds(10), 3, now::get);
+        stats.transferred("A", "B", 100);
+        now.set(25_000);
+        stats.transferred("A", "B", 200);
+        stats.transferred("A", "B", 300);
+        stats.deposited("A", 50);
+
+        List<StatsWindowResponse> windows = stats.read().windows();
+
+        assertEquals(List.of(20_000L, 10_000L, 0L), windows.stream().map(StatsWindowResponse::startMillis).toList());
+        assertEquals(2, windows.get(0).transfers());
+        assertEquals("5.00", windows.get(0).transferVolume());
+        assertEquals("0.50", windows.get(0).depositVolume());
+        assertEquals("1.00", windows.get(1).transferVolume());
+        assertEquals(0, windows.get(2).transfers());
+
+        now.set(40_000);
+        stats.transferred("A", "B", 700);
+        windows = stats.read().windows();
+
+        assertEquals(List.of(40_000L, 30_000L, 20_000L), windows.stream().map(StatsWindowResponse::startMillis).toList());
+        assertEquals("7.00", windows.get(0).transferVolume());
+        assertEquals("5.00", windows.get(2).transferVolume());
+        assertEquals("13.00", stats.read().transferVolume());
+    }
+
+    @Test
+    void testDisabledStatsCannotBeRead() {
+        LedgerStats.DISABLED.deposited("Riga", 100);
+
+        assertThrows(StatsUnavailableException.class, LedgerStats.DISABLED::read);
+    }
+
+    @Test
+    void testStatsMatchBalancesAfterConcurrentUpdates() throws Exception {
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        LedgerStats stats = new LedgerStats(Duration.ofMinutes(1), 60);
+        AccountService service = new AccountServiceImpl(repository, AccountJournal.NO_OP, true, TransferHistory.NONE,
+            HotAccountTracker.DISABLED, false, IdGenerator.RANDOM, stats);
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            accounts.add(service.createAccount(new CreateAccountRequest("Test", "test@test.com", 30, "City " + i % 3, "10.00"))
+                .accountId());
+        }
+
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    for (int i = 0; i < 5_000; i++) {
+                        UUID from = accounts.get(random.nextInt(accounts.size()));
+                        UUID to = accounts.get(random.nextInt(accounts.size()));
+                        try {
+                            switch (random.nextInt(3)) {
+                                case 0 -> service.deposit(from, new AmountRequest("0.07"));
+                                case 1 -> service.withdraw(from, new AmountRequest("0.05"));
+                                default -> {
+                                    if (!from.equals(to)) {
+                                        service.transfer(new TransferRequest(from, to, "0.11"));
+                                    }
+                                }
+                            }
+                        } catch (InsufficientFundsException e) {
+                            // Not counted
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Worker failed: " + failures);
+        StatsResponse response = stats.read();
+        for (CityBalanceResponse city : response.cities()) {
+            long scanned = repository.findAll().stream()
+                .filter(account -> account.getCity().equals(city.city()))
+                .mapToLong(account -> account.getBalanceInCents())
+                .sum();
+            assertEquals(MoneyCodec.format(scanned), city.totalBalance(), city.city());
+        }
+        assertEquals(100, response.accounts());
+        assertEquals(response.transfers(), response.windows().stream().mapToLong(StatsWindowResponse::transfers).sum());
+    }
+}
@@ -0,0 +1,153 @@
+package revel8.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import revel8.exception.IdempotencyKeyReuseException;
+import revel8.exception.InsufficientFundsException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testDuplicateIsAnsweredFromCache() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry, clock::get);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(1, cache.execute("k", "req", executions::incrementAndGet));
+        assertEquals(1, cache.execute("k", "req", executions::incrementAndGet));
+
+        assertEquals(1, executions.get());
+        assertEquals(1, count("bank.idempotency.requests", "result", "hit"));
+        assertEquals(1, count("bank.idempotency.requests", "result", "miss"));
+    }
+
+    @Test
+    void testReusingKeyForDifferentRequestIsRejected() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry, clock::get);
+        cache.execute("k", "req", () -> 1);
+
+        assertThrows(IdempotencyKeyReuseException.class, () -> cache.execute("k", "other", () -> 2));
+    }
+
+    @Test
+    void testConcurrentDuplicatesWaitForFirstExecution() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry, clock::get);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> cache.execute("k", "req", () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }));
+            started.await();
+            Future<Integer> duplicate = executor.submit(() -> cache.execute("k", "req", executions::incrementAndGet));
+
+            Thread.sleep(50);
+            assertFalse(duplicate.isDone());
+            release.countDown();
+
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedExecutionIsNotCached() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), meterRegistry, clock::get);
+
+        assertThrows(InsufficientFundsException.class, () -> cache.execute("k", "req", () -> {
+            throw new InsufficientFundsException("no funds");
+        }));
+        assertEquals(0, cache.size());
+        assertEquals(7, cache.execute("k", "req", () -> 7));
+    }
+
+    @Test
+    void testEvictsOldestBeyondMaxEntries() {
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofMinutes(1), meterRegistry, clock::get);
+        cache.execute("a", "req", () -> 1);
+        cache.execute("b", "req", () -> 2);
+        cache.execute("c", "req", () -> 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, count("bank.idempotency.evictions", "cause", "size"));
+        assertEquals(10, cache.execute("a", "req", () -> 10));
+        assertEquals(3, cache.execute("c", "req", () -> 30));
+    }
+
+    @Test
+    void testRunningEntryIsNeitherEvictedNorExpired() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(1, Duration.ofSeconds(1), meterRegistry, clock::get);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> cache.execute("k", "req", () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }));
+            started.await();
+            cache.execute("a", "req", () -> 1);
+            cache.execute("b", "req", () -> 2);
+            clock.addAndGet(Duration.ofSeconds(2).toNanos());
+            Future<Integer> duplicate = executor.submit(() -> cache.execute("k", "req", executions::incrementAndGet));
+
+            Thread.sleep(50);
+            assertFalse(duplicate.isDone());
+            release.countDown();
+
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExpiresEntriesAfterTtl() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofSeconds(1), meterRegistry, clock::get);
+        cache.execute("k", "req", () -> 1);
+
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        assertEquals(2, cache.execute("k", "req", () -> 2));
+        assertEquals(1, count("bank.idempotency.evictions", "cause", "expired"));
+        assertEquals(1, cache.size());
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}